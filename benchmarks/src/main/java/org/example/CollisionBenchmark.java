@@ -0,0 +1,49 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Проход обнаружения столкновений после шага, нс/проход
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollisionBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int bodies;
+
+    @Param({"DISK", "PLUMMER", "SOLAR"})
+    public SyntheticSystems.Kind system;
+
+    private Simulation simulation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new Simulation(SyntheticSystems.create(system, bodies, 42), 60.0, 1.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.stopSimulation();
+    }
+
+    @Benchmark
+    public void detectCollisions() {
+        simulation.detectCollisions();
+    }
+}
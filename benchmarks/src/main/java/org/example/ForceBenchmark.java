@@ -0,0 +1,69 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Один расчёт ускорений всех тел, нс/вызов.
+// Масштабирование по потокам: -p threads=1,2,4,8
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ForceBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int bodies;
+
+    @Param({"DISK", "PLUMMER", "SOLAR"})
+    public SyntheticSystems.Kind system;
+
+    @Param({"DIRECT", "DIRECT_SYMMETRIC", "BARNES_HUT", "SOFTENED_SCALAR", "SOFTENED_VECTOR",
+            "SOFTENED_MIXED_SCALAR", "SOFTENED_MIXED_VECTOR"})
+    public SolverKind solver;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private BodyStore store;
+    private ForceSolver forceSolver;
+    private ForkJoinPool pool;
+    private double[] accX;
+    private double[] accY;
+    private double[] accZ;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = SyntheticSystems.create(system, bodies, 42);
+        pool = new ForkJoinPool(threads);
+        forceSolver = solver.create(pool);
+        accX = new double[bodies];
+        accY = new double[bodies];
+        accZ = new double[bodies];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] computeAccelerations() {
+        forceSolver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ);
+        return accX;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Влияние порядка тел в памяти на проходы с обращениями к соседям, мс/проход:
+// SHUFFLED — тела в случайном порядке (как после чтения из файла), MORTON и HILBERT —
+// после упорядочивания вдоль кривой (Simulation.enableReordering).
+// Промахи кэша на операцию: добавить -prof perfnorm (нужен Linux perf).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LocalityBenchmark {
+    @Param({"100000", "1000000"})
+    public int bodies;
+
+    @Param({"PLUMMER", "DISK"})
+    public SyntheticSystems.Kind system;
+
+    @Param({"SHUFFLED", "MORTON", "HILBERT"})
+    public String order;
+
+    private BodyStore store;
+    private BarnesHutSolver barnesHut;
+    private final CollisionDetector detector = new CollisionDetector();
+    private final CollisionPairs pairs = new CollisionPairs();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = SyntheticSystems.create(system, bodies, 42);
+        arrange(store, order, 7);
+        barnesHut = new BarnesHutSolver(0.5);
+    }
+
+    // Перемешивание или упорядочивание вдоль кривой
+    static void arrange(BodyStore store, String order, long seed) {
+        int n = store.size();
+        int[] permutation;
+        if (order.equals("SHUFFLED")) {
+            permutation = new int[n];
+            for (int i = 0; i < n; i++) {
+                permutation[i] = i;
+            }
+            Random random = new Random(seed);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = permutation[i];
+                permutation[i] = permutation[j];
+                permutation[j] = t;
+            }
+        } else {
+            long[] keys = new long[n];
+            SpaceFillingCurve.keys(BodyOrdering.valueOf(order), store.posX, store.posY, store.posZ, n, keys);
+            permutation = SpaceFillingCurve.sortedOrder(keys, n);
+        }
+        store.permute(permutation);
+    }
+
+    @Benchmark
+    public double barnesHutForces() {
+        barnesHut.computeAccelerations(store, store.posX, store.posY, store.posZ, store.accX, store.accY, store.accZ);
+        return store.accX[0];
+    }
+
+    @Benchmark
+    public int detectCollisions() {
+        detector.detect(store, pairs);
+        return pairs.size();
+    }
+}
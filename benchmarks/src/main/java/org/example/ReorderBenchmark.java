@@ -0,0 +1,49 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Стоимость одного упорядочивания (ключи кривой, поразрядная сортировка, перестановка хранилища), мс.
+// Сравнивается с выигрышем проходов в LocalityBenchmark, чтобы выбрать интервал упорядочивания.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReorderBenchmark {
+    @Param({"100000", "1000000"})
+    public int bodies;
+
+    @Param({"MORTON", "HILBERT"})
+    public BodyOrdering ordering;
+
+    private BodyStore store;
+    private long[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = SyntheticSystems.create(SyntheticSystems.Kind.PLUMMER, bodies, 42);
+        LocalityBenchmark.arrange(store, "SHUFFLED", 7);
+        keys = new long[bodies];
+    }
+
+    @Benchmark
+    public int reorder() {
+        int n = store.size();
+        SpaceFillingCurve.keys(ordering, store.posX, store.posY, store.posZ, n, keys);
+        return store.permute(SpaceFillingCurve.sortedOrder(keys, n))[0];
+    }
+}
@@ -0,0 +1,30 @@
+package org.example;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Варианты расчёта сил, сравниваемые в бенчмарках
+public enum SolverKind {
+    DIRECT,
+    DIRECT_SYMMETRIC,
+    BARNES_HUT,
+    // Смягчение Пламмера ε = 1e6 м: скалярное ядро и SIMD-ядро (нужен модуль jdk.incubator.vector)
+    SOFTENED_SCALAR,
+    SOFTENED_VECTOR,
+    // То же в смешанной точности: смещения во float, суммы в double
+    SOFTENED_MIXED_SCALAR,
+    SOFTENED_MIXED_VECTOR;
+
+    private static final double SOFTENING = 1e6;
+
+    public ForceSolver create(ForkJoinPool pool) {
+        return switch (this) {
+            case DIRECT -> new DirectForceSolver(pool);
+            case DIRECT_SYMMETRIC -> new DirectForceSolver(pool, true);
+            case BARNES_HUT -> new BarnesHutSolver(0.5);
+            case SOFTENED_SCALAR -> new SoftenedForceSolver(pool, SOFTENING, false);
+            case SOFTENED_VECTOR -> new SoftenedForceSolver(pool, SOFTENING, true);
+            case SOFTENED_MIXED_SCALAR -> new SoftenedForceSolver(pool, SOFTENING, false, KernelPrecision.MIXED);
+            case SOFTENED_MIXED_VECTOR -> new SoftenedForceSolver(pool, SOFTENING, true, KernelPrecision.MIXED);
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Полный шаг интегратора (расчёты сил и проверка столкновений), нс/шаг.
+// Прямое суммирование на 100k тел занимает минуты на шаг — для него стоит задать -p solver=BARNES_HUT.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class StepBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int bodies;
+
+    @Param({"DISK", "PLUMMER", "SOLAR"})
+    public SyntheticSystems.Kind system;
+
+    @Param({"DIRECT", "BARNES_HUT", "SOFTENED_VECTOR"})
+    public SolverKind solver;
+
+    @Param({"RK4", "LEAPFROG", "YOSHIDA4", "BLOCK"})
+    public String integrator;
+
+    // Число потоков пула сил; 0 — все доступные процессоры
+    @Param({"0"})
+    public int threads;
+
+    private Simulation simulation;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = new Simulation(SyntheticSystems.create(system, bodies, 42), 60.0, 1.0);
+        pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        simulation.setForceSolver(solver.create(pool));
+        simulation.setIntegrator(Integrator.forName(integrator));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.stopSimulation();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void step() {
+        simulation.step();
+    }
+}
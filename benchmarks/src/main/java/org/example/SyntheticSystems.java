@@ -0,0 +1,42 @@
+package org.example;
+
+// Синтетические системы тел для бенчмарков (на основе ScenarioGenerator)
+public final class SyntheticSystems {
+    private static final double AU = 1.496e11;         // м
+    private static final double SOLAR_MASS = 1.989e30; // кг
+
+    public enum Kind {
+        DISK,     // звезда и равномерный диск тел на круговых орбитах
+        PLUMMER,  // звёздное скопление со сферой Пламмера
+        SOLAR     // Солнце, восемь планет и пояс астероидов
+    }
+
+    private SyntheticSystems() {
+    }
+
+    public static BodyStore create(Kind kind, int n, long seed) {
+        return switch (kind) {
+            case DISK -> ScenarioGenerator.disk(n, seed);
+            case PLUMMER -> ScenarioGenerator.cluster(n, seed);
+            case SOLAR -> solar(n, seed);
+        };
+    }
+
+    public static BodyStore solar(int n, long seed) {
+        String[] names = {"Меркурий", "Венера", "Земля", "Марс", "Юпитер", "Сатурн", "Уран", "Нептун"};
+        double[] masses = {3.30e23, 4.87e24, 5.97e24, 6.42e23, 1.898e27, 5.68e26, 8.68e25, 1.02e26};
+        double[] distances = {0.387, 0.723, 1.0, 1.524, 5.203, 9.537, 19.19, 30.07};
+        double[] radii = {2.44e6, 6.05e6, 6.37e6, 3.39e6, 6.99e7, 5.82e7, 2.54e7, 2.46e7};
+        double[] inclinations = {7.00, 3.39, 0.0, 1.85, 1.30, 2.49, 0.77, 1.77}; // градусы к эклиптике
+
+        BodyStore store = new BodyStore(n);
+        new CelestialBody(store, "Солнце", SOLAR_MASS, 6.96e8, 0, 0, 0, 0, 0, 0, CelestialBody.classify(SOLAR_MASS),
+                0, 0, 0, 0, 0);
+        for (int i = 0; i < names.length && store.size() < n; i++) {
+            ScenarioGenerator.addKeplerian(store, names[i], masses[i], radii[i], SOLAR_MASS, distances[i] * AU, 0,
+                    Math.toRadians(inclinations[i]), 0, 0, 2 * Math.PI * i / 8.0);
+        }
+        ScenarioGenerator.addBelt(store, n - store.size(), 2.2 * AU, 3.2 * AU, SOLAR_MASS, seed);
+        return store;
+    }
+}
@@ -0,0 +1,8 @@
+package org.example;
+
+// Поведение канала снимков, когда кольцо заполнено (приёмник не успевает)
+public enum BackpressurePolicy {
+    DROP_NEWEST, // новый снимок отбрасывается, физика не ждёт
+    BLOCK,       // интегратор ждёт освобождения слота (без потерь, для записи в файл)
+    LATEST       // хранится только последний снимок: новый заменяет необработанный (для наблюдения)
+}
@@ -0,0 +1,310 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Приближённый расчёт сил методом Барнса–Хата (октодерево), O(n log n).
+// Узлы дерева хранятся в переиспользуемых массивах и перестраиваются на каждом вызове.
+public class BarnesHutSolver implements ForceSolver {
+    // Ограничение глубины: тела в одной точке складываются в общий лист-список
+    private static final int MAX_DEPTH = 48;
+
+    private final double theta; // угол раскрытия θ
+    private final double thetaSq;
+
+    // Пул узлов: геометрия, суммарная масса и взвешенная позиция
+    private double[] centerX, centerY, centerZ, halfSize;
+    private double[] nodeMass, nodeMassX, nodeMassY, nodeMassZ;
+    private int[] firstChild; // индекс первого из восьми потомков или -1 для листа
+    private int[] nodeBody;   // первое тело листа или -1
+    private int nodeCount;
+
+    // Связный список тел внутри листа (нужен только для совпадающих позиций)
+    private int[] nextBody = new int[0];
+
+    // Стек обхода дерева
+    private int[] stack = new int[7 * MAX_DEPTH + 8];
+
+    public BarnesHutSolver(double theta) {
+        if (theta < 0) {
+            throw new IllegalArgumentException("Угол раскрытия θ не может быть отрицательным: " + theta);
+        }
+        this.theta = theta;
+        this.thetaSq = theta * theta;
+        allocateNodes(64);
+    }
+
+    public double getTheta() { return theta; }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ) {
+        int n = store.size();
+        if (n == 0) return;
+        double[] mass = store.mass;
+        buildTree(mass, posX, posY, posZ, n);
+        for (int i = 0; i < n; i++) {
+            accelerationOf(i, mass, posX, posY, posZ, accX, accY, accZ);
+        }
+    }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ,
+                                     int[] active, int activeCount) {
+        int n = store.size();
+        if (n == 0 || activeCount == 0) return;
+        double[] mass = store.mass;
+        buildTree(mass, posX, posY, posZ, n);
+        for (int k = 0; k < activeCount; k++) {
+            accelerationOf(active[k], mass, posX, posY, posZ, accX, accY, accZ);
+        }
+    }
+
+    // Потенциальная энергия с тем же критерием раскрытия: ½ Σ mᵢ φᵢ, где φᵢ — потенциал
+    // в точке тела i от дерева. Погрешность того же порядка, что и у ускорений.
+    @Override
+    public double potentialEnergy(BodyStore store) {
+        int n = store.size();
+        if (n == 0) return 0;
+        double[] mass = store.mass;
+        double[] posX = store.posX;
+        double[] posY = store.posY;
+        double[] posZ = store.posZ;
+        buildTree(mass, posX, posY, posZ, n);
+        double energy = 0;
+        for (int i = 0; i < n; i++) {
+            energy += mass[i] * potentialOf(i, mass, posX, posY, posZ);
+        }
+        return 0.5 * energy;
+    }
+
+    // Построение дерева для текущих позиций
+    private void buildTree(double[] mass, double[] posX, double[] posY, double[] posZ, int n) {
+        if (nextBody.length < n) {
+            nextBody = new int[n];
+        }
+
+        // Кубическая ограничивающая область
+        double minX = posX[0], maxX = posX[0], minY = posY[0], maxY = posY[0], minZ = posZ[0], maxZ = posZ[0];
+        for (int i = 1; i < n; i++) {
+            minX = Math.min(minX, posX[i]);
+            maxX = Math.max(maxX, posX[i]);
+            minY = Math.min(minY, posY[i]);
+            maxY = Math.max(maxY, posY[i]);
+            minZ = Math.min(minZ, posZ[i]);
+            maxZ = Math.max(maxZ, posZ[i]);
+        }
+        double half = 0.5 * Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ)) * (1 + 1e-9);
+        if (half == 0) half = 1; // все тела в одной точке
+
+        nodeCount = 0;
+        newNode(0.5 * (minX + maxX), 0.5 * (minY + maxY), 0.5 * (minZ + maxZ), half);
+        for (int i = 0; i < n; i++) {
+            insert(i, mass, posX, posY, posZ);
+        }
+    }
+
+    // Вставка тела b с накоплением массы вдоль пути от корня
+    private void insert(int b, double[] mass, double[] posX, double[] posY, double[] posZ) {
+        double m = mass[b];
+        double x = posX[b];
+        double y = posY[b];
+        double z = posZ[b];
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            nodeMass[node] += m;
+            nodeMassX[node] += m * x;
+            nodeMassY[node] += m * y;
+            nodeMassZ[node] += m * z;
+
+            if (firstChild[node] >= 0) {
+                node = firstChild[node] + octant(node, x, y, z);
+                depth++;
+                continue;
+            }
+            if (nodeBody[node] < 0) {
+                nodeBody[node] = b;
+                nextBody[b] = -1;
+                return;
+            }
+            if (depth >= MAX_DEPTH) {
+                nextBody[b] = nodeBody[node];
+                nodeBody[node] = b;
+                return;
+            }
+
+            // Лист уже занят — делим его и переносим прежнее тело в потомка
+            int existing = nodeBody[node];
+            nodeBody[node] = -1;
+            int child = subdivide(node);
+            double ex = posX[existing];
+            double ey = posY[existing];
+            double ez = posZ[existing];
+            double em = mass[existing];
+            int target = child + octant(node, ex, ey, ez);
+            nodeBody[target] = existing;
+            nodeMass[target] = em;
+            nodeMassX[target] = em * ex;
+            nodeMassY[target] = em * ey;
+            nodeMassZ[target] = em * ez;
+
+            node = child + octant(node, x, y, z);
+            depth++;
+        }
+    }
+
+    // Ускорение тела i обходом дерева с критерием раскрытия s/d < θ
+    private void accelerationOf(int i, double[] mass, double[] posX, double[] posY, double[] posZ,
+                                double[] accX, double[] accY, double[] accZ) {
+        double xi = posX[i];
+        double yi = posY[i];
+        double zi = posZ[i];
+        double ax = 0;
+        double ay = 0;
+        double az = 0;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            double m = nodeMass[node];
+            if (m == 0) continue;
+
+            if (firstChild[node] < 0) {
+                // Лист: точное взаимодействие с каждым телом списка
+                for (int j = nodeBody[node]; j >= 0; j = nextBody[j]) {
+                    if (j == i) continue;
+                    double dx = posX[j] - xi;
+                    double dy = posY[j] - yi;
+                    double dz = posZ[j] - zi;
+                    double distSq = dx * dx + dy * dy + dz * dz;
+                    if (distSq == 0) continue; // Избегаем деления на ноль
+                    double invDist = 1.0 / Math.sqrt(distSq);
+                    double scale = CelestialBody.G * mass[j] * invDist * invDist * invDist;
+                    ax += scale * dx;
+                    ay += scale * dy;
+                    az += scale * dz;
+                }
+                continue;
+            }
+
+            double dx = nodeMassX[node] / m - xi;
+            double dy = nodeMassY[node] / m - yi;
+            double dz = nodeMassZ[node] / m - zi;
+            double distSq = dx * dx + dy * dy + dz * dz;
+            double size = 2 * halfSize[node];
+            if (size * size < thetaSq * distSq) {
+                // Узел достаточно далеко — заменяем его центром масс
+                double invDist = 1.0 / Math.sqrt(distSq);
+                double scale = CelestialBody.G * m * invDist * invDist * invDist;
+                ax += scale * dx;
+                ay += scale * dy;
+                az += scale * dz;
+            } else {
+                int child = firstChild[node];
+                for (int c = 0; c < 8; c++) {
+                    stack[top++] = child + c;
+                }
+            }
+        }
+        accX[i] = ax;
+        accY[i] = ay;
+        accZ[i] = az;
+    }
+
+    // Гравитационный потенциал в точке тела i (без учёта самого тела)
+    private double potentialOf(int i, double[] mass, double[] posX, double[] posY, double[] posZ) {
+        double xi = posX[i];
+        double yi = posY[i];
+        double zi = posZ[i];
+        double phi = 0;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            double m = nodeMass[node];
+            if (m == 0) continue;
+
+            if (firstChild[node] < 0) {
+                for (int j = nodeBody[node]; j >= 0; j = nextBody[j]) {
+                    if (j == i) continue;
+                    double dx = posX[j] - xi;
+                    double dy = posY[j] - yi;
+                    double dz = posZ[j] - zi;
+                    double distSq = dx * dx + dy * dy + dz * dz;
+                    if (distSq == 0) continue; // Избегаем деления на ноль
+                    phi -= CelestialBody.G * mass[j] / Math.sqrt(distSq);
+                }
+                continue;
+            }
+
+            double dx = nodeMassX[node] / m - xi;
+            double dy = nodeMassY[node] / m - yi;
+            double dz = nodeMassZ[node] / m - zi;
+            double distSq = dx * dx + dy * dy + dz * dz;
+            double size = 2 * halfSize[node];
+            if (size * size < thetaSq * distSq) {
+                phi -= CelestialBody.G * m / Math.sqrt(distSq);
+            } else {
+                int child = firstChild[node];
+                for (int c = 0; c < 8; c++) {
+                    stack[top++] = child + c;
+                }
+            }
+        }
+        return phi;
+    }
+
+    // Номер октанта точки относительно центра узла: бит 0 — x, бит 1 — y, бит 2 — z
+    private int octant(int node, double x, double y, double z) {
+        return (x >= centerX[node] ? 1 : 0) | (y >= centerY[node] ? 2 : 0) | (z >= centerZ[node] ? 4 : 0);
+    }
+
+    // Создание восьми потомков узла в порядке номеров октантов, возвращает индекс первого
+    private int subdivide(int node) {
+        double quarter = 0.5 * halfSize[node];
+        double cx = centerX[node];
+        double cy = centerY[node];
+        double cz = centerZ[node];
+        int first = nodeCount;
+        for (int c = 0; c < 8; c++) {
+            newNode((c & 1) != 0 ? cx + quarter : cx - quarter,
+                    (c & 2) != 0 ? cy + quarter : cy - quarter,
+                    (c & 4) != 0 ? cz + quarter : cz - quarter, quarter);
+        }
+        firstChild[node] = first;
+        return first;
+    }
+
+    private int newNode(double cx, double cy, double cz, double half) {
+        if (nodeCount == centerX.length) {
+            allocateNodes(nodeCount + (nodeCount >> 1));
+        }
+        int node = nodeCount++;
+        centerX[node] = cx;
+        centerY[node] = cy;
+        centerZ[node] = cz;
+        halfSize[node] = half;
+        nodeMass[node] = 0;
+        nodeMassX[node] = 0;
+        nodeMassY[node] = 0;
+        nodeMassZ[node] = 0;
+        firstChild[node] = -1;
+        nodeBody[node] = -1;
+        return node;
+    }
+
+    // Расширение пула узлов (сохраняет уже построенные узлы)
+    private void allocateNodes(int capacity) {
+        centerX = centerX == null ? new double[capacity] : Arrays.copyOf(centerX, capacity);
+        centerY = centerY == null ? new double[capacity] : Arrays.copyOf(centerY, capacity);
+        centerZ = centerZ == null ? new double[capacity] : Arrays.copyOf(centerZ, capacity);
+        halfSize = halfSize == null ? new double[capacity] : Arrays.copyOf(halfSize, capacity);
+        nodeMass = nodeMass == null ? new double[capacity] : Arrays.copyOf(nodeMass, capacity);
+        nodeMassX = nodeMassX == null ? new double[capacity] : Arrays.copyOf(nodeMassX, capacity);
+        nodeMassY = nodeMassY == null ? new double[capacity] : Arrays.copyOf(nodeMassY, capacity);
+        nodeMassZ = nodeMassZ == null ? new double[capacity] : Arrays.copyOf(nodeMassZ, capacity);
+        firstChild = firstChild == null ? new int[capacity] : Arrays.copyOf(firstChild, capacity);
+        nodeBody = nodeBody == null ? new int[capacity] : Arrays.copyOf(nodeBody, capacity);
+    }
+}
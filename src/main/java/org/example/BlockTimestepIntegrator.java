@@ -0,0 +1,214 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Иерархические (блочные) шаги по времени с адаптивным выбором шага для каждого тела.
+// Шаг симуляции dt делится на ступени: тело на ступени r движется с шагом dt / 2^r.
+// Ступень выбирается по критерию dtᵢ = η · |aᵢ| / |ȧᵢ|, где рывок ȧ оценивается разностью
+// ускорений между двумя расчётами сил для этого тела.
+// Схема — kick-drift-kick: в начале и конце своего шага тело получает полуимпульс со своим dtᵢ,
+// все тела дрейфуют синхронно, а силы на каждой границе подшага считаются только для тел,
+// у которых на этой границе заканчивается шаг. Поэтому медленные тела почти не тратят
+// время расчёта сил, пока быстрая пара интегрируется мелкими шагами.
+//
+// Ступени тел не сохраняются в контрольных точках: после восстановления первый шаг
+// выполняется на самой мелкой ступени, поэтому продолжение не совпадает бит в бит.
+public class BlockTimestepIntegrator implements Integrator {
+    public static final String NAME = "BLOCK";
+
+    private final int maxRung; // самая мелкая ступень: шаг dt / 2^maxRung
+    private final double eta;  // безразмерный параметр точности
+
+    private int[] rung = new int[0];
+    private double[] prevAccX = new double[0]; // ускорение в начале текущего шага тела
+    private double[] prevAccY = new double[0];
+    private double[] prevAccZ = new double[0];
+    private double[] newAccX = new double[0];
+    private double[] newAccY = new double[0];
+    private double[] newAccZ = new double[0];
+    private int[] active = new int[0];
+    private int[] rungCount;
+    private boolean primed;
+    private int primedSize = -1;
+    private long bodyForceEvaluations; // расчётов сил для отдельных тел с начала работы
+
+    public BlockTimestepIntegrator() {
+        this(10, 0.03);
+    }
+
+    public BlockTimestepIntegrator(int maxRung, double eta) {
+        if (maxRung < 0 || maxRung > 30) {
+            throw new IllegalArgumentException("Число ступеней должно быть в диапазоне 0..30: " + maxRung);
+        }
+        if (eta <= 0) {
+            throw new IllegalArgumentException("Параметр точности должен быть положительным: " + eta);
+        }
+        this.maxRung = maxRung;
+        this.eta = eta;
+        this.rungCount = new int[maxRung + 1];
+    }
+
+    @Override
+    public String name() { return NAME; }
+
+    @Override
+    public void reset() {
+        primed = false;
+    }
+
+    // Ступени следуют за телами; массив active свободен между шагами и служит буфером
+    @Override
+    public void renumber(int[] newIndex, int n) {
+        if (!primed || primedSize != n) return;
+        for (int i = 0; i < n; i++) {
+            active[newIndex[i]] = rung[i];
+        }
+        int[] swap = rung;
+        rung = active;
+        active = swap;
+    }
+
+    // Число тел на ступени r
+    public int getRungCount(int r) { return rungCount[r]; }
+
+    public int getMaxRung() { return maxRung; }
+
+    // Сколько раз считалась сила для отдельного тела (для оценки экономии)
+    public long getBodyForceEvaluations() { return bodyForceEvaluations; }
+
+    @Override
+    public void step(BodyStore store, ForceSolver solver, double dt) {
+        int n = store.size();
+        prime(store, solver);
+
+        double[] posX = store.posX;
+        double[] posY = store.posY;
+        double[] posZ = store.posZ;
+        double[] velX = store.velX;
+        double[] velY = store.velY;
+        double[] velZ = store.velZ;
+        double[] accX = store.accX;
+        double[] accY = store.accY;
+        double[] accZ = store.accZ;
+        int total = 1 << maxRung;          // подшагов самой мелкой ступени в шаге dt
+        double dtMin = dt / total;
+
+        // Все тела синхронны: каждое начинает свой шаг полуимпульсом
+        for (int i = 0; i < n; i++) {
+            double half = 0.5 * dt / (1 << rung[i]);
+            velX[i] += half * accX[i];
+            velY[i] += half * accY[i];
+            velZ[i] += half * accZ[i];
+            prevAccX[i] = accX[i];
+            prevAccY[i] = accY[i];
+            prevAccZ[i] = accZ[i];
+        }
+
+        int s = 0;
+        while (s < total) {
+            // Следующая граница — конец шага самой мелкой занятой ступени
+            int next = s + (1 << (maxRung - highestRung()));
+            double drift = (next - s) * dtMin;
+            for (int i = 0; i < n; i++) {
+                posX[i] += drift * velX[i];
+                posY[i] += drift * velY[i];
+                posZ[i] += drift * velZ[i];
+            }
+            s = next;
+
+            // Тела, у которых на этой границе заканчивается шаг
+            int activeCount = 0;
+            for (int i = 0; i < n; i++) {
+                if ((s & ((1 << (maxRung - rung[i])) - 1)) == 0) {
+                    active[activeCount++] = i;
+                }
+            }
+            solver.computeAccelerations(store, posX, posY, posZ, newAccX, newAccY, newAccZ, active, activeCount);
+            bodyForceEvaluations += activeCount;
+
+            for (int k = 0; k < activeCount; k++) {
+                int i = active[k];
+                double oldDt = dt / (1 << rung[i]);
+                // Завершающий полуимпульс со старым шагом
+                velX[i] += 0.5 * oldDt * newAccX[i];
+                velY[i] += 0.5 * oldDt * newAccY[i];
+                velZ[i] += 0.5 * oldDt * newAccZ[i];
+                accX[i] = newAccX[i];
+                accY[i] = newAccY[i];
+                accZ[i] = newAccZ[i];
+
+                int newRung = chooseRung(i, oldDt, s, total);
+                rungCount[rung[i]]--;
+                rungCount[newRung]++;
+                rung[i] = newRung;
+                prevAccX[i] = accX[i];
+                prevAccY[i] = accY[i];
+                prevAccZ[i] = accZ[i];
+
+                // Открывающий полуимпульс следующего шага (на границе dt — в следующем вызове)
+                if (s < total) {
+                    double half = 0.5 * dt / (1 << newRung);
+                    velX[i] += half * accX[i];
+                    velY[i] += half * accY[i];
+                    velZ[i] += half * accZ[i];
+                }
+            }
+        }
+    }
+
+    // Новая ступень тела i по оценке рывка за прошедший шаг oldDt
+    private int chooseRung(int i, double oldDt, int s, int total) {
+        double jerkX = (newAccX[i] - prevAccX[i]) / oldDt;
+        double jerkY = (newAccY[i] - prevAccY[i]) / oldDt;
+        double jerkZ = (newAccZ[i] - prevAccZ[i]) / oldDt;
+        double jerk = Math.sqrt(jerkX * jerkX + jerkY * jerkY + jerkZ * jerkZ);
+        double acc = Math.sqrt(newAccX[i] * newAccX[i] + newAccY[i] * newAccY[i] + newAccZ[i] * newAccZ[i]);
+        int wanted;
+        if (jerk == 0) {
+            wanted = 0;
+        } else {
+            double dtWanted = eta * acc / jerk;
+            double ratio = (oldDt * (1 << rung[i])) / dtWanted; // dt / dtᵢ
+            wanted = ratio <= 1 ? 0 : Math.min(maxRung, 64 - Long.numberOfLeadingZeros((long) Math.ceil(ratio) - 1));
+        }
+
+        // Мельчить шаг можно всегда; укрупнять — не более чем на ступень за раз
+        // и только если граница s выровнена по новому, более длинному шагу
+        int current = rung[i];
+        if (wanted >= current) return wanted;
+        int coarser = current - 1;
+        if (s == total || (s & ((1 << (maxRung - coarser)) - 1)) == 0) {
+            return coarser;
+        }
+        return current;
+    }
+
+    private int highestRung() {
+        for (int r = maxRung; r > 0; r--) {
+            if (rungCount[r] > 0) return r;
+        }
+        return 0;
+    }
+
+    // Начальные ускорения; без оценки рывка все тела начинают с самой мелкой ступени
+    private void prime(BodyStore store, ForceSolver solver) {
+        int n = store.size();
+        if (primed && primedSize == n) return;
+        if (rung.length < n) {
+            rung = new int[store.capacity()];
+            prevAccX = new double[store.capacity()];
+            prevAccY = new double[store.capacity()];
+            prevAccZ = new double[store.capacity()];
+            newAccX = new double[store.capacity()];
+            newAccY = new double[store.capacity()];
+            newAccZ = new double[store.capacity()];
+            active = new int[store.capacity()];
+        }
+        solver.computeAccelerations(store, store.posX, store.posY, store.posZ, store.accX, store.accY, store.accZ);
+        Arrays.fill(rung, 0, n, maxRung);
+        Arrays.fill(rungCount, 0);
+        rungCount[maxRung] = n;
+        primed = true;
+        primedSize = n;
+    }
+}
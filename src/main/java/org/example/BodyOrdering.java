@@ -0,0 +1,7 @@
+package org.example;
+
+// Кривая, вдоль которой периодически упорядочиваются тела в хранилище (Simulation.enableReordering)
+public enum BodyOrdering {
+    MORTON, // Z-порядок: ключ считается чередованием битов, дёшево
+    HILBERT // кривая Гильберта: без скачков между соседними ячейками, лучше локальность
+}
@@ -0,0 +1,225 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Хранилище состояния тел в виде структуры массивов (SoA).
+// Интегратор и расчёт сил работают напрямую с этими массивами,
+// а CelestialBody служит лишь "окном" на свою ячейку.
+// Каждая координата — отдельный непрерывный массив, поэтому третье измерение
+// добавляет ещё один поток последовательного чтения и векторизуется так же, как x и y.
+public class BodyStore {
+    // Состояние тел (индекс массива = индекс тела)
+    double[] posX; // м
+    double[] posY; // м
+    double[] posZ; // м
+    double[] velX; // м/с
+    double[] velY; // м/с
+    double[] velZ; // м/с
+    double[] accX; // м/с²
+    double[] accY; // м/с²
+    double[] accZ; // м/с²
+    double[] mass; // кг
+    double[] radius; // м
+
+    // Обратные ссылки на фасады, чтобы при перестановках обновлять их индексы
+    private CelestialBody[] views;
+    private int size;
+
+    // Постоянные номера тел: индекс меняется при удалении и перестановке, номер — никогда.
+    // Номера не переиспользуются; indexOfId[id] — текущий индекс тела или -1 для удалённого.
+    private int[] ids;
+    private int[] indexOfId = new int[0];
+    private int nextId;
+
+    // Запасные массивы для перестановки: каждый массив состояния собирается в запасной,
+    // а прежний становится запасным для следующего — без копирования обратно
+    private double[] spare = new double[0];
+    private CelestialBody[] spareViews = new CelestialBody[0];
+    private int[] spareIds = new int[0];
+    private int[] newIndex = new int[0];
+
+    public BodyStore(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.posX = new double[initial];
+        this.posY = new double[initial];
+        this.posZ = new double[initial];
+        this.velX = new double[initial];
+        this.velY = new double[initial];
+        this.velZ = new double[initial];
+        this.accX = new double[initial];
+        this.accY = new double[initial];
+        this.accZ = new double[initial];
+        this.mass = new double[initial];
+        this.radius = new double[initial];
+        this.views = new CelestialBody[initial];
+        this.ids = new int[initial];
+        this.size = 0;
+    }
+
+    // Количество тел в хранилище
+    public int size() { return size; }
+
+    // Текущая ёмкость массивов
+    public int capacity() { return posX.length; }
+
+    // Фасад тела по индексу
+    public CelestialBody body(int index) { return views[index]; }
+
+    // Постоянный номер тела с индексом index
+    public int id(int index) { return ids[index]; }
+
+    // Текущий индекс тела по номеру или -1, если тело удалено или номер не выдавался
+    public int indexOf(int id) {
+        return id >= 0 && id < nextId ? indexOfId[id] : -1;
+    }
+
+    // Номера тел из контрольной точки: ids[i] — номер тела с индексом i, nextId — следующий
+    // выдаваемый номер (номера удалённых тел не выдаются повторно и после восстановления)
+    void restoreIds(int[] ids, int nextId) {
+        int[] indexOfId = new int[Math.max(16, nextId)];
+        Arrays.fill(indexOfId, -1);
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            if (id < 0 || id >= nextId || indexOfId[id] >= 0) {
+                throw new IllegalArgumentException("Недопустимый или повторный номер тела: " + id);
+            }
+            indexOfId[id] = i;
+        }
+        System.arraycopy(ids, 0, this.ids, 0, size);
+        this.indexOfId = indexOfId;
+        this.nextId = nextId;
+    }
+
+    // Следующий выдаваемый номер (для контрольной точки)
+    int nextId() { return nextId; }
+
+    // Добавление нового тела, возвращает его индекс
+    int add(CelestialBody view, double mass, double radius, double posX, double posY, double posZ,
+            double velX, double velY, double velZ, double accX, double accY, double accZ) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        this.posX[index] = posX;
+        this.posY[index] = posY;
+        this.posZ[index] = posZ;
+        this.velX[index] = velX;
+        this.velY[index] = velY;
+        this.velZ[index] = velZ;
+        this.accX[index] = accX;
+        this.accY[index] = accY;
+        this.accZ[index] = accZ;
+        this.mass[index] = mass;
+        this.radius[index] = radius;
+        this.views[index] = view;
+        if (nextId == indexOfId.length) {
+            indexOfId = Arrays.copyOf(indexOfId, Math.max(16, 2 * nextId));
+        }
+        this.ids[index] = nextId;
+        indexOfId[nextId++] = index;
+        return index;
+    }
+
+    // Удаление тела с сохранением плотной упаковки: на место удалённого переносится последнее тело,
+    // освободившаяся ячейка в конце переиспользуется следующим add. Фасад удалённого тела
+    // получает собственную копию состояния. Возвращает прежний индекс перенесённого тела
+    // или -1, если удалялось последнее.
+    int remove(int index) {
+        views[index].attach(new BodyStore(1));
+        indexOfId[ids[index]] = -1;
+        int last = --size;
+        int moved = -1;
+        if (index != last) {
+            posX[index] = posX[last];
+            posY[index] = posY[last];
+            posZ[index] = posZ[last];
+            velX[index] = velX[last];
+            velY[index] = velY[last];
+            velZ[index] = velZ[last];
+            accX[index] = accX[last];
+            accY[index] = accY[last];
+            accZ[index] = accZ[last];
+            mass[index] = mass[last];
+            radius[index] = radius[last];
+            views[index] = views[last];
+            views[index].moveTo(index);
+            ids[index] = ids[last];
+            indexOfId[ids[index]] = index;
+            moved = last;
+        }
+        views[last] = null;
+        return moved;
+    }
+
+    // Перестановка тел: в ячейку k переносится тело order[k] (order — перестановка [0, size)).
+    // Номера тел и фасады следуют за своими телами. Возвращает отображение старых индексов
+    // в новые; массив принадлежит хранилищу и действителен до следующей перестановки.
+    int[] permute(int[] order) {
+        int n = size;
+        int capacity = posX.length;
+        if (spare.length != capacity) {
+            spare = new double[capacity];
+            spareViews = new CelestialBody[capacity];
+            spareIds = new int[capacity];
+            newIndex = new int[capacity];
+        }
+        posX = gather(posX, order, n);
+        posY = gather(posY, order, n);
+        posZ = gather(posZ, order, n);
+        velX = gather(velX, order, n);
+        velY = gather(velY, order, n);
+        velZ = gather(velZ, order, n);
+        accX = gather(accX, order, n);
+        accY = gather(accY, order, n);
+        accZ = gather(accZ, order, n);
+        mass = gather(mass, order, n);
+        radius = gather(radius, order, n);
+
+        CelestialBody[] oldViews = views;
+        int[] oldIds = ids;
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            spareViews[k] = oldViews[i];
+            spareIds[k] = oldIds[i];
+            newIndex[i] = k;
+        }
+        views = spareViews;
+        ids = spareIds;
+        spareViews = oldViews;
+        spareIds = oldIds;
+        for (int k = 0; k < n; k++) {
+            if (views[k] != null) {
+                views[k].moveTo(k);
+            }
+            indexOfId[ids[k]] = k;
+        }
+        return newIndex;
+    }
+
+    // Сборка source[order[k]] в запасной массив; прежний массив становится запасным
+    private double[] gather(double[] source, int[] order, int n) {
+        double[] target = spare;
+        for (int k = 0; k < n; k++) {
+            target[k] = source[order[k]];
+        }
+        spare = source;
+        return target;
+    }
+
+    // Увеличение ёмкости (с запасом, чтобы не перевыделять массивы на каждое добавление)
+    public void ensureCapacity(int required) {
+        if (required <= posX.length) return;
+        int newCapacity = Math.max(required, posX.length + (posX.length >> 1));
+        posX = Arrays.copyOf(posX, newCapacity);
+        posY = Arrays.copyOf(posY, newCapacity);
+        posZ = Arrays.copyOf(posZ, newCapacity);
+        velX = Arrays.copyOf(velX, newCapacity);
+        velY = Arrays.copyOf(velY, newCapacity);
+        velZ = Arrays.copyOf(velZ, newCapacity);
+        accX = Arrays.copyOf(accX, newCapacity);
+        accY = Arrays.copyOf(accY, newCapacity);
+        accZ = Arrays.copyOf(accZ, newCapacity);
+        mass = Arrays.copyOf(mass, newCapacity);
+        radius = Arrays.copyOf(radius, newCapacity);
+        views = Arrays.copyOf(views, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+    }
+}
@@ -3,16 +3,13 @@ package org.example;
 public class CelestialBody {
     // Основные параметры
     private String name;
-    private double mass; // кг
-    private double radius; // м
-    private double posX; // м
-    private double posY; // м
-    private double velX; // м/с
-    private double velY; // м/с
-    private double accX; // м/с²
-    private double accY; // м/с²
     private String classification;
 
+    // Физическое состояние (масса, радиус, позиция, скорость, ускорение)
+    // хранится в BodyStore; тело — лишь фасад над своей ячейкой
+    private BodyStore store;
+    private int index;
+
     // Дополнительные орбитальные параметры
     private double majorSemiAxis;      // Большая полуось (м)
     private double eccentricity;       // Эксцентриситет
@@ -21,23 +18,43 @@ public class CelestialBody {
     private double rotationPeriod;     // Период вращения (секунды)
 
     // Гравитационная постоянная
-    private static final double G = 6.67430e-11; // м^3 кг^-1 с^-2
+    static final double G = 6.67430e-11; // м^3 кг^-1 с^-2
+
+    // Минимальные массы для классификации
+    public static final double PLANET_MIN = 3.3e23; // Масса Меркурия
+    public static final double STAR_MIN = 1.6e29;   // Примерно 0.08 солнечных масс
+    public static final double BH_MIN = 6.0e30;     // Примерно 3 солнечные массы
 
-    // Конструктор
+    // Конструктор для тела в плоскости z = 0
     public CelestialBody(String name, double mass, double radius, double posX, double posY,
                          double velX, double velY, String classification,
                          double majorSemiAxis, double eccentricity,
                          double orbitalInclination, double periodOfRevolution,
                          double rotationPeriod) {
+        this(name, mass, radius, posX, posY, 0, velX, velY, 0, classification,
+                majorSemiAxis, eccentricity, orbitalInclination, periodOfRevolution, rotationPeriod);
+    }
+
+    // Конструктор с полным трёхмерным состоянием
+    public CelestialBody(String name, double mass, double radius, double posX, double posY, double posZ,
+                         double velX, double velY, double velZ, String classification,
+                         double majorSemiAxis, double eccentricity,
+                         double orbitalInclination, double periodOfRevolution,
+                         double rotationPeriod) {
+        // Пока тело не добавлено в симуляцию, оно живёт в собственном хранилище на одну ячейку
+        this(new BodyStore(1), name, mass, radius, posX, posY, posZ, velX, velY, velZ, classification,
+                majorSemiAxis, eccentricity, orbitalInclination, periodOfRevolution, rotationPeriod);
+    }
+
+    // Конструктор, размещающий тело сразу в заданном хранилище (без промежуточной копии)
+    CelestialBody(BodyStore store, String name, double mass, double radius, double posX, double posY, double posZ,
+                  double velX, double velY, double velZ, String classification,
+                  double majorSemiAxis, double eccentricity,
+                  double orbitalInclination, double periodOfRevolution,
+                  double rotationPeriod) {
         this.name = name;
-        this.mass = mass;
-        this.radius = radius;
-        this.posX = posX;
-        this.posY = posY;
-        this.velX = velX;
-        this.velY = velY;
-        this.accX = 0;
-        this.accY = 0;
+        this.store = store;
+        this.index = store.add(this, mass, radius, posX, posY, posZ, velX, velY, velZ, 0, 0, 0);
         this.classification = classification;
         this.majorSemiAxis = majorSemiAxis;
         this.eccentricity = eccentricity;
@@ -48,14 +65,17 @@ public class CelestialBody {
 
     // Геттеры и сеттеры
     public String getName() { return name; }
-    public double getMass() { return mass; }
-    public double getRadius() { return radius; }
-    public double getPosX() { return posX; }
-    public double getPosY() { return posY; }
-    public double getVelX() { return velX; }
-    public double getVelY() { return velY; }
-    public double getAccX() { return accX; }
-    public double getAccY() { return accY; }
+    public double getMass() { return store.mass[index]; }
+    public double getRadius() { return store.radius[index]; }
+    public double getPosX() { return store.posX[index]; }
+    public double getPosY() { return store.posY[index]; }
+    public double getPosZ() { return store.posZ[index]; }
+    public double getVelX() { return store.velX[index]; }
+    public double getVelY() { return store.velY[index]; }
+    public double getVelZ() { return store.velZ[index]; }
+    public double getAccX() { return store.accX[index]; }
+    public double getAccY() { return store.accY[index]; }
+    public double getAccZ() { return store.accZ[index]; }
     public String getClassification() { return classification; }
     public double getMajorSemiAxis() { return majorSemiAxis; }
     public double getEccentricity() { return eccentricity; }
@@ -63,23 +83,67 @@ public class CelestialBody {
     public double getPeriodOfRevolution() { return periodOfRevolution; }
     public double getRotationPeriod() { return rotationPeriod; }
 
-    public void setPosX(double posX) { this.posX = posX; }
-    public void setPosY(double posY) { this.posY = posY; }
-    public void setVelX(double velX) { this.velX = velX; }
-    public void setVelY(double velY) { this.velY = velY; }
-    public void setAccX(double accX) { this.accX = accX; }
-    public void setAccY(double accY) { this.accY = accY; }
+    public void setPosX(double posX) { store.posX[index] = posX; }
+    public void setPosY(double posY) { store.posY[index] = posY; }
+    public void setPosZ(double posZ) { store.posZ[index] = posZ; }
+    public void setVelX(double velX) { store.velX[index] = velX; }
+    public void setVelY(double velY) { store.velY[index] = velY; }
+    public void setVelZ(double velZ) { store.velZ[index] = velZ; }
+    public void setAccX(double accX) { store.accX[index] = accX; }
+    public void setAccY(double accY) { store.accY[index] = accY; }
+    public void setAccZ(double accZ) { store.accZ[index] = accZ; }
     public void setMajorSemiAxis(double majorSemiAxis) { this.majorSemiAxis = majorSemiAxis; }
     public void setEccentricity(double eccentricity) { this.eccentricity = eccentricity; }
     public void setOrbitalInclination(double orbitalInclination) { this.orbitalInclination = orbitalInclination; }
     public void setPeriodOfRevolution(double periodOfRevolution) { this.periodOfRevolution = periodOfRevolution; }
     public void setRotationPeriod(double rotationPeriod) { this.rotationPeriod = rotationPeriod; }
 
+    // Классификация тела по массе
+    public static String classify(double mass) {
+        if (mass >= BH_MIN) {
+            return "Черная дыра";
+        } else if (mass >= STAR_MIN) {
+            return "Звезда";
+        } else if (mass >= PLANET_MIN) {
+            return "Планета";
+        } else {
+            return "Не классифицировано";
+        }
+    }
+
+    // Хранилище и индекс ячейки, на которую смотрит тело
+    BodyStore getStore() { return store; }
+    int getIndex() { return index; }
+
+    // Постоянный номер тела в хранилище: не меняется при перестановках и удалении других тел
+    public int getId() { return store.id(index); }
+
+    // Новый индекс ячейки после уплотнения хранилища (BodyStore.remove)
+    void moveTo(int index) {
+        this.index = index;
+    }
+
+    void setClassification(String classification) {
+        this.classification = classification;
+    }
+
+    // Перенос состояния тела в общее хранилище симуляции
+    void attach(BodyStore target) {
+        if (target == store) return;
+        int newIndex = target.add(this, store.mass[index], store.radius[index],
+                store.posX[index], store.posY[index], store.posZ[index],
+                store.velX[index], store.velY[index], store.velZ[index],
+                store.accX[index], store.accY[index], store.accZ[index]);
+        this.store = target;
+        this.index = newIndex;
+    }
+
     // Расчёт расстояния до другого тела
     public double distanceTo(CelestialBody other) {
-        double dx = other.posX - this.posX;
-        double dy = other.posY - this.posY;
-        return Math.sqrt(dx * dx + dy * dy);
+        double dx = other.getPosX() - this.getPosX();
+        double dy = other.getPosY() - this.getPosY();
+        double dz = other.getPosZ() - this.getPosZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
 
     // Расчёт орбитальной энергии
@@ -89,22 +153,38 @@ public class CelestialBody {
         return kinetic + potential;
     }
 
-    // Расчёт момента импульса относительно центра симуляции
+    // Расчёт момента импульса относительно центра симуляции: проекция m·(r × v) на ось z
+    // со знаком (отрицательна для ретроградного движения в плоскости xy)
     public double angularMomentum() {
-        return this.mass * (this.posX * this.velY - this.posY * this.velX);
+        return getMass() * (this.getPosX() * this.getVelY() - this.getPosY() * this.getVelX());
+    }
+
+    // Модуль вектора момента импульса m·(r × v) относительно центра симуляции
+    public double angularMomentumMagnitude() {
+        double x = getPosX(), y = getPosY(), z = getPosZ();
+        double vx = getVelX(), vy = getVelY(), vz = getVelZ();
+        double lx = y * vz - z * vy;
+        double ly = z * vx - x * vz;
+        double lz = x * vy - y * vx;
+        return getMass() * Math.sqrt(lx * lx + ly * ly + lz * lz);
     }
 
     // Расчёт приливной силы, действующей на это тело от другого тела
     public double tidalForce(CelestialBody other) {
         double distance = this.distanceTo(other);
-        return 2 * G * other.mass * this.radius / Math.pow(distance, 3);
+        return 2 * G * other.getMass() * this.getRadius() / (distance * distance * distance);
     }
 
     // Расчёт приливного нагревания
+    // (для всех пар сразу на каждом шаге — TidalAnalysis)
     public double tidalHeating(CelestialBody other, double eccentricity, double mu, double Q) {
         double distance = this.distanceTo(other);
-        return (21.0 / 2.0) * G * Math.pow(other.mass, 2) * Math.pow(this.radius, 5) * Math.pow(eccentricity, 2)
-                / (Math.pow(distance, 6) * mu * Q);
+        double otherMass = other.getMass();
+        double radius = this.getRadius();
+        double radiusSq = radius * radius;
+        double distanceCube = distance * distance * distance;
+        return (21.0 / 2.0) * G * otherMass * otherMass * radiusSq * radiusSq * radius * eccentricity * eccentricity
+                / (distanceCube * distanceCube * mu * Q);
     }
 
     // Расчёт сдвига перигелия (приближённая формула)
@@ -112,61 +192,75 @@ public class CelestialBody {
         double c = 3.0e8; // скорость света м/с
         double a = this.majorSemiAxis; // большая полуось орбиты
         double e = this.eccentricity; // эксцентриситет
-        return (6 * Math.PI * G * other.mass) / (a * (1 - e * e) * Math.pow(c, 2));
+        return (6 * Math.PI * G * other.getMass()) / (a * (1 - e * e) * c * c);
     }
 
     // Расчёт гравитационной силы, действующей на это тело от другого тела
     public double[] gravitationalForce(CelestialBody other) {
-        double dx = other.posX - this.posX;
-        double dy = other.posY - this.posY;
-        double distance = Math.sqrt(dx * dx + dy * dy);
-        if (distance == 0) return new double[]{0, 0}; // Избегаем деления на ноль
-        double force = G * this.mass * other.mass / (distance * distance);
+        double dx = other.getPosX() - this.getPosX();
+        double dy = other.getPosY() - this.getPosY();
+        double dz = other.getPosZ() - this.getPosZ();
+        double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (distance == 0) return new double[]{0, 0, 0}; // Избегаем деления на ноль
+        double force = G * getMass() * other.getMass() / (distance * distance);
         double forceX = force * dx / distance;
         double forceY = force * dy / distance;
-        return new double[]{forceX, forceY};
+        double forceZ = force * dz / distance;
+        return new double[]{forceX, forceY, forceZ};
     }
 
     // Метод для обновления ускорения на основе силы
     public synchronized void updateAcceleration(double forceX, double forceY) {
-        this.accX += forceX / this.mass;
-        this.accY += forceY / this.mass;
+        updateAcceleration(forceX, forceY, 0);
+    }
+
+    public synchronized void updateAcceleration(double forceX, double forceY, double forceZ) {
+        store.accX[index] += forceX / getMass();
+        store.accY[index] += forceY / getMass();
+        store.accZ[index] += forceZ / getMass();
     }
 
     // Сброс ускорения перед новым шагом
     public synchronized void resetAcceleration() {
-        this.accX = 0;
-        this.accY = 0;
+        store.accX[index] = 0;
+        store.accY[index] = 0;
+        store.accZ[index] = 0;
     }
 
     // Метод для обновления позиции и скорости (метод Рунге-Кутты или Эйлера)
     public synchronized void updatePositionAndVelocity(double dt) {
         // Обновление скорости
-        this.velX += this.accX * dt;
-        this.velY += this.accY * dt;
+        store.velX[index] += store.accX[index] * dt;
+        store.velY[index] += store.accY[index] * dt;
+        store.velZ[index] += store.accZ[index] * dt;
 
         // Обновление позиции
-        this.posX += this.velX * dt;
-        this.posY += this.velY * dt;
+        store.posX[index] += store.velX[index] * dt;
+        store.posY[index] += store.velY[index] * dt;
+        store.posZ[index] += store.velZ[index] * dt;
     }
 
     // Расчёт гравитационной потенциальной энергии с другим телом
     public double gravitationalPotentialEnergy(CelestialBody other) {
         double distance = this.distanceTo(other);
         if (distance == 0) return 0; // Избегаем деления на ноль
-        return -G * this.mass * other.mass / distance;
+        return -G * getMass() * other.getMass() / distance;
     }
 
     // Расчёт кинетической энергии
     public double kineticEnergy() {
-        return 0.5 * this.mass * (this.velX * this.velX + this.velY * this.velY);
+        double velX = getVelX();
+        double velY = getVelY();
+        double velZ = getVelZ();
+        return 0.5 * getMass() * (velX * velX + velY * velY + velZ * velZ);
     }
 
     // Метод для отображения состояния тела с нумерацией
     public void printState(int index) {
         double kinetic = kineticEnergy();
         double angularMomentum = angularMomentum();
-        System.out.printf("%d: %s: Position=(%.2e, %.2e) m, Velocity=(%.2e, %.2e) m/s, Acceleration=(%.2e, %.2e) m/s², Kinetic Energy=%.2e J, Angular Momentum=%.2e kg·m²/s%n",
-                index, name, posX, posY, velX, velY, accX, accY, kinetic, angularMomentum);
+        System.out.printf("%d: %s: Position=(%.2e, %.2e, %.2e) m, Velocity=(%.2e, %.2e, %.2e) m/s, Acceleration=(%.2e, %.2e, %.2e) m/s², Kinetic Energy=%.2e J, Angular Momentum=%.2e kg·m²/s%n",
+                index, name, getPosX(), getPosY(), getPosZ(), getVelX(), getVelY(), getVelZ(),
+                getAccX(), getAccY(), getAccZ(), kinetic, angularMomentum);
     }
 }
@@ -0,0 +1,307 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Полный снимок состояния симуляции для перезапуска длительных прогонов.
+// Формат (DataOutputStream, big-endian): магическая строка "ASTRCKP1", int версия,
+// параметры симуляции, затем все поля каждого тела. Значения double записываются
+// побитово, поэтому продолжение после восстановления совпадает с исходным прогоном бит в бит.
+// Версия 1 хранила только плоское состояние (без posZ, velZ, accZ); такие файлы читаются с z = 0.
+// Версия 2 не хранила режим столкновений: восстанавливается REPORT с коэффициентом восстановления 1.
+// Версия 3 не хранила упорядочивание тел и их постоянные номера: упорядочивание выключено,
+// номера выдаются заново по порядку.
+public class Checkpoint {
+    private static final byte[] MAGIC = {'A', 'S', 'T', 'R', 'C', 'K', 'P', '1'};
+    private static final int VERSION = 4;
+    private static final int VERSION_NO_ORDERING = 3;
+    private static final int VERSION_NO_COLLISIONS = 2;
+    private static final int VERSION_PLANAR = 1;
+
+    // Метод расчёта сил
+    private static final int SOLVER_DIRECT = 0;
+    private static final int SOLVER_DIRECT_SYMMETRIC = 1;
+    private static final int SOLVER_BARNES_HUT = 2;
+    private static final int SOLVER_SOFTENED = 3;
+    private static final int SOLVER_SOFTENED_MIXED = 4; // смягчённое ядро смешанной точности
+
+    private double simulationTime;
+    private long stepCount;
+    private double timeStep;
+    private double accelerationFactor;
+    private String integrator;
+    private int solverKind;
+    private double solverParameter;
+    private CollisionMode collisionMode = CollisionMode.REPORT;
+    private double restitution = 1.0;
+    private BodyOrdering ordering; // null — упорядочивание выключено
+    private long reorderInterval;
+    private long lastReorderStep;
+    private int nextId;
+
+    private int bodyCount;
+    private int[] ids; // null — номера не сохранены (версия 3 и раньше)
+    private String[] names;
+    private String[] classifications;
+    private double[] mass, radius, posX, posY, posZ, velX, velY, velZ, accX, accY, accZ;
+    private double[] majorSemiAxis, eccentricity, orbitalInclination, periodOfRevolution, rotationPeriod;
+
+    private Checkpoint() {
+    }
+
+    // Копирование состояния; вызывается в потоке интегратора между шагами
+    public static Checkpoint capture(Simulation simulation) {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.simulationTime = simulation.getSimulationTime();
+        checkpoint.stepCount = simulation.getStepCount();
+        checkpoint.timeStep = simulation.getTimeStep();
+        checkpoint.accelerationFactor = simulation.getAccelerationFactor();
+        checkpoint.integrator = simulation.getIntegrator().name();
+        checkpoint.collisionMode = simulation.getCollisionMode();
+        checkpoint.restitution = simulation.getRestitution();
+        checkpoint.ordering = simulation.getOrdering();
+        checkpoint.reorderInterval = simulation.getReorderInterval();
+        checkpoint.lastReorderStep = simulation.getLastReorderStep();
+
+        ForceSolver solver = simulation.getForceSolver();
+        if (solver instanceof BarnesHutSolver barnesHut) {
+            checkpoint.solverKind = SOLVER_BARNES_HUT;
+            checkpoint.solverParameter = barnesHut.getTheta();
+        } else if (solver instanceof SoftenedForceSolver softened) {
+            checkpoint.solverKind = softened.getPrecision() == KernelPrecision.MIXED
+                    ? SOLVER_SOFTENED_MIXED : SOLVER_SOFTENED;
+            checkpoint.solverParameter = softened.getSoftening();
+        } else if (solver instanceof DirectForceSolver direct && direct.isUsingNewtonSymmetry()) {
+            checkpoint.solverKind = SOLVER_DIRECT_SYMMETRIC;
+        } else {
+            checkpoint.solverKind = SOLVER_DIRECT;
+        }
+
+        BodyStore store = simulation.getStore();
+        int n = store.size();
+        checkpoint.bodyCount = n;
+        checkpoint.nextId = store.nextId();
+        checkpoint.ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            checkpoint.ids[i] = store.id(i);
+        }
+        checkpoint.mass = Arrays.copyOf(store.mass, n);
+        checkpoint.radius = Arrays.copyOf(store.radius, n);
+        checkpoint.posX = Arrays.copyOf(store.posX, n);
+        checkpoint.posY = Arrays.copyOf(store.posY, n);
+        checkpoint.posZ = Arrays.copyOf(store.posZ, n);
+        checkpoint.velX = Arrays.copyOf(store.velX, n);
+        checkpoint.velY = Arrays.copyOf(store.velY, n);
+        checkpoint.velZ = Arrays.copyOf(store.velZ, n);
+        checkpoint.accX = Arrays.copyOf(store.accX, n);
+        checkpoint.accY = Arrays.copyOf(store.accY, n);
+        checkpoint.accZ = Arrays.copyOf(store.accZ, n);
+        checkpoint.names = new String[n];
+        checkpoint.classifications = new String[n];
+        checkpoint.majorSemiAxis = new double[n];
+        checkpoint.eccentricity = new double[n];
+        checkpoint.orbitalInclination = new double[n];
+        checkpoint.periodOfRevolution = new double[n];
+        checkpoint.rotationPeriod = new double[n];
+        for (int i = 0; i < n; i++) {
+            CelestialBody body = store.body(i);
+            checkpoint.names[i] = body.getName();
+            checkpoint.classifications[i] = body.getClassification();
+            checkpoint.majorSemiAxis[i] = body.getMajorSemiAxis();
+            checkpoint.eccentricity[i] = body.getEccentricity();
+            checkpoint.orbitalInclination[i] = body.getOrbitalInclination();
+            checkpoint.periodOfRevolution[i] = body.getPeriodOfRevolution();
+            checkpoint.rotationPeriod[i] = body.getRotationPeriod();
+        }
+        return checkpoint;
+    }
+
+    public double getSimulationTime() { return simulationTime; }
+    public long getStepCount() { return stepCount; }
+    public int getBodyCount() { return bodyCount; }
+
+    // Атомарная запись: сначала во временный файл рядом с целевым, затем переименование
+    public void write(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(simulationTime);
+            out.writeLong(stepCount);
+            out.writeDouble(timeStep);
+            out.writeDouble(accelerationFactor);
+            out.writeUTF(integrator);
+            out.writeInt(solverKind);
+            out.writeDouble(solverParameter);
+            out.writeUTF(collisionMode.name());
+            out.writeDouble(restitution);
+            out.writeUTF(ordering == null ? "" : ordering.name());
+            out.writeLong(reorderInterval);
+            out.writeLong(lastReorderStep);
+            out.writeInt(nextId);
+            out.writeInt(bodyCount);
+            for (int i = 0; i < bodyCount; i++) {
+                out.writeInt(ids[i]);
+                out.writeUTF(names[i]);
+                out.writeUTF(classifications[i]);
+                out.writeDouble(mass[i]);
+                out.writeDouble(radius[i]);
+                out.writeDouble(posX[i]);
+                out.writeDouble(posY[i]);
+                out.writeDouble(posZ[i]);
+                out.writeDouble(velX[i]);
+                out.writeDouble(velY[i]);
+                out.writeDouble(velZ[i]);
+                out.writeDouble(accX[i]);
+                out.writeDouble(accY[i]);
+                out.writeDouble(accZ[i]);
+                out.writeDouble(majorSemiAxis[i]);
+                out.writeDouble(eccentricity[i]);
+                out.writeDouble(orbitalInclination[i]);
+                out.writeDouble(periodOfRevolution[i]);
+                out.writeDouble(rotationPeriod[i]);
+            }
+            out.flush();
+            // Данные должны быть на диске до переименования
+            file.getFD().sync();
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Checkpoint read(Path path) throws IOException {
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, 1 << 16))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Файл не является контрольной точкой: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION && version != VERSION_NO_ORDERING && version != VERSION_NO_COLLISIONS
+                    && version != VERSION_PLANAR) {
+                throw new IOException("Неподдерживаемая версия контрольной точки: " + version);
+            }
+            boolean spatial = version != VERSION_PLANAR;
+
+            Checkpoint checkpoint = new Checkpoint();
+            checkpoint.simulationTime = in.readDouble();
+            checkpoint.stepCount = in.readLong();
+            checkpoint.timeStep = in.readDouble();
+            checkpoint.accelerationFactor = in.readDouble();
+            checkpoint.integrator = in.readUTF();
+            checkpoint.solverKind = in.readInt();
+            checkpoint.solverParameter = in.readDouble();
+            if (version >= VERSION_NO_ORDERING) {
+                try {
+                    checkpoint.collisionMode = CollisionMode.valueOf(in.readUTF());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Неизвестный режим столкновений в контрольной точке: " + path, e);
+                }
+                checkpoint.restitution = in.readDouble();
+            }
+            boolean numbered = version == VERSION;
+            if (numbered) {
+                String ordering = in.readUTF();
+                try {
+                    checkpoint.ordering = ordering.isEmpty() ? null : BodyOrdering.valueOf(ordering);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Неизвестная кривая упорядочивания в контрольной точке: " + path, e);
+                }
+                checkpoint.reorderInterval = in.readLong();
+                checkpoint.lastReorderStep = in.readLong();
+                checkpoint.nextId = in.readInt();
+            }
+
+            int n = in.readInt();
+            checkpoint.bodyCount = n;
+            checkpoint.ids = numbered ? new int[n] : null;
+            checkpoint.names = new String[n];
+            checkpoint.classifications = new String[n];
+            checkpoint.mass = new double[n];
+            checkpoint.radius = new double[n];
+            checkpoint.posX = new double[n];
+            checkpoint.posY = new double[n];
+            checkpoint.posZ = new double[n];
+            checkpoint.velX = new double[n];
+            checkpoint.velY = new double[n];
+            checkpoint.velZ = new double[n];
+            checkpoint.accX = new double[n];
+            checkpoint.accY = new double[n];
+            checkpoint.accZ = new double[n];
+            checkpoint.majorSemiAxis = new double[n];
+            checkpoint.eccentricity = new double[n];
+            checkpoint.orbitalInclination = new double[n];
+            checkpoint.periodOfRevolution = new double[n];
+            checkpoint.rotationPeriod = new double[n];
+            for (int i = 0; i < n; i++) {
+                if (numbered) checkpoint.ids[i] = in.readInt();
+                checkpoint.names[i] = in.readUTF();
+                checkpoint.classifications[i] = in.readUTF();
+                checkpoint.mass[i] = in.readDouble();
+                checkpoint.radius[i] = in.readDouble();
+                checkpoint.posX[i] = in.readDouble();
+                checkpoint.posY[i] = in.readDouble();
+                if (spatial) checkpoint.posZ[i] = in.readDouble();
+                checkpoint.velX[i] = in.readDouble();
+                checkpoint.velY[i] = in.readDouble();
+                if (spatial) checkpoint.velZ[i] = in.readDouble();
+                checkpoint.accX[i] = in.readDouble();
+                checkpoint.accY[i] = in.readDouble();
+                if (spatial) checkpoint.accZ[i] = in.readDouble();
+                checkpoint.majorSemiAxis[i] = in.readDouble();
+                checkpoint.eccentricity[i] = in.readDouble();
+                checkpoint.orbitalInclination[i] = in.readDouble();
+                checkpoint.periodOfRevolution[i] = in.readDouble();
+                checkpoint.rotationPeriod[i] = in.readDouble();
+            }
+            return checkpoint;
+        }
+    }
+
+    // Построение новой симуляции в состоянии контрольной точки
+    public Simulation restore() {
+        List<CelestialBody> bodies = new ArrayList<>(bodyCount);
+        for (int i = 0; i < bodyCount; i++) {
+            CelestialBody body = new CelestialBody(names[i], mass[i], radius[i], posX[i], posY[i], posZ[i],
+                    velX[i], velY[i], velZ[i], classifications[i], majorSemiAxis[i], eccentricity[i],
+                    orbitalInclination[i], periodOfRevolution[i], rotationPeriod[i]);
+            body.setAccX(accX[i]);
+            body.setAccY(accY[i]);
+            body.setAccZ(accZ[i]);
+            bodies.add(body);
+        }
+        Simulation simulation = new Simulation(bodies, timeStep, accelerationFactor);
+        simulation.restoreClock(simulationTime, stepCount);
+        simulation.setIntegrator(Integrator.forName(integrator));
+        simulation.setCollisionMode(collisionMode);
+        simulation.setRestitution(restitution);
+        if (ids != null) {
+            simulation.getStore().restoreIds(ids, nextId);
+        }
+        if (ordering != null) {
+            simulation.restoreReordering(ordering, reorderInterval, lastReorderStep);
+        }
+        switch (solverKind) {
+            case SOLVER_DIRECT_SYMMETRIC -> simulation.setForceSolver(new DirectForceSolver(simulation.getPool(), true));
+            case SOLVER_BARNES_HUT -> simulation.setForceSolver(new BarnesHutSolver(solverParameter));
+            case SOLVER_SOFTENED -> simulation.setForceSolver(new SoftenedForceSolver(simulation.getPool(), solverParameter));
+            case SOLVER_SOFTENED_MIXED -> simulation.setForceSolver(
+                    new SoftenedForceSolver(simulation.getPool(), solverParameter, KernelPrecision.MIXED));
+            default -> { } // прямое суммирование установлено по умолчанию
+        }
+        return simulation;
+    }
+}
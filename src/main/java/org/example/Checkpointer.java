@@ -0,0 +1,65 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Периодическая запись контрольных точек в фоновом потоке.
+// В потоке интегратора выполняется только копирование массивов; если предыдущая
+// запись ещё не закончилась, очередная контрольная точка пропускается.
+class Checkpointer {
+    private final Path path;
+    private final long interval; // шагов между контрольными точками
+    private final ExecutorService writer;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private volatile long written;
+    private volatile long skipped;
+
+    Checkpointer(Path path, long interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Интервал контрольных точек должен быть положительным: " + interval);
+        }
+        this.path = path;
+        this.interval = interval;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void onStep(Simulation simulation) {
+        if (simulation.getStepCount() % interval != 0) return;
+        if (!writing.compareAndSet(false, true)) {
+            skipped++;
+            return;
+        }
+        Checkpoint checkpoint = Checkpoint.capture(simulation);
+        writer.execute(() -> {
+            try {
+                checkpoint.write(path);
+                written++;
+            } catch (IOException e) {
+                System.err.println("Не удалось записать контрольную точку " + path + ": " + e.getMessage());
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    long getWritten() { return written; }
+    long getSkipped() { return skipped; }
+
+    // Дождаться текущей записи и остановить поток
+    void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example;
+
+// Обнаружение столкновений методом сортировки и прохода по оси x (sort and sweep).
+// Тела упорядочены по левой границе x - r; для каждого тела проверяются только
+// следующие за ним тела, чей интервал по x пересекается с его интервалом.
+// Порядок сохраняется между шагами: тела смещаются мало, и досортировка вставками почти линейна.
+public class CollisionDetector {
+    private int[] order = new int[0];   // индексы тел, отсортированные по левой границе
+    private double[] minX = new double[0]; // левая граница для соответствующего элемента order
+    private int orderSize = -1;
+
+    // Заполняет out всеми парами тел, расстояние между центрами которых не больше суммы радиусов
+    public void detect(BodyStore store, CollisionPairs out) {
+        out.clear();
+        int n = store.size();
+        double[] posX = store.posX;
+        double[] posY = store.posY;
+        double[] posZ = store.posZ;
+        double[] radius = store.radius;
+
+        if (n != orderSize) {
+            // Набор тел изменился — строим порядок заново
+            if (order.length < n) {
+                order = new int[n];
+                minX = new double[n];
+            }
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+                minX[i] = posX[i] - radius[i];
+            }
+            quickSort(0, n - 1);
+            orderSize = n;
+        } else {
+            for (int k = 0; k < n; k++) {
+                int i = order[k];
+                minX[k] = posX[i] - radius[i];
+            }
+            insertionSort(n);
+        }
+
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            double xi = posX[i];
+            double yi = posY[i];
+            double zi = posZ[i];
+            double ri = radius[i];
+            double maxX = xi + ri;
+            for (int m = k + 1; m < n && minX[m] <= maxX; m++) {
+                int j = order[m];
+                double dx = posX[j] - xi;
+                double dy = posY[j] - yi;
+                double dz = posZ[j] - zi;
+                double reach = ri + radius[j];
+                if (dx * dx + dy * dy + dz * dz <= reach * reach) {
+                    out.add(i, j);
+                }
+            }
+        }
+    }
+
+    // Перенумерация после удаления или перестановки тел (newIndex[i] — новый индекс тела i или -1):
+    // порядок по x сохраняется, поэтому полная пересортировка не нужна
+    void compact(int[] newIndex, int n) {
+        if (orderSize < 0) return;
+        int kept = 0;
+        for (int k = 0; k < orderSize; k++) {
+            int i = newIndex[order[k]];
+            if (i < 0) continue;
+            order[kept] = i;
+            minX[kept] = minX[k];
+            kept++;
+        }
+        orderSize = kept == n ? n : -1; // иначе набор тел не согласован — перестроим
+    }
+
+    // Досортировка почти упорядоченного массива
+    private void insertionSort(int n) {
+        for (int k = 1; k < n; k++) {
+            double key = minX[k];
+            if (minX[k - 1] <= key) continue;
+            int body = order[k];
+            int m = k - 1;
+            while (m >= 0 && minX[m] > key) {
+                minX[m + 1] = minX[m];
+                order[m + 1] = order[m];
+                m--;
+            }
+            minX[m + 1] = key;
+            order[m + 1] = body;
+        }
+    }
+
+    // Полная сортировка (при первом вызове и после изменения набора тел)
+    private void quickSort(int low, int high) {
+        while (high - low > 16) {
+            double pivot = minX[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (minX[i] < pivot) i++;
+                while (minX[j] > pivot) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Рекурсия в меньшую часть, цикл по большей — глубина стека O(log n)
+            if (j - low < high - i) {
+                quickSort(low, j);
+                low = i;
+            } else {
+                quickSort(i, high);
+                high = j;
+            }
+        }
+        for (int k = low + 1; k <= high; k++) {
+            double key = minX[k];
+            int body = order[k];
+            int m = k - 1;
+            while (m >= low && minX[m] > key) {
+                minX[m + 1] = minX[m];
+                order[m + 1] = order[m];
+                m--;
+            }
+            minX[m + 1] = key;
+            order[m + 1] = body;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double key = minX[a];
+        minX[a] = minX[b];
+        minX[b] = key;
+        int body = order[a];
+        order[a] = order[b];
+        order[b] = body;
+    }
+}
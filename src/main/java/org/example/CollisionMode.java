@@ -0,0 +1,8 @@
+package org.example;
+
+// Обработка столкнувшихся тел после обнаружения
+public enum CollisionMode {
+    REPORT, // только отчёт: тела проходят друг сквозь друга
+    MERGE,  // неупругое слияние: сохраняются масса, импульс и центр масс, объёмы складываются
+    BOUNCE  // упругий отскок вдоль линии центров с разведением перекрытия
+}
@@ -0,0 +1,29 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Переиспользуемый буфер пар столкнувшихся тел (индексы в BodyStore, first < second)
+public class CollisionPairs {
+    private int[] first = new int[16];
+    private int[] second = new int[16];
+    private int size;
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int first(int pair) { return first[pair]; }
+    public int second(int pair) { return second[pair]; }
+
+    public void clear() {
+        size = 0;
+    }
+
+    void add(int a, int b) {
+        if (size == first.length) {
+            first = Arrays.copyOf(first, size * 2);
+            second = Arrays.copyOf(second, size * 2);
+        }
+        first[size] = Math.min(a, b);
+        second[size] = Math.max(a, b);
+        size++;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example;
+
+import java.util.List;
+
+// Разрешение столкновений, найденных CollisionDetector.
+// При слиянии поглощённые тела сначала только помечаются (цепочки A+B, B+C сводятся
+// к одному выжившему через систему непересекающихся множеств), а затем удаляются
+// из хранилища в порядке убывания индекса: на место удалённого переносится последнее тело,
+// поэтому массивы остаются плотными, а n уменьшается без перестройки списка.
+class CollisionResolver {
+    private int[] survivor = new int[0]; // представитель множества слившихся тел
+    private int[] newIndex = new int[0]; // индекс тела после уплотнения или -1
+    private int[] slotOwner = new int[0]; // исходный индекс тела, занимающего ячейку
+    private long merged;
+    private long bounced;
+
+    long getMerged() { return merged; }
+    long getBounced() { return bounced; }
+
+    // Отображение старых индексов в новые после последнего удаления (-1 — тело поглощено)
+    int[] newIndex() { return newIndex; }
+
+    // Отскок для всех пар; набор тел не меняется
+    void bounce(BodyStore store, CollisionPairs pairs, double restitution) {
+        double[] posX = store.posX;
+        double[] posY = store.posY;
+        double[] posZ = store.posZ;
+        double[] velX = store.velX;
+        double[] velY = store.velY;
+        double[] velZ = store.velZ;
+        double[] mass = store.mass;
+        double[] radius = store.radius;
+        for (int k = 0; k < pairs.size(); k++) {
+            int a = pairs.first(k);
+            int b = pairs.second(k);
+            double dx = posX[b] - posX[a];
+            double dy = posY[b] - posY[a];
+            double dz = posZ[b] - posZ[a];
+            double dist = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (dist == 0) continue; // направление отскока не определено
+            double nx = dx / dist;
+            double ny = dy / dist;
+            double nz = dz / dist;
+            double invMassA = 1.0 / mass[a];
+            double invMassB = 1.0 / mass[b];
+            double invMassSum = invMassA + invMassB;
+
+            // Импульс вдоль нормали только для сближающихся тел
+            double approach = (velX[b] - velX[a]) * nx + (velY[b] - velY[a]) * ny + (velZ[b] - velZ[a]) * nz;
+            if (approach < 0) {
+                double impulse = -(1 + restitution) * approach / invMassSum;
+                velX[a] -= impulse * invMassA * nx;
+                velY[a] -= impulse * invMassA * ny;
+                velZ[a] -= impulse * invMassA * nz;
+                velX[b] += impulse * invMassB * nx;
+                velY[b] += impulse * invMassB * ny;
+                velZ[b] += impulse * invMassB * nz;
+                bounced++;
+            }
+
+            // Разведение перекрытия обратно пропорционально массам (центр масс не смещается)
+            double overlap = radius[a] + radius[b] - dist;
+            if (overlap > 0) {
+                double shiftA = overlap * invMassA / invMassSum;
+                double shiftB = overlap * invMassB / invMassSum;
+                posX[a] -= shiftA * nx;
+                posY[a] -= shiftA * ny;
+                posZ[a] -= shiftA * nz;
+                posX[b] += shiftB * nx;
+                posY[b] += shiftB * ny;
+                posZ[b] += shiftB * nz;
+            }
+        }
+    }
+
+    // Слияние всех пар с уплотнением хранилища; возвращает число удалённых тел.
+    // bodies — список фасадов симуляции в порядке хранилища, уплотняется так же.
+    int merge(BodyStore store, List<CelestialBody> bodies, CollisionPairs pairs) {
+        int n = store.size();
+        if (survivor.length < n) {
+            survivor = new int[store.capacity()];
+            newIndex = new int[store.capacity()];
+            slotOwner = new int[store.capacity()];
+        }
+        for (int i = 0; i < n; i++) {
+            survivor[i] = i;
+        }
+
+        int removed = 0;
+        for (int k = 0; k < pairs.size(); k++) {
+            int a = find(pairs.first(k));
+            int b = find(pairs.second(k));
+            if (a == b) continue; // уже слились через другую пару
+            // Выживает более массивное тело: оно сохраняет имя и орбитальные параметры
+            if (store.mass[b] > store.mass[a]) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            absorb(store, a, b);
+            survivor[b] = a;
+            removed++;
+        }
+        if (removed == 0) return 0;
+
+        for (int i = 0; i < n; i++) {
+            newIndex[i] = i;
+            slotOwner[i] = i;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            if (survivor[i] == i) continue;
+            int last = store.size() - 1;
+            int moved = store.remove(i);
+            newIndex[i] = -1;
+            CelestialBody tail = bodies.remove(last);
+            if (moved >= 0) {
+                bodies.set(i, tail);
+                slotOwner[i] = slotOwner[moved];
+                newIndex[slotOwner[i]] = i;
+            }
+        }
+        merged += removed;
+        return removed;
+    }
+
+    // Тело a поглощает тело b
+    private static void absorb(BodyStore store, int a, int b) {
+        double ma = store.mass[a];
+        double mb = store.mass[b];
+        double m = ma + mb;
+        store.posX[a] = (ma * store.posX[a] + mb * store.posX[b]) / m;
+        store.posY[a] = (ma * store.posY[a] + mb * store.posY[b]) / m;
+        store.posZ[a] = (ma * store.posZ[a] + mb * store.posZ[b]) / m;
+        store.velX[a] = (ma * store.velX[a] + mb * store.velX[b]) / m;
+        store.velY[a] = (ma * store.velY[a] + mb * store.velY[b]) / m;
+        store.velZ[a] = (ma * store.velZ[a] + mb * store.velZ[b]) / m;
+        double ra = store.radius[a];
+        double rb = store.radius[b];
+        store.radius[a] = Math.cbrt(ra * ra * ra + rb * rb * rb); // сохранение объёма
+        store.mass[a] = m;
+        store.body(a).setClassification(CelestialBody.classify(m));
+    }
+
+    private int find(int i) {
+        while (survivor[i] != i) {
+            survivor[i] = survivor[survivor[i]]; // сжатие пути
+            i = survivor[i];
+        }
+        return i;
+    }
+}
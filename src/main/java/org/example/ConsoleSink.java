@@ -0,0 +1,38 @@
+package org.example;
+
+// Вывод состояния всех тел в консоль с использованием ANSI escape codes
+public class ConsoleSink implements SnapshotSink {
+    @Override
+    public void accept(StateSnapshot snapshot) {
+        StringBuilder out = new StringBuilder(128 + 200 * snapshot.size());
+        // Очистка экрана и возврат курсора в начало
+        out.append("\u001b[H\u001b[2J");
+        out.append("=== Текущее состояние объектов ===\n");
+        for (int i = 0; i < snapshot.size(); i++) {
+            out.append(String.format("%d: %s: Position=(%.2e, %.2e, %.2e) m, Velocity=(%.2e, %.2e, %.2e) m/s, Acceleration=(%.2e, %.2e, %.2e) m/s², Kinetic Energy=%.2e J, Angular Momentum=%.2e kg·m²/s%n",
+                    snapshot.getId(i) + 1, snapshot.getName(i), snapshot.getPosX(i), snapshot.getPosY(i), snapshot.getPosZ(i),
+                    snapshot.getVelX(i), snapshot.getVelY(i), snapshot.getVelZ(i),
+                    snapshot.getAccX(i), snapshot.getAccY(i), snapshot.getAccZ(i),
+                    snapshot.kineticEnergy(i), snapshot.angularMomentum(i)));
+        }
+
+        // Если есть столкновения, выводим их
+        if (snapshot.getCollisionCount() > 0) {
+            out.append("\n=== Столкновения ===\n");
+            for (int k = 0; k < snapshot.getCollisionCount(); k++) {
+                int a = snapshot.getCollisionFirst(k);
+                int b = snapshot.getCollisionSecond(k);
+                out.append(String.format("Столкновение: %s (%.2e кг) и %s (%.2e кг) на позиции (%.2e, %.2e, %.2e) м%n",
+                        snapshot.getName(a), snapshot.getMass(a),
+                        snapshot.getName(b), snapshot.getMass(b),
+                        (snapshot.getPosX(a) + snapshot.getPosX(b)) / 2,
+                        (snapshot.getPosY(a) + snapshot.getPosY(b)) / 2,
+                        (snapshot.getPosZ(a) + snapshot.getPosZ(b)) / 2));
+            }
+        }
+
+        // Один вызов print на кадр вместо printf на каждое тело
+        System.out.print(out);
+        System.out.flush();
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// Запись снимков в CSV: одна строка на тело на снимок
+public class CsvFileSink implements SnapshotSink {
+    private final BufferedWriter writer;
+
+    public CsvFileSink(Path path) throws IOException {
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        writer.write("step,time,name,mass,posX,posY,posZ,velX,velY,velZ,accX,accY,accZ");
+        writer.newLine();
+    }
+
+    @Override
+    public void accept(StateSnapshot snapshot) {
+        try {
+            for (int i = 0; i < snapshot.size(); i++) {
+                writer.write(String.format(Locale.US, "%d,%.9e,%s,%.9e,%.9e,%.9e,%.9e,%.9e,%.9e,%.9e,%.9e,%.9e,%.9e",
+                        snapshot.getStep(), snapshot.getTime(), snapshot.getName(i), snapshot.getMass(i),
+                        snapshot.getPosX(i), snapshot.getPosY(i), snapshot.getPosZ(i),
+                        snapshot.getVelX(i), snapshot.getVelY(i), snapshot.getVelZ(i),
+                        snapshot.getAccX(i), snapshot.getAccY(i), snapshot.getAccZ(i)));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Контроль законов сохранения: каждые interval шагов считает SystemDiagnostics
+// и относительный дрейф энергии, импульса и момента импульса от базового состояния.
+// Кинетическая энергия, импульс, момент и центр масс собираются за один параллельный
+// проход O(n), потенциальная энергия — через ForceSolver.potentialEnergy (параллельно
+// для прямого суммирования, O(n log n) для Барнса–Хата).
+public class DiagnosticsMonitor {
+    // Начиная с этого числа тел проход O(n) распределяется по пулу
+    private static final int PARALLEL_THRESHOLD = 16_384;
+    private static final int BLOCK_SIZE = 4096;
+
+    // Индексы сумм в результате прохода
+    private static final int KINETIC = 0, MOMENTUM_X = 1, MOMENTUM_Y = 2, MOMENTUM_Z = 3;
+    private static final int ANGULAR_X = 4, ANGULAR_Y = 5, ANGULAR_Z = 6;
+    private static final int MASS_X = 7, MASS_Y = 8, MASS_Z = 9, MASS = 10, MOMENTUM_SCALE = 11, ANGULAR_SCALE = 12;
+    private static final int SUMS = 13;
+
+    private final ForkJoinPool pool;
+    private final long interval;
+
+    private SystemDiagnostics baseline;
+    private SystemDiagnostics latest;
+    private double momentumScale; // Σ m|v| базового состояния — масштаб для дрейфа импульса
+    private double angularScale;  // Σ m|r × v| базового состояния — масштаб для дрейфа момента
+    private double maxEnergyDrift;
+    private double maxAngularMomentumDrift;
+    private long measurements;
+
+    // pool может быть null — тогда всё считается в вызывающем потоке
+    public DiagnosticsMonitor(ForkJoinPool pool, long interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Интервал диагностики должен быть положительным: " + interval);
+        }
+        this.pool = pool;
+        this.interval = interval;
+    }
+
+    public long getInterval() { return interval; }
+
+    // Вызывается после каждого шага; считает диагностику только на шагах, кратных interval
+    public void onStep(BodyStore store, ForceSolver solver, long step, double time) {
+        if (step % interval == 0) {
+            measure(store, solver, step, time);
+        }
+    }
+
+    // Диагностика текущего состояния; первое измерение становится базовым
+    public SystemDiagnostics measure(BodyStore store, ForceSolver solver, long step, double time) {
+        double[] sums = moments(store);
+        double potential = solver.potentialEnergy(store);
+        double mass = sums[MASS];
+        SystemDiagnostics current = new SystemDiagnostics(step, time, sums[KINETIC], potential,
+                sums[MOMENTUM_X], sums[MOMENTUM_Y], sums[MOMENTUM_Z],
+                sums[ANGULAR_X], sums[ANGULAR_Y], sums[ANGULAR_Z],
+                mass == 0 ? 0 : sums[MASS_X] / mass, mass == 0 ? 0 : sums[MASS_Y] / mass,
+                mass == 0 ? 0 : sums[MASS_Z] / mass, mass);
+
+        if (baseline == null) {
+            baseline = current;
+            momentumScale = sums[MOMENTUM_SCALE];
+            angularScale = sums[ANGULAR_SCALE];
+        }
+        latest = current;
+        measurements++;
+        maxEnergyDrift = Math.max(maxEnergyDrift, getEnergyDrift());
+        maxAngularMomentumDrift = Math.max(maxAngularMomentumDrift, getAngularMomentumDrift());
+        return current;
+    }
+
+    // Сделать следующее измерение базовым (например, после слияния тел)
+    public void resetBaseline() {
+        baseline = null;
+        latest = null;
+        maxEnergyDrift = 0;
+        maxAngularMomentumDrift = 0;
+    }
+
+    public SystemDiagnostics getBaseline() { return baseline; }
+    public SystemDiagnostics getLatest() { return latest; }
+    public long getMeasurements() { return measurements; }
+    public double getMaxEnergyDrift() { return maxEnergyDrift; }
+    public double getMaxAngularMomentumDrift() { return maxAngularMomentumDrift; }
+
+    // |E − E₀| / |E₀|
+    public double getEnergyDrift() {
+        if (latest == null) return 0;
+        double initial = baseline.getTotalEnergy();
+        return initial == 0 ? 0 : Math.abs((latest.getTotalEnergy() - initial) / initial);
+    }
+
+    // |P − P₀| / Σ m|v|₀: суммарный импульс обычно близок к нулю, поэтому масштаб — сумма модулей
+    public double getMomentumDrift() {
+        if (latest == null || momentumScale == 0) return 0;
+        double dx = latest.getMomentumX() - baseline.getMomentumX();
+        double dy = latest.getMomentumY() - baseline.getMomentumY();
+        double dz = latest.getMomentumZ() - baseline.getMomentumZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz) / momentumScale;
+    }
+
+    // |L − L₀| / Σ m|r × v|₀
+    public double getAngularMomentumDrift() {
+        if (latest == null || angularScale == 0) return 0;
+        double dx = latest.getAngularMomentumX() - baseline.getAngularMomentumX();
+        double dy = latest.getAngularMomentumY() - baseline.getAngularMomentumY();
+        double dz = latest.getAngularMomentumZ() - baseline.getAngularMomentumZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz) / angularScale;
+    }
+
+    // Отклонение центра масс от равномерного движения с импульсом P₀ (м)
+    public double getCenterOfMassDrift() {
+        if (latest == null || baseline.getTotalMass() == 0) return 0;
+        double elapsed = latest.getTime() - baseline.getTime();
+        double expectedX = baseline.getCenterOfMassX() + baseline.getMomentumX() / baseline.getTotalMass() * elapsed;
+        double expectedY = baseline.getCenterOfMassY() + baseline.getMomentumY() / baseline.getTotalMass() * elapsed;
+        double expectedZ = baseline.getCenterOfMassZ() + baseline.getMomentumZ() / baseline.getTotalMass() * elapsed;
+        double dx = latest.getCenterOfMassX() - expectedX;
+        double dy = latest.getCenterOfMassY() - expectedY;
+        double dz = latest.getCenterOfMassZ() - expectedZ;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private double[] moments(BodyStore store) {
+        int n = store.size();
+        if (pool != null && n >= PARALLEL_THRESHOLD) {
+            return pool.invoke(new MomentsTask(store, 0, n));
+        }
+        double[] sums = new double[SUMS];
+        momentsBlock(store, 0, n, sums);
+        return sums;
+    }
+
+    // Все суммы O(n) за один проход по телам [from, to)
+    private static void momentsBlock(BodyStore store, int from, int to, double[] sums) {
+        double[] mass = store.mass;
+        double[] posX = store.posX;
+        double[] posY = store.posY;
+        double[] posZ = store.posZ;
+        double[] velX = store.velX;
+        double[] velY = store.velY;
+        double[] velZ = store.velZ;
+        double kinetic = 0, px = 0, py = 0, pz = 0, lx = 0, ly = 0, lz = 0;
+        double mx = 0, my = 0, mz = 0, m = 0, pScale = 0, lScale = 0;
+        for (int i = from; i < to; i++) {
+            double mi = mass[i];
+            double x = posX[i], y = posY[i], z = posZ[i];
+            double vx = velX[i], vy = velY[i], vz = velZ[i];
+            double vSq = vx * vx + vy * vy + vz * vz;
+            double lxi = mi * (y * vz - z * vy);
+            double lyi = mi * (z * vx - x * vz);
+            double lzi = mi * (x * vy - y * vx);
+            kinetic += 0.5 * mi * vSq;
+            px += mi * vx;
+            py += mi * vy;
+            pz += mi * vz;
+            lx += lxi;
+            ly += lyi;
+            lz += lzi;
+            mx += mi * x;
+            my += mi * y;
+            mz += mi * z;
+            m += mi;
+            pScale += mi * Math.sqrt(vSq);
+            lScale += Math.sqrt(lxi * lxi + lyi * lyi + lzi * lzi);
+        }
+        sums[KINETIC] += kinetic;
+        sums[MOMENTUM_X] += px;
+        sums[MOMENTUM_Y] += py;
+        sums[MOMENTUM_Z] += pz;
+        sums[ANGULAR_X] += lx;
+        sums[ANGULAR_Y] += ly;
+        sums[ANGULAR_Z] += lz;
+        sums[MASS_X] += mx;
+        sums[MASS_Y] += my;
+        sums[MASS_Z] += mz;
+        sums[MASS] += m;
+        sums[MOMENTUM_SCALE] += pScale;
+        sums[ANGULAR_SCALE] += lScale;
+    }
+
+    // Рекурсивное деление диапазона тел; частичные суммы складываются в фиксированном
+    // порядке, поэтому результат не зависит от распределения задач по потокам
+    private static final class MomentsTask extends RecursiveTask<double[]> {
+        private final BodyStore store;
+        private final int from, to;
+
+        MomentsTask(BodyStore store, int from, int to) {
+            this.store = store;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= BLOCK_SIZE) {
+                double[] sums = new double[SUMS];
+                momentsBlock(store, from, to, sums);
+                return sums;
+            }
+            int mid = (from + to) >>> 1;
+            MomentsTask left = new MomentsTask(store, from, mid);
+            MomentsTask right = new MomentsTask(store, mid, to);
+            left.fork();
+            double[] sums = right.compute();
+            double[] leftSums = left.join();
+            for (int k = 0; k < SUMS; k++) {
+                sums[k] += leftSums[k];
+            }
+            return sums;
+        }
+    }
+}
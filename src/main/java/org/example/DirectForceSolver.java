@@ -0,0 +1,387 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+// Прямое суммирование по всем парам тел: точно, но O(n²).
+// Диапазон тел делится на блоки, помещающиеся в кэш, и считается в ForkJoinPool;
+// каждый блок накапливает ускорения в локальных переменных без блокировок.
+public class DirectForceSolver implements ForceSolver {
+    // Начиная с этого числа тел расчёт сил распределяется по пулу потоков
+    private static final int PARALLEL_THRESHOLD = 512;
+    // Число тел i в одной задаче: позиции и массы блока остаются в L1/L2
+    private static final int BLOCK_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final boolean useNewtonSymmetry;
+
+    // Буферы частичных сумм для симметричного режима: [часть][тело]
+    private double[][] partialX = new double[0][];
+    private double[][] partialY = new double[0][];
+    private double[][] partialZ = new double[0][];
+    private int[] partStart = new int[0]; // первое тело каждой части
+
+    // pool может быть null — тогда расчёт всегда идёт в вызывающем потоке
+    public DirectForceSolver(ForkJoinPool pool) {
+        this(pool, false);
+    }
+
+    // useNewtonSymmetry: каждая пара считается один раз (третий закон Ньютона),
+    // вклады собираются в буферы отдельных частей и затем суммируются
+    public DirectForceSolver(ForkJoinPool pool, boolean useNewtonSymmetry) {
+        this.pool = pool;
+        this.useNewtonSymmetry = useNewtonSymmetry;
+    }
+
+    public boolean isUsingNewtonSymmetry() { return useNewtonSymmetry; }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ) {
+        int n = store.size();
+        double[] mass = store.mass;
+        boolean parallel = pool != null && n >= PARALLEL_THRESHOLD;
+
+        if (!useNewtonSymmetry) {
+            if (parallel) {
+                pool.invoke(new BlockTask(mass, posX, posY, posZ, accX, accY, accZ, null, 0, n, n));
+            } else {
+                accelerationBlock(mass, posX, posY, posZ, accX, accY, accZ, 0, n, n);
+            }
+            return;
+        }
+
+        if (!parallel) {
+            Arrays.fill(accX, 0, n, 0);
+            Arrays.fill(accY, 0, n, 0);
+            Arrays.fill(accZ, 0, n, 0);
+            symmetricBlock(mass, posX, posY, posZ, accX, accY, accZ, 0, n, n);
+            return;
+        }
+
+        // Симметричный режим: части с примерно равным числом пар i < j
+        int parts = pool.getParallelism();
+        ensurePartials(parts, n);
+        SymmetricTask[] tasks = new SymmetricTask[parts];
+        long totalPairs = (long) n * (n - 1) / 2;
+        int from = 0;
+        long pairs = 0;
+        for (int p = 0; p < parts; p++) {
+            int to = from;
+            long target = totalPairs * (p + 1) / parts;
+            while (to < n && pairs < target) {
+                pairs += n - 1 - to;
+                to++;
+            }
+            if (p == parts - 1) to = n;
+            partStart[p] = from;
+            tasks[p] = new SymmetricTask(mass, posX, posY, posZ, partialX[p], partialY[p], partialZ[p], from, to, n);
+            from = to;
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        pool.invoke(new ReduceTask(parts, accX, accY, accZ, 0, n));
+    }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ,
+                                     int[] active, int activeCount) {
+        int n = store.size();
+        double[] mass = store.mass;
+        // Симметричный режим для подмножества не подходит: пары с неактивными телами не нужны
+        if (pool != null && (long) activeCount * n >= (long) PARALLEL_THRESHOLD * PARALLEL_THRESHOLD) {
+            pool.invoke(new BlockTask(mass, posX, posY, posZ, accX, accY, accZ, active, 0, activeCount, n));
+        } else {
+            activeBlock(mass, posX, posY, posZ, accX, accY, accZ, active, 0, activeCount, n);
+        }
+    }
+
+    @Override
+    public double potentialEnergy(BodyStore store) {
+        int n = store.size();
+        if (pool != null && n >= PARALLEL_THRESHOLD) {
+            return pool.invoke(new PotentialTask(store.mass, store.posX, store.posY, store.posZ, 0, n, n));
+        }
+        return potentialBlock(store.mass, store.posX, store.posY, store.posZ, 0, n, n);
+    }
+
+    // Потенциальная энергия пар (i, j), i в [from, to), j > i
+    static double potentialBlock(double[] mass, double[] posX, double[] posY, double[] posZ,
+                                 int from, int to, int n) {
+        double energy = 0;
+        for (int i = from; i < to; i++) {
+            double xi = posX[i];
+            double yi = posY[i];
+            double zi = posZ[i];
+            double sum = 0;
+            for (int j = i + 1; j < n; j++) {
+                double dx = posX[j] - xi;
+                double dy = posY[j] - yi;
+                double dz = posZ[j] - zi;
+                double distSq = dx * dx + dy * dy + dz * dz;
+                if (distSq == 0) continue; // Избегаем деления на ноль
+                sum += mass[j] / Math.sqrt(distSq);
+            }
+            energy -= CelestialBody.G * mass[i] * sum;
+        }
+        return energy;
+    }
+
+    // Σ mᵢ φᵢ по телам active[from..to), где φᵢ — потенциал от всех остальных n тел.
+    // По всем телам системы эта сумма равна удвоенной потенциальной энергии.
+    static double activePotential(double[] mass, double[] posX, double[] posY, double[] posZ,
+                                  int[] active, int from, int to, int n) {
+        double energy = 0;
+        for (int k = from; k < to; k++) {
+            int i = active[k];
+            double xi = posX[i];
+            double yi = posY[i];
+            double zi = posZ[i];
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                double dx = posX[j] - xi;
+                double dy = posY[j] - yi;
+                double dz = posZ[j] - zi;
+                double distSq = dx * dx + dy * dy + dz * dz;
+                if (distSq == 0) continue; // само тело и совпадающие позиции
+                sum += mass[j] / Math.sqrt(distSq);
+            }
+            energy -= CelestialBody.G * mass[i] * sum;
+        }
+        return energy;
+    }
+
+    // Ускорения тел active[from..to) от всех n тел
+    static void activeBlock(double[] mass, double[] posX, double[] posY, double[] posZ,
+                            double[] accX, double[] accY, double[] accZ,
+                            int[] active, int from, int to, int n) {
+        for (int k = from; k < to; k++) {
+            int i = active[k];
+            accelerationBlock(mass, posX, posY, posZ, accX, accY, accZ, i, i + 1, n);
+        }
+    }
+
+    // Ускорения тел с индексами [from, to) от всех n тел
+    static void accelerationBlock(double[] mass, double[] posX, double[] posY, double[] posZ,
+                                  double[] accX, double[] accY, double[] accZ,
+                                  int from, int to, int n) {
+        for (int i = from; i < to; i++) {
+            double xi = posX[i];
+            double yi = posY[i];
+            double zi = posZ[i];
+            double ax = 0;
+            double ay = 0;
+            double az = 0;
+            for (int j = 0; j < n; j++) {
+                if (i == j) continue;
+                double dx = posX[j] - xi;
+                double dy = posY[j] - yi;
+                double dz = posZ[j] - zi;
+                double distSq = dx * dx + dy * dy + dz * dz;
+                if (distSq == 0) continue; // Избегаем деления на ноль
+                double invDist = 1.0 / Math.sqrt(distSq);
+                double scale = CelestialBody.G * mass[j] * invDist * invDist * invDist;
+                ax += scale * dx;
+                ay += scale * dy;
+                az += scale * dz;
+            }
+            accX[i] = ax;
+            accY[i] = ay;
+            accZ[i] = az;
+        }
+    }
+
+    // Пары (i, j), i в [from, to), j > i: вклад добавляется обоим телам в буферы outX/outY/outZ
+    static void symmetricBlock(double[] mass, double[] posX, double[] posY, double[] posZ,
+                               double[] outX, double[] outY, double[] outZ,
+                               int from, int to, int n) {
+        for (int i = from; i < to; i++) {
+            double xi = posX[i];
+            double yi = posY[i];
+            double zi = posZ[i];
+            double mi = mass[i];
+            double ax = 0;
+            double ay = 0;
+            double az = 0;
+            for (int j = i + 1; j < n; j++) {
+                double dx = posX[j] - xi;
+                double dy = posY[j] - yi;
+                double dz = posZ[j] - zi;
+                double distSq = dx * dx + dy * dy + dz * dz;
+                if (distSq == 0) continue; // Избегаем деления на ноль
+                double invDist = 1.0 / Math.sqrt(distSq);
+                double gInvDist3 = CelestialBody.G * invDist * invDist * invDist;
+                double scaleI = gInvDist3 * mass[j];
+                double scaleJ = gInvDist3 * mi;
+                ax += scaleI * dx;
+                ay += scaleI * dy;
+                az += scaleI * dz;
+                outX[j] -= scaleJ * dx;
+                outY[j] -= scaleJ * dy;
+                outZ[j] -= scaleJ * dz;
+            }
+            outX[i] += ax;
+            outY[i] += ay;
+            outZ[i] += az;
+        }
+    }
+
+    private void ensurePartials(int parts, int n) {
+        if (partialX.length < parts) {
+            partialX = new double[parts][];
+            partialY = new double[parts][];
+            partialZ = new double[parts][];
+            partStart = new int[parts];
+        }
+        for (int p = 0; p < parts; p++) {
+            if (partialX[p] == null || partialX[p].length < n) {
+                partialX[p] = new double[n];
+                partialY[p] = new double[n];
+                partialZ[p] = new double[n];
+            }
+        }
+    }
+
+    // Рекурсивное деление диапазона тел до блоков размера BLOCK_SIZE.
+    // Если задан active, диапазон относится к списку активных тел, иначе — к индексам тел.
+    private static final class BlockTask extends RecursiveAction {
+        private final double[] mass, posX, posY, posZ, accX, accY, accZ;
+        private final int[] active;
+        private final int from, to, n;
+
+        BlockTask(double[] mass, double[] posX, double[] posY, double[] posZ,
+                  double[] accX, double[] accY, double[] accZ,
+                  int[] active, int from, int to, int n) {
+            this.mass = mass;
+            this.posX = posX;
+            this.posY = posY;
+            this.posZ = posZ;
+            this.accX = accX;
+            this.accY = accY;
+            this.accZ = accZ;
+            this.active = active;
+            this.from = from;
+            this.to = to;
+            this.n = n;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BLOCK_SIZE) {
+                if (active == null) {
+                    accelerationBlock(mass, posX, posY, posZ, accX, accY, accZ, from, to, n);
+                } else {
+                    activeBlock(mass, posX, posY, posZ, accX, accY, accZ, active, from, to, n);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BlockTask(mass, posX, posY, posZ, accX, accY, accZ, active, from, mid, n),
+                    new BlockTask(mass, posX, posY, posZ, accX, accY, accZ, active, mid, to, n));
+        }
+    }
+
+    // Потенциальная энергия: строки треугольника пар делятся пополам до блоков BLOCK_SIZE,
+    // суммы складываются в фиксированном порядке
+    private static final class PotentialTask extends RecursiveTask<Double> {
+        private final double[] mass, posX, posY, posZ;
+        private final int from, to, n;
+
+        PotentialTask(double[] mass, double[] posX, double[] posY, double[] posZ, int from, int to, int n) {
+            this.mass = mass;
+            this.posX = posX;
+            this.posY = posY;
+            this.posZ = posZ;
+            this.from = from;
+            this.to = to;
+            this.n = n;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= BLOCK_SIZE) {
+                return potentialBlock(mass, posX, posY, posZ, from, to, n);
+            }
+            int mid = (from + to) >>> 1;
+            PotentialTask left = new PotentialTask(mass, posX, posY, posZ, from, mid, n);
+            PotentialTask right = new PotentialTask(mass, posX, posY, posZ, mid, to, n);
+            left.fork();
+            double rightEnergy = right.compute();
+            return left.join() + rightEnergy;
+        }
+    }
+
+    // Одна часть симметричного расчёта со своим буфером частичных сумм
+    private static final class SymmetricTask extends RecursiveAction {
+        private final double[] mass, posX, posY, posZ, outX, outY, outZ;
+        private final int from, to, n;
+
+        SymmetricTask(double[] mass, double[] posX, double[] posY, double[] posZ,
+                      double[] outX, double[] outY, double[] outZ,
+                      int from, int to, int n) {
+            this.mass = mass;
+            this.posX = posX;
+            this.posY = posY;
+            this.posZ = posZ;
+            this.outX = outX;
+            this.outY = outY;
+            this.outZ = outZ;
+            this.from = from;
+            this.to = to;
+            this.n = n;
+        }
+
+        @Override
+        protected void compute() {
+            // Вклады от пар попадают только в тела с индексами >= from
+            Arrays.fill(outX, from, n, 0);
+            Arrays.fill(outY, from, n, 0);
+            Arrays.fill(outZ, from, n, 0);
+            symmetricBlock(mass, posX, posY, posZ, outX, outY, outZ, from, to, n);
+        }
+    }
+
+    // Суммирование частичных буферов в итоговые ускорения
+    private final class ReduceTask extends RecursiveAction {
+        private final int parts;
+        private final double[] accX, accY, accZ;
+        private final int from, to;
+
+        ReduceTask(int parts, double[] accX, double[] accY, double[] accZ, int from, int to) {
+            this.parts = parts;
+            this.accX = accX;
+            this.accY = accY;
+            this.accZ = accZ;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 16 * BLOCK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ReduceTask(parts, accX, accY, accZ, from, mid),
+                        new ReduceTask(parts, accX, accY, accZ, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                double ax = 0;
+                double ay = 0;
+                double az = 0;
+                for (int p = 0; p < parts; p++) {
+                    // Часть p не пишет в тела, предшествующие её диапазону
+                    if (i < partStart[p]) break;
+                    ax += partialX[p][i];
+                    ay += partialY[p][i];
+                    az += partialZ[p][i];
+                }
+                accX[i] = ax;
+                accY[i] = ay;
+                accZ[i] = az;
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Координатор распределённого расчёта сил: тела делятся на домены по кривой Мортона,
+// каждый домен — непрерывный отрезок порядка — считается отдельным процессом ForceWorker.
+// На каждом расчёте сил позиции всех тел кодируются один раз и рассылаются всем рабочим,
+// рабочие возвращают ускорения только своих доменов (протокол — WorkerProtocol).
+// Это схема с полной копией данных, а не декомпозиция области: каждый рабочий хранит все n тел
+// и строит свой решатель (в том числе дерево bh:θ) по всем телам, поэтому исходящий трафик
+// координатора — 3n чисел на рабочего, O(n·p) за расчёт, а память рабочего — O(n).
+// Домены делят лишь вычисления; обмена граничными телами и мультипольными сводками соседних
+// доменов нет, так что при большом p узким местом становится рассылка позиций.
+// Домены пересобираются каждые rebalanceInterval расчётов (тела смещаются по кривой),
+// а также при изменении набора тел или масс; размеры доменов при этом пропорциональны
+// измеренной скорости рабочих, чтобы более быстрый процесс получал больше тел.
+// Ошибка на рабочем (IllegalStateException) не нарушает обмен: ответы остальных дочитываются,
+// а следующий расчёт заново передаёт тела и домены.
+public class DistributedForceSolver implements ForceSolver, AutoCloseable {
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+
+    private final List<Connection> workers = new ArrayList<>();
+    private final String workerSolver;
+    private int rebalanceInterval = 64;
+
+    // Текущее разбиение
+    private int configuredSize = -1;
+    private double[] sentMass = new double[0];
+    private long[] keys = new long[0];
+    private int[] order = new int[0];
+    private int[] domainStart;          // начало домена рабочего w в order, domainStart[p] = n
+    private long evaluationsSinceRebalance;
+
+    private byte[] positions = new byte[0];
+    private long evaluations;
+    private long bytesSent;
+    private long bytesReceived;
+
+    // workerSolver — локальный решатель рабочих: direct или bh:θ
+    public DistributedForceSolver(List<InetSocketAddress> addresses, String workerSolver) throws IOException {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("Нужен хотя бы один рабочий");
+        }
+        this.workerSolver = workerSolver;
+        try {
+            for (InetSocketAddress address : addresses) {
+                workers.add(new Connection(address));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        this.domainStart = new int[workers.size() + 1];
+    }
+
+    // Разбор списка "хост:порт,хост:порт"
+    public static List<InetSocketAddress> parseAddresses(String list) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String item : list.split(",")) {
+            int colon = item.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Ожидался хост:порт: " + item);
+            }
+            addresses.add(new InetSocketAddress(item.substring(0, colon).trim(),
+                    Integer.parseInt(item.substring(colon + 1).trim())));
+        }
+        return addresses;
+    }
+
+    public int getWorkerCount() { return workers.size(); }
+    public long getEvaluations() { return evaluations; }
+    public long getBytesSent() { return bytesSent; }
+    public long getBytesReceived() { return bytesReceived; }
+
+    // Число тел в домене рабочего w при текущем разбиении
+    public int getDomainSize(int w) { return domainStart[w + 1] - domainStart[w]; }
+
+    // Суммарное время расчёта на рабочем w с начала работы (без передачи данных)
+    public long getWorkerComputeNanos(int w) { return workers.get(w).totalNanos; }
+
+    public void setRebalanceInterval(int evaluations) {
+        if (evaluations < 1) {
+            throw new IllegalArgumentException("Интервал перераспределения должен быть положительным: " + evaluations);
+        }
+        this.rebalanceInterval = evaluations;
+    }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ) {
+        int n = store.size();
+        if (n == 0) return;
+        try {
+            prepare(store, posX, posY, posZ);
+            broadcastPositions(WorkerProtocol.FORCES, posX, posY, posZ, n);
+            IllegalStateException failure = null;
+            for (int w = 0; w < workers.size(); w++) {
+                try {
+                    workers.get(w).readAccelerations(order, domainStart[w], domainStart[w + 1], accX, accY, accZ);
+                } catch (IllegalStateException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            rethrow(failure);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        evaluations++;
+        evaluationsSinceRebalance++;
+    }
+
+    // Потенциальная энергия: каждый рабочий считает Σ mᵢ φᵢ по своему домену, сумма делится пополам
+    @Override
+    public double potentialEnergy(BodyStore store) {
+        int n = store.size();
+        if (n == 0) return 0;
+        double energy = 0;
+        try {
+            prepare(store, store.posX, store.posY, store.posZ);
+            broadcastPositions(WorkerProtocol.POTENTIAL, store.posX, store.posY, store.posZ, n);
+            IllegalStateException failure = null;
+            for (Connection worker : workers) {
+                try {
+                    energy += worker.readPotential();
+                } catch (IllegalStateException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            rethrow(failure);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return 0.5 * energy;
+    }
+
+    // Передача масс при изменении набора тел и пересборка доменов по расписанию
+    private void prepare(BodyStore store, double[] posX, double[] posY, double[] posZ) throws IOException {
+        int n = store.size();
+        boolean bodiesChanged = n != configuredSize;
+        for (int i = 0; i < n && !bodiesChanged; i++) {
+            bodiesChanged = sentMass[i] != store.mass[i];
+        }
+        if (bodiesChanged) {
+            sentMass = Arrays.copyOf(store.mass, n);
+            for (Connection worker : workers) {
+                worker.sendBodies(workerSolver, sentMass, n);
+            }
+            awaitOk();
+            configuredSize = n;
+        }
+        if (bodiesChanged || evaluationsSinceRebalance >= rebalanceInterval) {
+            decompose(posX, posY, posZ, n);
+        }
+    }
+
+    // Разбиение порядка Мортона на отрезки пропорционально скорости рабочих (тел в наносекунду)
+    private void decompose(double[] posX, double[] posY, double[] posZ, int n) throws IOException {
+        int p = workers.size();
+        double[] speed = new double[p];
+        double totalSpeed = 0;
+        boolean measured = true;
+        for (int w = 0; w < p; w++) {
+            Connection worker = workers.get(w);
+            measured &= worker.periodNanos > 0 && worker.periodBodies > 0;
+        }
+        for (int w = 0; w < p; w++) {
+            Connection worker = workers.get(w);
+            speed[w] = measured ? (double) worker.periodBodies / worker.periodNanos : 1;
+            totalSpeed += speed[w];
+            worker.periodNanos = 0;
+            worker.periodBodies = 0;
+        }
+
+        if (keys.length < n) {
+            keys = new long[n];
+        }
+        SpaceFillingCurve.mortonKeys(posX, posY, posZ, n, keys);
+        order = SpaceFillingCurve.sortedOrder(keys, n);
+        double cumulative = 0;
+        for (int w = 0; w < p; w++) {
+            domainStart[w] = (int) Math.round(n * cumulative / totalSpeed);
+            cumulative += speed[w];
+        }
+        domainStart[p] = n;
+
+        for (int w = 0; w < p; w++) {
+            workers.get(w).sendDomain(order, domainStart[w], domainStart[w + 1]);
+        }
+        awaitOk();
+        evaluationsSinceRebalance = 0;
+    }
+
+    // Подтверждения всех рабочих; ошибки дочитываются до конца, чтобы не сбить обмен
+    private void awaitOk() throws IOException {
+        IllegalStateException failure = null;
+        for (Connection worker : workers) {
+            try {
+                worker.expectOk();
+            } catch (IllegalStateException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        rethrow(failure);
+    }
+
+    private void rethrow(IllegalStateException failure) {
+        if (failure != null) {
+            configuredSize = -1; // состояние рабочих неизвестно — передать всё заново
+            throw failure;
+        }
+    }
+
+    private void broadcastPositions(int operation, double[] posX, double[] posY, double[] posZ, int n)
+            throws IOException {
+        positions = WorkerProtocol.encodeDoubles(positions, n, posX, posY, posZ);
+        int bytes = 3 * n * Double.BYTES;
+        for (Connection worker : workers) {
+            worker.out.writeByte(operation);
+            worker.out.write(positions, 0, bytes);
+            worker.out.flush();
+            bytesSent += 1 + bytes;
+        }
+    }
+
+    // Завершение сеансов; рабочие процессы продолжают слушать порт
+    @Override
+    public void close() {
+        for (Connection worker : workers) {
+            worker.close();
+        }
+    }
+
+    // Соединение с одним рабочим
+    private final class Connection {
+        private final InetSocketAddress address;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private byte[] buffer = new byte[0];
+        private double[] accX = new double[0];
+        private double[] accY = new double[0];
+        private double[] accZ = new double[0];
+        private long totalNanos;
+        private long periodNanos;  // время расчёта с последнего перераспределения
+        private long periodBodies; // тел посчитано за то же время
+
+        Connection(InetSocketAddress address) throws IOException {
+            this.address = address;
+            this.socket = new Socket();
+            try {
+                socket.connect(address, HANDSHAKE_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+                // Рабочий, занятый другим координатором, не ответит на рукопожатие
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                WorkerProtocol.writeHandshake(out);
+                WorkerProtocol.readHandshake(in);
+                socket.setSoTimeout(0);
+            } catch (IOException e) {
+                socket.close();
+                throw new IOException("Рабочий " + address + " недоступен: " + e.getMessage(), e);
+            }
+        }
+
+        void sendBodies(String spec, double[] mass, int n) throws IOException {
+            out.writeByte(WorkerProtocol.BODIES);
+            out.writeInt(n);
+            out.writeUTF(spec);
+            buffer = WorkerProtocol.writeDoubles(out, buffer, n, mass);
+            out.flush();
+            bytesSent += 5 + 2 + spec.length() + (long) n * Double.BYTES;
+        }
+
+        void sendDomain(int[] order, int from, int to) throws IOException {
+            out.writeByte(WorkerProtocol.DOMAIN);
+            out.writeInt(to - from);
+            for (int k = from; k < to; k++) {
+                out.writeInt(order[k]);
+            }
+            out.flush();
+            bytesSent += 5 + 4L * (to - from);
+        }
+
+        void expectOk() throws IOException {
+            int status = in.readUnsignedByte();
+            bytesReceived++;
+            if (status != WorkerProtocol.OK) {
+                throw new IllegalStateException("Рабочий " + address + ": " + in.readUTF());
+            }
+        }
+
+        // Ускорения домена order[from..to) в общие массивы
+        void readAccelerations(int[] order, int from, int to, double[] accX, double[] accY, double[] accZ)
+                throws IOException {
+            expectOk();
+            long nanos = in.readLong();
+            int count = to - from;
+            if (this.accX.length < count) {
+                this.accX = new double[count];
+                this.accY = new double[count];
+                this.accZ = new double[count];
+            }
+            buffer = WorkerProtocol.readDoubles(in, buffer, count, this.accX, this.accY, this.accZ);
+            for (int k = 0; k < count; k++) {
+                int i = order[from + k];
+                accX[i] = this.accX[k];
+                accY[i] = this.accY[k];
+                accZ[i] = this.accZ[k];
+            }
+            totalNanos += nanos;
+            periodNanos += nanos;
+            periodBodies += count;
+            bytesReceived += 8 + 3L * count * Double.BYTES;
+        }
+
+        double readPotential() throws IOException {
+            expectOk();
+            totalNanos += in.readLong();
+            bytesReceived += 16;
+            return in.readDouble();
+        }
+
+        void close() {
+            try {
+                out.writeByte(WorkerProtocol.CLOSE);
+                out.flush();
+            } catch (IOException ignored) {
+                // соединение уже разорвано
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // закрываем в любом случае
+            }
+        }
+    }
+}
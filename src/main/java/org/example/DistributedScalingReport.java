@@ -0,0 +1,143 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Сильное и слабое масштабирование распределённого расчёта сил на локальной машине.
+// Запуск: DistributedScalingReport [число тел] [макс. рабочих] [повторов] [решатель рабочих] [потоков на рабочего]
+// Запускает рабочие JVM (ForceWorker) с тем же classpath на свободных портах localhost и для
+// 1, 2, 4, ... рабочих выводит лучшее время расчёта сил, ускорение и эффективность:
+//   сильное — число тел постоянно;
+//   слабое  — работа на рабочего постоянна: n·√p тел для прямого суммирования (O(n²)),
+//             n·p для Барнса–Хата (O(n log n)).
+// Первая строка — тот же решатель в этом процессе без сети, для оценки накладных расходов.
+public class DistributedScalingReport {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int maxWorkers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        String workerSolver = args.length > 3 ? args[3] : "direct";
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        boolean quadratic = !workerSolver.startsWith("bh:");
+
+        List<Process> processes = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        try {
+            for (int w = 0; w < maxWorkers; w++) {
+                Process process = startWorker(threads);
+                processes.add(process);
+                addresses.add(new InetSocketAddress("localhost", readPort(process)));
+            }
+
+            System.out.printf(Locale.US, "Тел: %d, рабочих до %d по %d потоков, решатель рабочих: %s, процессоров: %d%n",
+                    n, maxWorkers, threads, workerSolver, Runtime.getRuntime().availableProcessors());
+            BodyStore base = ScenarioGenerator.cluster(n, 42);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double local = bestMillis(WorkerProtocol.solver(workerSolver, pool), base, repeats);
+            pool.shutdown();
+            System.out.printf(Locale.US, "без сети, 1 процесс: %.1f мс%n", local);
+
+            System.out.println("\nСильное масштабирование");
+            System.out.println("рабочих  тел       мс        ускорение  эффективность  КиБ на расчёт");
+            double baseStrong = 0;
+            for (int p = 1; p <= maxWorkers; p = next(p, maxWorkers)) {
+                Measurement m = measure(addresses.subList(0, p), workerSolver, base, repeats);
+                if (p == 1) baseStrong = m.millis;
+                System.out.printf(Locale.US, "%-8d %-9d %-9.1f %-10.2f %-14.2f %.0f%n",
+                        p, n, m.millis, baseStrong / m.millis, baseStrong / m.millis / p, m.kibPerEvaluation);
+            }
+
+            System.out.println("\nСлабое масштабирование (" + (quadratic ? "n·√p" : "n·p") + " тел)");
+            System.out.println("рабочих  тел       мс        эффективность  КиБ на расчёт");
+            double baseWeak = 0;
+            for (int p = 1; p <= maxWorkers; p = next(p, maxWorkers)) {
+                int bodies = (int) Math.round(quadratic ? n * Math.sqrt(p) : (double) n * p);
+                BodyStore store = p == 1 ? base : ScenarioGenerator.cluster(bodies, 42);
+                Measurement m = measure(addresses.subList(0, p), workerSolver, store, repeats);
+                if (p == 1) baseWeak = m.millis;
+                System.out.printf(Locale.US, "%-8d %-9d %-9.1f %-14.2f %.0f%n",
+                        p, bodies, m.millis, baseWeak / m.millis, m.kibPerEvaluation);
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+        }
+    }
+
+    private static final class Measurement {
+        final double millis;           // лучшее время расчёта сил
+        final double kibPerEvaluation; // трафик в обе стороны на один расчёт
+
+        Measurement(double millis, double kibPerEvaluation) {
+            this.millis = millis;
+            this.kibPerEvaluation = kibPerEvaluation;
+        }
+    }
+
+    private static Measurement measure(List<InetSocketAddress> addresses, String workerSolver,
+                                       BodyStore store, int repeats) throws IOException {
+        try (DistributedForceSolver solver = new DistributedForceSolver(addresses, workerSolver)) {
+            double millis = bestMillis(solver, store, repeats);
+            double bytes = solver.getBytesSent() + solver.getBytesReceived();
+            return new Measurement(millis, bytes / solver.getEvaluations() / 1024);
+        }
+    }
+
+    // Рабочий на свободном порту с тем же java и classpath, что и у этого процесса
+    private static Process startWorker(int threads) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ForceWorker.class.getName(), "--port", "0", "--threads", String.valueOf(threads))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    // Порт из первой строки рабочего "Рабочий слушает порт P, ..." — первое число строки
+    // (кириллица может прийти искажённой, если кодировка консоли рабочего не UTF-8)
+    private static int readPort(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("Рабочий завершился до начала работы");
+        }
+        Matcher number = Pattern.compile("\\d+").matcher(line);
+        if (!number.find()) {
+            throw new IOException("Не удалось определить порт рабочего: " + line);
+        }
+        return Integer.parseInt(number.group());
+    }
+
+    // 1, 2, 4, ... и обязательно максимальное число рабочих
+    private static int next(int p, int max) {
+        if (p == max) return max + 1;
+        return Math.min(p * 2, max);
+    }
+
+    private static double bestMillis(ForceSolver solver, BodyStore store, int repeats) {
+        int n = store.size();
+        double[] accX = new double[n];
+        double[] accY = new double[n];
+        double[] accZ = new double[n];
+        solver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ); // прогрев
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < repeats; r++) {
+            long start = System.nanoTime();
+            solver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+}
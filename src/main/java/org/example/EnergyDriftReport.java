@@ -0,0 +1,29 @@
+package org.example;
+
+import java.util.Locale;
+
+// Сравнение интеграторов по дрейфу полной энергии на длинном прогоне.
+// Запуск: EnergyDriftReport [шагов] [шаг, с] [число тел]
+// Система — звезда и диск тел на круговых орбитах (ScenarioGenerator.disk).
+// Для каждого интегратора выводит время прогона, максимальное и итоговое |ΔE/E₀|.
+public class EnergyDriftReport {
+    public static void main(String[] args) {
+        long steps = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        double timeStep = args.length > 1 ? Double.parseDouble(args[1]) : 2 * 86400.0;
+        int n = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long sampleInterval = Math.max(1, steps / 1000);
+
+        System.out.printf(Locale.US, "Тел: %d, шагов: %d, шаг: %.0f с%n", n, steps, timeStep);
+        System.out.println("интегратор  время, с   шагов/с      max|ΔE/E₀|   итог |ΔE/E₀|");
+        for (String name : new String[]{RK4Integrator.NAME, LeapfrogIntegrator.NAME, YoshidaIntegrator.NAME}) {
+            Simulation simulation = new Simulation(ScenarioGenerator.disk(n, 42), timeStep, 1.0);
+            simulation.setIntegrator(Integrator.forName(name));
+            DiagnosticsMonitor diagnostics = simulation.enableDiagnostics(sampleInterval);
+            RunResult result = simulation.run(steps);
+            System.out.printf(Locale.US, "%-11s %-10.2f %-12.0f %-12.3e %.3e%n",
+                    name, result.getElapsedNanos() / 1e9, result.getStepsPerSecond(),
+                    diagnostics.getMaxEnergyDrift(), diagnostics.getEnergyDrift());
+            simulation.stopSimulation();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import java.util.List;
+import java.util.Locale;
+
+// Перебор вариантов одной системы на общем пуле EnsembleRunner.
+// Запуск: EnsembleReport [членов] [число тел] [шагов] [разброс масс] [разброс скоростей]
+// Члены — диск ScenarioGenerator.disk с возмущёнными массами и скоростями (эксцентриситетами).
+// Выводит итог каждого члена, общее время и загрузку ядер: сумма времени членов / (время × потоки).
+public class EnsembleReport {
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long steps = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+        double massJitter = args.length > 3 ? Double.parseDouble(args[3]) : 0.05;
+        double velocityJitter = args.length > 4 ? Double.parseDouble(args[4]) : 0.02;
+
+        BodyStore base = ScenarioGenerator.disk(n, 42);
+        try (EnsembleRunner runner = new EnsembleRunner()) {
+            for (int k = 0; k < count; k++) {
+                runner.add("вариант " + (k + 1), ScenarioGenerator.perturbed(base, massJitter, velocityJitter, k),
+                        86400.0, steps, simulation -> simulation.setIntegrator(new LeapfrogIntegrator()));
+            }
+            long start = System.nanoTime();
+            List<EnsembleResult> results = runner.run();
+            long wall = System.nanoTime() - start;
+
+            long busy = 0;
+            double worstDrift = 0;
+            for (EnsembleResult result : results) {
+                System.out.println(result);
+                if (result.isSuccessful()) {
+                    busy += result.getRun().getElapsedNanos();
+                    worstDrift = Math.max(worstDrift, result.getEnergyDrift());
+                }
+            }
+            int threads = runner.getPool().getParallelism();
+            System.out.printf(Locale.US, "Членов: %d, потоков: %d, время %.2f с, загрузка %.0f%%, худший |ΔE/E₀| %.3e%n",
+                    count, threads, wall / 1e9, 100.0 * busy / ((double) wall * threads), worstDrift);
+        }
+    }
+}
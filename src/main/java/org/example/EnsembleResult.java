@@ -0,0 +1,47 @@
+package org.example;
+
+import java.util.Locale;
+
+// Итог одного члена ансамбля
+public class EnsembleResult {
+    private final String name;
+    private final int initialBodies;
+    private final int finalBodies;
+    private final boolean parallel;      // расчёт сил шёл по общему пулу
+    private final RunResult run;         // null, если прогон завершился ошибкой
+    private final double energyDrift;    // |ΔE/E₀| в конце прогона
+    private final Simulation simulation; // для доступа к конечному состоянию
+    private final Throwable error;
+
+    EnsembleResult(String name, int initialBodies, int finalBodies, boolean parallel, RunResult run,
+                   double energyDrift, Simulation simulation, Throwable error) {
+        this.name = name;
+        this.initialBodies = initialBodies;
+        this.finalBodies = finalBodies;
+        this.parallel = parallel;
+        this.run = run;
+        this.energyDrift = energyDrift;
+        this.simulation = simulation;
+        this.error = error;
+    }
+
+    public String getName() { return name; }
+    public int getInitialBodies() { return initialBodies; }
+    public int getFinalBodies() { return finalBodies; }
+    public boolean isParallel() { return parallel; }
+    public RunResult getRun() { return run; }
+    public double getEnergyDrift() { return energyDrift; }
+    public Simulation getSimulation() { return simulation; }
+    public Throwable getError() { return error; }
+    public boolean isSuccessful() { return error == null; }
+
+    @Override
+    public String toString() {
+        if (error != null) {
+            return name + ": ошибка " + error;
+        }
+        return String.format(Locale.US, "%s: тел %d → %d, шагов %d за %.2f с (%s), |ΔE/E₀| %.3e",
+                name, initialBodies, finalBodies, run.getSteps(), run.getElapsedNanos() / 1e9,
+                parallel ? "параллельно" : "один поток", energyDrift);
+    }
+}
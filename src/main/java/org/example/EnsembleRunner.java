@@ -0,0 +1,108 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+// Прогон множества независимых симуляций (ансамбль, перебор параметров) на одном общем пуле.
+// Малые системы считаются целиком в одном потоке пула — по симуляции на ядро; большие
+// используют тот же пул для параллельного расчёта сил, и свободные потоки подхватывают их
+// подзадачи. Первыми запускаются самые дорогие члены (≈ n²·шагов), чтобы длинный хвост
+// не остался на одном ядре в конце перебора.
+public class EnsembleRunner implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final List<Member> members = new ArrayList<>();
+    private int parallelThreshold = 2048; // тел, начиная с которых силы считаются параллельно
+
+    public EnsembleRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public EnsembleRunner(int threads) {
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public ForkJoinPool getPool() { return pool; }
+
+    public void setParallelThreshold(int bodies) {
+        this.parallelThreshold = bodies;
+    }
+
+    // Добавление члена ансамбля: store — начальное состояние (например, ScenarioGenerator.perturbed),
+    // configure — необязательная настройка симуляции (интегратор, столкновения) перед прогоном
+    public void add(String name, BodyStore store, double timeStep, long steps, Consumer<Simulation> configure) {
+        members.add(new Member(members.size(), name, store, timeStep, steps, configure));
+    }
+
+    public int size() { return members.size(); }
+
+    // Прогон всех добавленных членов; результаты — в порядке добавления.
+    // Ошибка одного члена не прерывает остальные и возвращается в его результате.
+    public List<EnsembleResult> run() {
+        List<Member> byCost = new ArrayList<>(members);
+        byCost.sort(Comparator.comparingDouble(Member::cost).reversed());
+        List<ForkJoinTask<EnsembleResult>> tasks = new ArrayList<>(byCost.size());
+        for (Member member : byCost) {
+            tasks.add(pool.submit(member::run));
+        }
+
+        EnsembleResult[] results = new EnsembleResult[members.size()];
+        for (int k = 0; k < byCost.size(); k++) {
+            results[byCost.get(k).index] = tasks.get(k).join();
+        }
+        members.clear();
+        return List.of(results);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private final class Member {
+        private final int index; // порядковый номер добавления
+        private final String name;
+        private final BodyStore store;
+        private final double timeStep;
+        private final long steps;
+        private final Consumer<Simulation> configure;
+
+        Member(int index, String name, BodyStore store, double timeStep, long steps, Consumer<Simulation> configure) {
+            this.index = index;
+            this.name = name;
+            this.store = store;
+            this.timeStep = timeStep;
+            this.steps = steps;
+            this.configure = configure;
+        }
+
+        double cost() {
+            return (double) store.size() * store.size() * steps;
+        }
+
+        EnsembleResult run() {
+            int initial = store.size();
+            boolean parallel = initial >= parallelThreshold;
+            Simulation simulation = null;
+            try {
+                simulation = new Simulation(store, timeStep, 1.0, pool);
+                if (!parallel) {
+                    // Малая система: весь член ансамбля — одна задача пула
+                    simulation.setForceSolver(new DirectForceSolver(null));
+                }
+                if (configure != null) {
+                    configure.accept(simulation);
+                }
+                DiagnosticsMonitor diagnostics = simulation.enableDiagnostics(Math.max(1, steps));
+                RunResult result = simulation.run(steps);
+                return new EnsembleResult(name, initial, store.size(), parallel, result,
+                        diagnostics.getEnergyDrift(), simulation, null);
+            } catch (RuntimeException e) {
+                return new EnsembleResult(name, initial, store.size(), parallel, null, Double.NaN, simulation, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Отчёт о точности метода Барнса–Хата относительно прямого суммирования.
+// Запуск: ForceAccuracyReport [число тел] [θ1 θ2 ...]
+// Для каждого θ выводит медиану, 99-й процентиль и максимум относительной ошибки ускорения
+// и время расчёта, чтобы выбрать θ для рабочих прогонов.
+public class ForceAccuracyReport {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        double[] thetas = {0.2, 0.3, 0.5, 0.7, 1.0};
+        if (args.length > 1) {
+            thetas = new double[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                thetas[i - 1] = Double.parseDouble(args[i]);
+            }
+        }
+
+        BodyStore store = ScenarioGenerator.disk(n, 42);
+        double[] refX = new double[n];
+        double[] refY = new double[n];
+        double[] refZ = new double[n];
+        long start = System.nanoTime();
+        new DirectForceSolver(null).computeAccelerations(store, store.posX, store.posY, store.posZ,
+                refX, refY, refZ);
+        long directNanos = System.nanoTime() - start;
+
+        System.out.printf(Locale.US, "Тел: %d, прямое суммирование: %.1f мс%n", n, directNanos / 1e6);
+        System.out.println("θ      медиана      99%          максимум     время, мс");
+
+        double[] accX = new double[n];
+        double[] accY = new double[n];
+        double[] accZ = new double[n];
+        double[] errors = new double[n];
+        for (double theta : thetas) {
+            BarnesHutSolver solver = new BarnesHutSolver(theta);
+            solver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ); // прогрев пула узлов
+            start = System.nanoTime();
+            solver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ);
+            long nanos = System.nanoTime() - start;
+
+            for (int i = 0; i < n; i++) {
+                double ex = accX[i] - refX[i];
+                double ey = accY[i] - refY[i];
+                double ez = accZ[i] - refZ[i];
+                double ref = Math.sqrt(refX[i] * refX[i] + refY[i] * refY[i] + refZ[i] * refZ[i]);
+                errors[i] = ref == 0 ? 0 : Math.sqrt(ex * ex + ey * ey + ez * ez) / ref;
+            }
+            Arrays.sort(errors);
+            System.out.printf(Locale.US, "%-6.2f %-12.3e %-12.3e %-12.3e %.1f%n",
+                    theta, errors[n / 2], errors[(int) (n * 0.99)], errors[n - 1], nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+// Масштабирование прямого суммирования по числу потоков.
+// Запуск: ForceScalingReport [число тел] [повторов]
+// Для 1..N потоков выводит лучшее время расчёта сил и ускорение относительно одного потока,
+// в обычном и в симметричном (третий закон Ньютона) режимах.
+public class ForceScalingReport {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        BodyStore store = ScenarioGenerator.disk(n, 42);
+        double[] accX = new double[n];
+        double[] accY = new double[n];
+        double[] accZ = new double[n];
+
+        System.out.printf(Locale.US, "Тел: %d, доступно процессоров: %d%n", n, maxThreads);
+        System.out.println("потоки  обычный, мс  ускорение  симметричный, мс  ускорение");
+
+        double baseFull = 0;
+        double baseSymmetric = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double full = bestMillis(new DirectForceSolver(pool, false), store, accX, accY, accZ, repeats);
+            double symmetric = bestMillis(new DirectForceSolver(pool, true), store, accX, accY, accZ, repeats);
+            pool.shutdown();
+            if (threads == 1) {
+                baseFull = full;
+                baseSymmetric = symmetric;
+            }
+            System.out.printf(Locale.US, "%-7d %-12.1f %-10.2f %-17.1f %.2f%n",
+                    threads, full, baseFull / full, symmetric, baseSymmetric / symmetric);
+        }
+    }
+
+    // 1, 2, 4, ... и обязательно максимальное число потоков
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) return maxThreads + 1;
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    private static double bestMillis(ForceSolver solver, BodyStore store,
+                                     double[] accX, double[] accY, double[] accZ, int repeats) {
+        solver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ); // прогрев
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < repeats; r++) {
+            long start = System.nanoTime();
+            solver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+}
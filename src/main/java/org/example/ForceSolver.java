@@ -0,0 +1,24 @@
+package org.example;
+
+// Способ расчёта гравитационных ускорений для всех тел хранилища
+public interface ForceSolver {
+    // Расчёт ускорений тел store при позициях posX/posY/posZ (массы берутся из хранилища).
+    // Результат записывается в accX/accY/accZ, прежнее содержимое затирается.
+    void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                              double[] accX, double[] accY, double[] accZ);
+
+    // Ускорения только для тел active[0..activeCount) от всех тел хранилища.
+    // Значения для остальных тел в accX/accY/accZ не определены. По умолчанию считаются все тела.
+    default void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                      double[] accX, double[] accY, double[] accZ,
+                                      int[] active, int activeCount) {
+        computeAccelerations(store, posX, posY, posZ, accX, accY, accZ);
+    }
+
+    // Полная потенциальная энергия системы −Σ G mᵢ mⱼ / rᵢⱼ по парам i < j при текущих позициях.
+    // По умолчанию — точная сумма по всем парам в вызывающем потоке.
+    default double potentialEnergy(BodyStore store) {
+        int n = store.size();
+        return DirectForceSolver.potentialBlock(store.mass, store.posX, store.posY, store.posZ, 0, n, n);
+    }
+}
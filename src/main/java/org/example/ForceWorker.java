@@ -0,0 +1,174 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ForkJoinPool;
+
+// Рабочий процесс распределённого расчёта сил (см. DistributedForceSolver и WorkerProtocol).
+// Запуск: ForceWorker [--port P] [--threads T]
+// Слушает порт P (0 — любой свободный; выбранный порт печатается первой строкой) и обслуживает
+// координаторов по одному: хранит массы всех тел и свой домен, на каждый запрос получает позиции
+// всех тел и возвращает ускорения тел домена, посчитанные локальным решателем на T потоках.
+public class ForceWorker {
+    private final ForkJoinPool pool;
+
+    // Состояние текущего сеанса
+    private BodyStore store;
+    private ForceSolver solver;
+    private int[] domain = new int[0];
+    private int domainCount;
+    private double[] domainAccX = new double[0];
+    private double[] domainAccY = new double[0];
+    private double[] domainAccZ = new double[0];
+    private byte[] buffer = new byte[0];
+
+    public ForceWorker(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = WorkerProtocol.DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+            }
+        }
+
+        ForceWorker worker = new ForceWorker(new ForkJoinPool(threads));
+        try (ServerSocket server = new ServerSocket(port)) {
+            System.out.println("Рабочий слушает порт " + server.getLocalPort() + ", потоков: " + threads);
+            System.out.flush();
+            while (true) {
+                try (Socket socket = server.accept()) {
+                    worker.serve(socket);
+                } catch (IOException e) {
+                    System.err.println("Сеанс прерван: " + e);
+                }
+            }
+        }
+    }
+
+    // Обслуживание одного координатора до CLOSE или разрыва соединения
+    public void serve(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+        WorkerProtocol.writeHandshake(out);
+        WorkerProtocol.readHandshake(in);
+        store = null;
+        solver = null;
+        domainCount = 0;
+
+        while (true) {
+            int operation;
+            try {
+                operation = in.readUnsignedByte();
+            } catch (EOFException e) {
+                return; // координатор закрыл соединение
+            }
+            if (operation == WorkerProtocol.CLOSE) return;
+            try {
+                switch (operation) {
+                    case WorkerProtocol.BODIES -> readBodies(in, out);
+                    case WorkerProtocol.DOMAIN -> readDomain(in, out);
+                    case WorkerProtocol.FORCES -> forces(in, out);
+                    case WorkerProtocol.POTENTIAL -> potential(in, out);
+                    default -> throw new IOException("Неизвестная операция: " + operation);
+                }
+            } catch (RuntimeException e) {
+                // Тело запроса к этому моменту прочитано целиком, поэтому сеанс можно продолжать
+                out.writeByte(WorkerProtocol.ERROR);
+                out.writeUTF(String.valueOf(e));
+            }
+            out.flush();
+        }
+    }
+
+    private void readBodies(DataInputStream in, DataOutputStream out) throws IOException {
+        int n = in.readInt();
+        String spec = in.readUTF();
+        double[] mass = new double[n];
+        buffer = WorkerProtocol.readDoubles(in, buffer, n, mass);
+        // Хранилище заменяется до разбора решателя: при ошибке следующие позиции всё равно читаются по n
+        store = new BodyStore(n);
+        for (int i = 0; i < n; i++) {
+            store.add(null, mass[i], 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        domainCount = 0;
+        solver = null;
+        solver = WorkerProtocol.solver(spec, pool);
+        out.writeByte(WorkerProtocol.OK);
+    }
+
+    private void readDomain(DataInputStream in, DataOutputStream out) throws IOException {
+        int count = in.readInt();
+        if (domain.length < count) {
+            domain = new int[count];
+            domainAccX = new double[count];
+            domainAccY = new double[count];
+            domainAccZ = new double[count];
+        }
+        for (int k = 0; k < count; k++) {
+            domain[k] = in.readInt();
+        }
+        domainCount = count;
+        if (store == null) {
+            throw new IllegalStateException("Домен получен до описания тел");
+        }
+        for (int k = 0; k < count; k++) {
+            if (domain[k] < 0 || domain[k] >= store.size()) {
+                domainCount = 0;
+                throw new IllegalStateException("Индекс тела вне диапазона: " + domain[k]);
+            }
+        }
+        out.writeByte(WorkerProtocol.OK);
+    }
+
+    private void forces(DataInputStream in, DataOutputStream out) throws IOException {
+        readPositions(in);
+        if (solver == null) {
+            throw new IllegalStateException("Решатель не задан");
+        }
+        long start = System.nanoTime();
+        solver.computeAccelerations(store, store.posX, store.posY, store.posZ,
+                store.accX, store.accY, store.accZ, domain, domainCount);
+        for (int k = 0; k < domainCount; k++) {
+            int i = domain[k];
+            domainAccX[k] = store.accX[i];
+            domainAccY[k] = store.accY[i];
+            domainAccZ[k] = store.accZ[i];
+        }
+        long nanos = System.nanoTime() - start;
+        out.writeByte(WorkerProtocol.OK);
+        out.writeLong(nanos);
+        buffer = WorkerProtocol.writeDoubles(out, buffer, domainCount, domainAccX, domainAccY, domainAccZ);
+    }
+
+    private void potential(DataInputStream in, DataOutputStream out) throws IOException {
+        readPositions(in);
+        long start = System.nanoTime();
+        double energy = DirectForceSolver.activePotential(store.mass, store.posX, store.posY, store.posZ,
+                domain, 0, domainCount, store.size());
+        long nanos = System.nanoTime() - start;
+        out.writeByte(WorkerProtocol.OK);
+        out.writeLong(nanos);
+        out.writeDouble(energy);
+    }
+
+    // Позиции всех тел; без описания тел длина запроса неизвестна, и сеанс прерывается
+    private void readPositions(DataInputStream in) throws IOException {
+        if (store == null) {
+            throw new IOException("Позиции получены до описания тел");
+        }
+        buffer = WorkerProtocol.readDoubles(in, buffer, store.size(), store.posX, store.posY, store.posZ);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example;
+
+// Метод интегрирования уравнений движения на один шаг
+public interface Integrator {
+    // Имя метода (записывается в контрольные точки)
+    String name();
+
+    // Продвинуть позиции и скорости всех тел store на шаг dt, ускорения считает solver
+    void step(BodyStore store, ForceSolver solver, double dt);
+
+    // Сброс внутреннего состояния: вызывается, когда ускорения в хранилище больше
+    // не соответствуют позициям (смена метода расчёта сил, добавление или удаление тел)
+    default void reset() {
+    }
+
+    // Перестановка тел в хранилище (BodyStore.permute): newIndex[i] — новый индекс тела i.
+    // Состояние в хранилище уже переставлено; интегратор переносит собственные массивы по телам
+    default void renumber(int[] newIndex, int n) {
+    }
+
+    // Интегратор по имени из контрольной точки
+    static Integrator forName(String name) {
+        return switch (name) {
+            case RK4Integrator.NAME -> new RK4Integrator();
+            case LeapfrogIntegrator.NAME -> new LeapfrogIntegrator();
+            case YoshidaIntegrator.NAME -> new YoshidaIntegrator();
+            case BlockTimestepIntegrator.NAME -> new BlockTimestepIntegrator();
+            default -> throw new IllegalArgumentException("Неизвестный интегратор: " + name);
+        };
+    }
+}
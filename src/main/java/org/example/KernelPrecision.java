@@ -0,0 +1,7 @@
+package org.example;
+
+// Точность ядра SoftenedForceSolver
+public enum KernelPrecision {
+    DOUBLE, // все вычисления в double
+    MIXED   // смещения и обратные кубы расстояний во float (вдвое больше тел за векторную операцию), суммы в double
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+// Симплектический метод «чехарда» (leapfrog / скоростной Верле) в форме kick-drift-kick.
+// Второй порядок точности, но энергия не дрейфует, а лишь колеблется на длинных орбитах.
+// Ускорения в конце шага переиспользуются в начале следующего, поэтому расчёт сил — один на шаг.
+// В store.accX/accY/accZ остаются ускорения при текущих позициях.
+public class LeapfrogIntegrator implements Integrator {
+    public static final String NAME = "LEAPFROG";
+
+    // Ускорения в хранилище соответствуют текущим позициям
+    private boolean primed;
+    private int primedSize = -1;
+
+    @Override
+    public String name() { return NAME; }
+
+    @Override
+    public void step(BodyStore store, ForceSolver solver, double dt) {
+        prime(store, solver);
+        kickDriftKick(store, solver, dt);
+    }
+
+    @Override
+    public void reset() {
+        primed = false;
+    }
+
+    // Расчёт начальных ускорений, если они неизвестны
+    void prime(BodyStore store, ForceSolver solver) {
+        if (primed && primedSize == store.size()) return;
+        solver.computeAccelerations(store, store.posX, store.posY, store.posZ, store.accX, store.accY, store.accZ);
+        primed = true;
+        primedSize = store.size();
+    }
+
+    // Полушаг по скорости, полный шаг по позиции, новые ускорения, полушаг по скорости
+    static void kickDriftKick(BodyStore store, ForceSolver solver, double dt) {
+        int n = store.size();
+        double[] posX = store.posX;
+        double[] posY = store.posY;
+        double[] posZ = store.posZ;
+        double[] velX = store.velX;
+        double[] velY = store.velY;
+        double[] velZ = store.velZ;
+        double[] accX = store.accX;
+        double[] accY = store.accY;
+        double[] accZ = store.accZ;
+        double halfDt = 0.5 * dt;
+
+        for (int i = 0; i < n; i++) {
+            velX[i] += halfDt * accX[i];
+            velY[i] += halfDt * accY[i];
+            velZ[i] += halfDt * accZ[i];
+            posX[i] += dt * velX[i];
+            posY[i] += dt * velY[i];
+            posZ[i] += dt * velZ[i];
+        }
+        solver.computeAccelerations(store, posX, posY, posZ, accX, accY, accZ);
+        for (int i = 0; i < n; i++) {
+            velX[i] += halfDt * accX[i];
+            velY[i] += halfDt * accY[i];
+            velZ[i] += halfDt * accZ[i];
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Кодирование снимков для наблюдателей ObserverServer. Работает в потоке канала снимков,
+// а не в потоке интегратора, и хранит только последний кадр: наблюдатель, не успевший забрать
+// промежуточные кадры, сразу получает самый свежий, очереди не возникает.
+// Двоичный кадр (big-endian):
+//   byte тип (KEY или DELTA), long номер кадра, long номер ключевого кадра, long шаг, double время, int n
+//   KEY    n × (int номер тела, double масса, double радиус, 3 × double позиция, 3 × double скорость, строка UTF имя)
+//   DELTA  n × 6 × float — смещения позиции и скорости от ключевого кадра, тела в порядке ключевого кадра
+// Ключевой кадр строится заново при изменении набора или порядка тел, масс или радиусов
+// (добавление, удаление, слияние, упорядочивание) и не реже чем раз в keyframeInterval кадров,
+// чтобы смещения оставались малыми и точными во float. JSON — полный снимок, кодируется,
+// только если его кто-то запросил.
+final class LiveFrameEncoder implements SnapshotSink {
+    static final int KEY = 1;
+    static final int DELTA = 2;
+    private static final int HEADER_BYTES = 1 + 8 + 8 + 8 + 8 + 4;
+
+    private final long minFrameNanos;
+    private final int keyframeInterval;
+
+    // Ключевой кадр, от которого считаются смещения
+    private long keyNumber = -1;
+    private byte[] keyBytes;
+    private int keySize;
+    private int[] keyIds = new int[0];
+    private double[] keyMass = new double[0];
+    private double[] keyRadius = new double[0];
+    private double[] keyPosX = new double[0];
+    private double[] keyPosY = new double[0];
+    private double[] keyPosZ = new double[0];
+    private double[] keyVelX = new double[0];
+    private double[] keyVelY = new double[0];
+    private double[] keyVelZ = new double[0];
+
+    // Спрос: без наблюдателей снимки не кодируются
+    private final AtomicInteger observers = new AtomicInteger();
+    private final AtomicInteger jsonObservers = new AtomicInteger();
+    private final AtomicBoolean jsonRequested = new AtomicBoolean();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private volatile Frame latest;
+    private volatile Frame latestJson; // последний кадр с JSON: ожидающий может проснуться позже следующего кадра
+    private volatile boolean closed;
+    private volatile long frames;
+    private volatile long keyframes;
+
+    LiveFrameEncoder(int maxFramesPerSecond, int keyframeInterval) {
+        if (maxFramesPerSecond < 1 || keyframeInterval < 1) {
+            throw new IllegalArgumentException("Частота кадров и интервал ключевых кадров должны быть положительными: "
+                    + maxFramesPerSecond + ", " + keyframeInterval);
+        }
+        this.minFrameNanos = 1_000_000_000L / maxFramesPerSecond;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    // Закодированный кадр; неизменяем и разделяется всеми наблюдателями
+    static final class Frame {
+        final long number;
+        final long keyNumber;
+        final byte[] binary;   // сам кадр: ключевой или разностный
+        final byte[] keyframe; // ключевой кадр, от которого отсчитан binary (для ключевого — тот же массив)
+        final byte[] json;     // полный снимок в JSON или null, если JSON не запрашивали
+
+        Frame(long number, long keyNumber, byte[] binary, byte[] keyframe, byte[] json) {
+            this.number = number;
+            this.keyNumber = keyNumber;
+            this.binary = binary;
+            this.keyframe = keyframe;
+            this.json = json;
+        }
+
+        boolean isKey() { return number == keyNumber; }
+    }
+
+    @Override
+    public void accept(StateSnapshot snapshot) {
+        long start = System.nanoTime();
+        boolean json = jsonObservers.get() > 0 | jsonRequested.getAndSet(false);
+        long number = frames;
+        if (observers.get() == 0 && !json) {
+            keyBytes = null; // смещения от давнего ключевого кадра были бы велики
+            return;
+        }
+
+        frames = number + 1;
+        byte[] binary;
+        if (needsKeyframe(snapshot, number)) {
+            binary = encodeKey(snapshot, number);
+            keyBytes = binary;
+            keyNumber = number;
+            keyframes++;
+        } else {
+            binary = encodeDelta(snapshot, number);
+        }
+        publish(new Frame(number, keyNumber, binary, keyBytes, json ? encodeJson(snapshot, number) : null));
+
+        // Ограничение частоты: пока поток канала ждёт, канал LATEST заменяет ожидающий снимок новым
+        // (канал будит свой поток при каждой публикации, поэтому ожидание повторяется до срока)
+        long deadline = start + minFrameNanos;
+        long rest;
+        while ((rest = deadline - System.nanoTime()) > 0 && !closed) {
+            LockSupport.parkNanos(rest);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isClosed() { return closed; }
+
+    // Число закодированных кадров и ключевых среди них
+    long getFrames() { return frames; }
+    long getKeyframes() { return keyframes; }
+
+    void observerJoined(boolean json) {
+        observers.incrementAndGet();
+        if (json) jsonObservers.incrementAndGet();
+    }
+
+    void observerLeft(boolean json) {
+        observers.decrementAndGet();
+        if (json) jsonObservers.decrementAndGet();
+    }
+
+    int getObservers() { return observers.get(); }
+
+    // Кадр с номером больше after; null, если за timeoutNanos его не появилось или кодировщик закрыт
+    Frame awaitNewer(long after, long timeoutNanos) throws InterruptedException {
+        Frame frame = latest;
+        if (frame != null && frame.number > after) return frame;
+        lock.lock();
+        try {
+            long nanos = timeoutNanos;
+            while ((frame = latest) == null || frame.number <= after) {
+                if (nanos <= 0 || closed) return null;
+                nanos = published.awaitNanos(nanos);
+            }
+            return frame;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Последний кадр с JSON: если у текущего его нет, JSON заказывается для следующего кадра
+    Frame awaitJson(long timeoutNanos) throws InterruptedException {
+        Frame frame = latest;
+        if (frame != null && frame.json != null) return frame;
+        jsonRequested.set(true);
+        long deadline = System.nanoTime() + timeoutNanos;
+        long after = frame == null ? -1 : frame.number;
+        lock.lock();
+        try {
+            while ((frame = latestJson) == null || frame.number <= after) {
+                long nanos = deadline - System.nanoTime();
+                if (nanos <= 0 || closed) return null;
+                published.awaitNanos(nanos);
+            }
+            return frame;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish(Frame frame) {
+        lock.lock();
+        try {
+            latest = frame;
+            if (frame.json != null) {
+                latestJson = frame;
+            }
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean needsKeyframe(StateSnapshot snapshot, long number) {
+        int n = snapshot.size();
+        if (keyBytes == null || number - keyNumber >= keyframeInterval || n != keySize) return true;
+        for (int i = 0; i < n; i++) {
+            if (snapshot.getId(i) != keyIds[i] || snapshot.getMass(i) != keyMass[i]
+                    || snapshot.getRadius(i) != keyRadius[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] encodeKey(StateSnapshot snapshot, long number) {
+        int n = snapshot.size();
+        if (keyIds.length < n) {
+            keyIds = new int[n];
+            keyMass = new double[n];
+            keyRadius = new double[n];
+            keyPosX = new double[n];
+            keyPosY = new double[n];
+            keyPosZ = new double[n];
+            keyVelX = new double[n];
+            keyVelY = new double[n];
+            keyVelZ = new double[n];
+        }
+        keySize = n;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + n * 80);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeHeader(out, KEY, number, number, snapshot);
+            for (int i = 0; i < n; i++) {
+                keyIds[i] = snapshot.getId(i);
+                keyMass[i] = snapshot.getMass(i);
+                keyRadius[i] = snapshot.getRadius(i);
+                keyPosX[i] = snapshot.getPosX(i);
+                keyPosY[i] = snapshot.getPosY(i);
+                keyPosZ[i] = snapshot.getPosZ(i);
+                keyVelX[i] = snapshot.getVelX(i);
+                keyVelY[i] = snapshot.getVelY(i);
+                keyVelZ[i] = snapshot.getVelZ(i);
+                out.writeInt(keyIds[i]);
+                out.writeDouble(keyMass[i]);
+                out.writeDouble(keyRadius[i]);
+                out.writeDouble(keyPosX[i]);
+                out.writeDouble(keyPosY[i]);
+                out.writeDouble(keyPosZ[i]);
+                out.writeDouble(keyVelX[i]);
+                out.writeDouble(keyVelY[i]);
+                out.writeDouble(keyVelZ[i]);
+                out.writeUTF(snapshot.getName(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // запись в память не бросает
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeDelta(StateSnapshot snapshot, long number) {
+        int n = snapshot.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + n * 6 * Float.BYTES);
+        buffer.put((byte) DELTA).putLong(number).putLong(keyNumber)
+                .putLong(snapshot.getStep()).putDouble(snapshot.getTime()).putInt(n);
+        for (int i = 0; i < n; i++) {
+            buffer.putFloat((float) (snapshot.getPosX(i) - keyPosX[i]));
+            buffer.putFloat((float) (snapshot.getPosY(i) - keyPosY[i]));
+            buffer.putFloat((float) (snapshot.getPosZ(i) - keyPosZ[i]));
+            buffer.putFloat((float) (snapshot.getVelX(i) - keyVelX[i]));
+            buffer.putFloat((float) (snapshot.getVelY(i) - keyVelY[i]));
+            buffer.putFloat((float) (snapshot.getVelZ(i) - keyVelZ[i]));
+        }
+        return buffer.array();
+    }
+
+    private static void writeHeader(DataOutputStream out, int type, long number, long keyNumber,
+                                    StateSnapshot snapshot) throws IOException {
+        out.writeByte(type);
+        out.writeLong(number);
+        out.writeLong(keyNumber);
+        out.writeLong(snapshot.getStep());
+        out.writeDouble(snapshot.getTime());
+        out.writeInt(snapshot.size());
+    }
+
+    // Полный снимок одной строкой: {"frame":…,"step":…,"time":…,"bodies":[{"id":…,"name":…,…},…]}
+    static byte[] encodeJson(StateSnapshot snapshot, long number) {
+        int n = snapshot.size();
+        StringBuilder json = new StringBuilder(64 + n * 220);
+        json.append("{\"frame\":").append(number)
+                .append(",\"step\":").append(snapshot.getStep())
+                .append(",\"time\":");
+        number(json, snapshot.getTime());
+        json.append(",\"bodies\":[");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"id\":").append(snapshot.getId(i)).append(",\"name\":");
+            string(json, snapshot.getName(i));
+            json.append(",\"mass\":");
+            number(json, snapshot.getMass(i));
+            json.append(",\"radius\":");
+            number(json, snapshot.getRadius(i));
+            json.append(",\"x\":");
+            number(json, snapshot.getPosX(i));
+            json.append(",\"y\":");
+            number(json, snapshot.getPosY(i));
+            json.append(",\"z\":");
+            number(json, snapshot.getPosZ(i));
+            json.append(",\"vx\":");
+            number(json, snapshot.getVelX(i));
+            json.append(",\"vy\":");
+            number(json, snapshot.getVelY(i));
+            json.append(",\"vz\":");
+            number(json, snapshot.getVelZ(i));
+            json.append('}');
+        }
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // В JSON нет NaN и бесконечностей
+    static void number(StringBuilder json, double value) {
+        if (Double.isFinite(value)) {
+            json.append(value);
+        } else {
+            json.append("null");
+        }
+    }
+
+    static void string(StringBuilder json, String value) {
+        json.append('"');
+        for (int k = 0; k < value.length(); k++) {
+            char c = value.charAt(k);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
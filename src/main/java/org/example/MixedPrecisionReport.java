@@ -0,0 +1,100 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Отчёт об ошибке ядра смешанной точности относительно того же смягчённого ядра в double.
+// Запуск: MixedPrecisionReport [число тел] [допуск] [ε/L ...]
+// Для диска и скопления — в порядке генератора и после упорядочивания по кривой Мортона —
+// и каждой длины смягчения ε (в долях размера системы L) выводит медиану, 99-й процентиль
+// и максимум относительной ошибки ускорения, время обоих ядер в одном потоке и ускорение.
+// Смешанная точность безопасна, если максимум ошибки ниже допуска — ошибки сил, которую прогон
+// и так допускает (например, ~1e-3 у Барнса–Хата при θ = 0.5, см. ForceAccuracyReport).
+public class MixedPrecisionReport {
+    private static final int REPEATS = 3;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        double tolerance = args.length > 1 ? Double.parseDouble(args[1]) : 1e-4;
+        double[] fractions = {1e-6, 1e-4, 1e-2};
+        if (args.length > 2) {
+            fractions = new double[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                fractions[i - 2] = Double.parseDouble(args[i]);
+            }
+        }
+
+        boolean vector = SoftenedForceSolver.isVectorAvailable();
+        System.out.printf(Locale.US, "Тел: %d, допуск %.1e, ядро: %s%n", n, tolerance,
+                vector ? "SIMD, " + VectorKernel.lanes() + " double / " + VectorKernel.floatLanes() + " float"
+                        : "скалярное (модуль jdk.incubator.vector не подключён)");
+        System.out.println("система   порядок    ε/L      медиана      99%          максимум     double, мс  mixed, мс  ускорение  в допуске");
+
+        double[] refX = new double[n];
+        double[] refY = new double[n];
+        double[] refZ = new double[n];
+        double[] accX = new double[n];
+        double[] accY = new double[n];
+        double[] accZ = new double[n];
+        double[] errors = new double[n];
+        for (String system : new String[]{"disk", "cluster"}) {
+            for (boolean ordered : new boolean[]{false, true}) {
+                BodyStore store = ScenarioGenerator.generate(system + ":" + n, 42);
+                if (ordered) {
+                    long[] keys = new long[n];
+                    SpaceFillingCurve.mortonKeys(store.posX, store.posY, store.posZ, n, keys);
+                    store.permute(SpaceFillingCurve.sortedOrder(keys, n));
+                }
+                double length = extent(store);
+                for (double fraction : fractions) {
+                    double softening = fraction * length;
+                    SoftenedForceSolver reference = new SoftenedForceSolver(null, softening, vector);
+                    SoftenedForceSolver mixed = new SoftenedForceSolver(null, softening, vector, KernelPrecision.MIXED);
+                    double referenceMillis = bestMillis(reference, store, refX, refY, refZ);
+                    double mixedMillis = bestMillis(mixed, store, accX, accY, accZ);
+
+                    for (int i = 0; i < n; i++) {
+                        double ex = accX[i] - refX[i];
+                        double ey = accY[i] - refY[i];
+                        double ez = accZ[i] - refZ[i];
+                        double ref = Math.sqrt(refX[i] * refX[i] + refY[i] * refY[i] + refZ[i] * refZ[i]);
+                        errors[i] = ref == 0 ? 0 : Math.sqrt(ex * ex + ey * ey + ez * ez) / ref;
+                    }
+                    Arrays.sort(errors);
+                    String verdict = mixed.getDoubleFallbacks() > 0 ? "double (L/ε велико)"
+                            : errors[n - 1] <= tolerance ? "да" : "нет";
+                    System.out.printf(Locale.US, "%-9s %-10s %-8.0e %-12.3e %-12.3e %-12.3e %-11.1f %-10.1f %-10.2f %s%n",
+                            system, ordered ? "Мортон" : "генератор", fraction, errors[n / 2],
+                            errors[(int) (n * 0.99)], errors[n - 1], referenceMillis, mixedMillis,
+                            referenceMillis / mixedMillis, verdict);
+                }
+            }
+        }
+    }
+
+    // Наибольший размах координат системы
+    private static double extent(BodyStore store) {
+        double extent = 0;
+        for (double[] axis : new double[][]{store.posX, store.posY, store.posZ}) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < store.size(); i++) {
+                min = Math.min(min, axis[i]);
+                max = Math.max(max, axis[i]);
+            }
+            extent = Math.max(extent, max - min);
+        }
+        return extent;
+    }
+
+    private static double bestMillis(ForceSolver solver, BodyStore store, double[] accX, double[] accY, double[] accZ) {
+        solver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ); // прогрев
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < REPEATS; r++) {
+            long start = System.nanoTime();
+            solver.computeAccelerations(store, store.posX, store.posY, store.posZ, accX, accY, accZ);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+}
@@ -0,0 +1,318 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Встроенный сервер наблюдения за симуляцией на JDK HttpServer.
+// Каждый запрос обслуживается собственным виртуальным потоком, поэтому тысяча наблюдателей
+// с медленными соединениями стоит лишь памяти. Интегратор копирует состояние в один канал снимков
+// независимо от числа наблюдателей, кадры кодирует поток канала (LiveFrameEncoder), а рассылают
+// потоки наблюдателей: каждый берёт последний кадр и пропускает промежуточные.
+// Запросы:
+//   GET    /stream                двоичный поток: int длина, затем кадр (формат — LiveFrameEncoder);
+//                                  первым идёт ключевой кадр, далее разностные и новые ключевые
+//   GET    /events                Server-Sent Events: полный снимок в JSON на каждый кадр
+//   GET    /state                 последний снимок в JSON
+//   POST   /bodies?name=&mass=&radius=&x=&y=&z=&vx=&vy=&vz=   добавить тело, ответ {"id":N}
+//   DELETE /bodies/N              удалить тело с постоянным номером N
+//   PUT    /acceleration?factor=F изменить ускорение времени
+// Изменения выполняются через Simulation.submit в потоке интегратора между шагами.
+public class ObserverServer implements AutoCloseable {
+    public static final int DEFAULT_MAX_FPS = 30;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+    private static final long COMMAND_TIMEOUT_MILLIS = 5_000;
+    private static final long HEARTBEAT_NANOS = 5_000_000_000L; // проверка закрытия и комментарий SSE
+
+    private final Simulation simulation;
+    private final LiveFrameEncoder encoder;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+
+    public ObserverServer(Simulation simulation, int port) throws IOException {
+        this(simulation, port, DEFAULT_MAX_FPS, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    // port 0 — любой свободный (см. getPort)
+    public ObserverServer(Simulation simulation, int port, int maxFramesPerSecond, int keyframeInterval)
+            throws IOException {
+        this.simulation = simulation;
+        this.encoder = new LiveFrameEncoder(maxFramesPerSecond, keyframeInterval);
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/stream", exchange -> handle(exchange, "GET", this::stream));
+        server.createContext("/events", exchange -> handle(exchange, "GET", this::events));
+        server.createContext("/state", exchange -> handle(exchange, "GET", this::state));
+        server.createContext("/bodies", this::bodies);
+        server.createContext("/acceleration", exchange -> handle(exchange, "PUT", this::acceleration));
+    }
+
+    // Подключение к симуляции и запуск; канал хранит только последний снимок (BackpressurePolicy.LATEST)
+    public void start() {
+        simulation.addSink(encoder, 1, BackpressurePolicy.LATEST);
+        server.start();
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+    public int getObservers() { return encoder.getObservers(); }
+    public long getFramesEncoded() { return encoder.getFrames(); }
+    public long getKeyframesEncoded() { return encoder.getKeyframes(); }
+    // Кадров и байт, отправленных всем наблюдателям вместе
+    public long getFramesSent() { return framesSent.sum(); }
+    public long getBytesSent() { return bytesSent.sum(); }
+
+    @Override
+    public void close() {
+        encoder.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        // Ответ об ошибке отправляется до закрытия обмена
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals(method)) {
+                respond(exchange, 405, error("ожидался " + method));
+                return;
+            }
+            try {
+                handler.handle(exchange);
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, error(e.getMessage()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // сервер останавливается
+        }
+    }
+
+    // Двоичный поток: ключевой кадр отправляется, когда наблюдатель его ещё не получал
+    private void stream(HttpExchange exchange) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, 0);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(exchange.getResponseBody(), 1 << 16));
+        encoder.observerJoined(false);
+        try {
+            long sent = -1;
+            long sentKey = -1;
+            while (!encoder.isClosed()) {
+                LiveFrameEncoder.Frame frame = encoder.awaitNewer(sent, HEARTBEAT_NANOS);
+                if (frame == null) continue;
+                if (frame.keyNumber != sentKey) {
+                    write(out, frame.keyframe);
+                    sentKey = frame.keyNumber;
+                }
+                if (!frame.isKey()) {
+                    write(out, frame.binary);
+                }
+                out.flush();
+                sent = frame.number;
+            }
+        } catch (IOException e) {
+            // наблюдатель отключился
+        } finally {
+            encoder.observerLeft(false);
+        }
+    }
+
+    private void write(DataOutputStream out, byte[] frame) throws IOException {
+        out.writeInt(frame.length);
+        out.write(frame);
+        framesSent.increment();
+        bytesSent.add(4 + frame.length);
+    }
+
+    private void events(HttpExchange exchange) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), 1 << 16);
+        byte[] prefix = "data: ".getBytes(StandardCharsets.US_ASCII);
+        byte[] suffix = "\n\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] heartbeat = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+        encoder.observerJoined(true);
+        try {
+            long sent = -1;
+            while (!encoder.isClosed()) {
+                LiveFrameEncoder.Frame frame = encoder.awaitNewer(sent, HEARTBEAT_NANOS);
+                if (frame == null) {
+                    out.write(heartbeat); // заодно обнаруживает отключившихся
+                } else if (frame.json != null) {
+                    out.write(prefix);
+                    out.write(frame.json);
+                    out.write(suffix);
+                    framesSent.increment();
+                    bytesSent.add(prefix.length + frame.json.length + suffix.length);
+                    sent = frame.number;
+                } else {
+                    sent = frame.number; // закодирован до подключения этого наблюдателя
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // наблюдатель отключился
+        } finally {
+            encoder.observerLeft(true);
+        }
+    }
+
+    private void state(HttpExchange exchange) throws IOException, InterruptedException {
+        LiveFrameEncoder.Frame frame = encoder.awaitJson(TimeUnit.MILLISECONDS.toNanos(COMMAND_TIMEOUT_MILLIS));
+        if (frame == null) {
+            respond(exchange, 503, error("симуляция не публикует снимки"));
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, frame.json.length);
+        exchange.getResponseBody().write(frame.json);
+    }
+
+    // POST /bodies?... — добавление, DELETE /bodies/N — удаление
+    private void bodies(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (method.equals("POST") && path.equals("/bodies")) {
+            handle(exchange, "POST", this::addBody);
+        } else if (method.equals("DELETE") && path.startsWith("/bodies/")) {
+            handle(exchange, "DELETE", this::removeBody);
+        } else {
+            try (exchange) {
+                respond(exchange, 405, error("ожидался POST /bodies или DELETE /bodies/N"));
+            }
+        }
+    }
+
+    private void addBody(HttpExchange exchange) throws IOException, InterruptedException {
+        Map<String, String> query = query(exchange);
+        String name = query.getOrDefault("name", "Тело");
+        double mass = number(query, "mass", Double.NaN);
+        double radius = number(query, "radius", 0);
+        double x = number(query, "x", 0);
+        double y = number(query, "y", 0);
+        double z = number(query, "z", 0);
+        double vx = number(query, "vx", 0);
+        double vy = number(query, "vy", 0);
+        double vz = number(query, "vz", 0);
+        Integer id = command(exchange, sim -> sim.addBody(name, mass, radius, x, y, z, vx, vy, vz).getId());
+        if (id != null) {
+            respond(exchange, 201, "{\"id\":" + id + "}");
+        }
+    }
+
+    private void removeBody(HttpExchange exchange) throws IOException, InterruptedException {
+        String path = exchange.getRequestURI().getPath();
+        int id;
+        try {
+            id = Integer.parseInt(path.substring("/bodies/".length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ожидался номер тела: " + path);
+        }
+        Boolean removed = command(exchange, sim -> sim.removeBody(id));
+        if (removed == null) return;
+        if (removed) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            respond(exchange, 404, error("тела " + id + " нет"));
+        }
+    }
+
+    private void acceleration(HttpExchange exchange) throws IOException, InterruptedException {
+        double factor = number(query(exchange), "factor", Double.NaN);
+        Double applied = command(exchange, sim -> {
+            sim.setAccelerationFactor(factor);
+            return sim.getAccelerationFactor();
+        });
+        if (applied != null) {
+            respond(exchange, 200, String.format(Locale.US, "{\"accelerationFactor\":%s}", applied));
+        }
+    }
+
+    // Выполнение изменения между шагами; null — ответ об ошибке уже отправлен.
+    // Не дождавшись, команду отменяем: иначе она применилась бы позже, уже после ответа 503
+    private <T> T command(HttpExchange exchange, Function<Simulation, T> command)
+            throws IOException, InterruptedException {
+        CompletableFuture<T> result = simulation.submit(command);
+        try {
+            return result.get(COMMAND_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            throw e;
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            respond(exchange, 503, error("симуляция не выполняет шаги"));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                respond(exchange, 400, error(e.getCause().getMessage()));
+            } else {
+                respond(exchange, 500, error(String.valueOf(e.getCause())));
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> values = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return values;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            values.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    // Числовой параметр; NaN по умолчанию — параметр обязателен
+    private static double number(Map<String, String> query, String key, double defaultValue) {
+        String value = query.get(key);
+        if (value == null) {
+            if (Double.isNaN(defaultValue)) {
+                throw new IllegalArgumentException("Нет параметра " + key);
+            }
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + key + " не число: " + value);
+        }
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        LiveFrameEncoder.string(json, String.valueOf(message));
+        return json.append('}').toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
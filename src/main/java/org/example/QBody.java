@@ -1,23 +1,26 @@
 package org.example;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Locale;
 import java.util.Scanner;
 
 // Основной класс для запуска симуляции
 public class QBody {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            runFromArguments(args);
+            return;
+        }
+
         Scanner input = new Scanner(System.in);
         input.useLocale(Locale.US);
 
         System.out.print("Количество объектов: ");
         int n = input.nextInt();
 
-        // Минимальные массы для классификации
-        double planetMin = 3.3e23;   // Масса Меркурия
-        double starMin = 1.6e29;     // Примерно 0.08 солнечных масс
-        double BHMin = 6.0e30;       // Примерно 3 солнечные массы
-
         // Список для хранения объектов
         ArrayList<CelestialBody> bodies = new ArrayList<>();
 
@@ -32,9 +35,24 @@ public class QBody {
             System.out.print("Масса (кг): ");
             double mass = input.nextDouble();
 
-            System.out.print("Расстояние от центра симуляции (метров): ");
-            double distance = input.nextDouble();
+            System.out.print("Радиус (метров): ");
+            double radius = input.nextDouble();
+
+            System.out.print("Период вращения (секунд): ");
+            double rotationPeriod = input.nextDouble();
+
+            // Классификация тела по массе
+            String classification = CelestialBody.classify(mass);
+
+            if (bodies.isEmpty()) {
+                // Первый объект — центральное тело в начале координат
+                System.out.println("Центральное тело размещается в начале координат в покое");
+                bodies.add(new CelestialBody(name, mass, radius, 0, 0, 0, 0, classification,
+                        0, 0, 0, 0, rotationPeriod));
+                continue;
+            }
 
+            // Остальные объекты задаются кеплеровыми элементами орбиты вокруг центрального тела
             System.out.print("Большая полуось (метров): ");
             double majorSemiAxis = input.nextDouble();
 
@@ -44,42 +62,34 @@ public class QBody {
             System.out.print("Орбитальное наклонение (градусов): ");
             double orbitalInclination = input.nextDouble();
 
-            System.out.print("Радиус (метров): ");
-            double radius = input.nextDouble();
+            System.out.print("Долгота восходящего узла (градусов): ");
+            double ascendingNode = input.nextDouble();
 
-            // Удалён ввод gravityConst
+            System.out.print("Аргумент перицентра (градусов): ");
+            double argumentOfPeriapsis = input.nextDouble();
 
-            System.out.print("Орбитальная скорость (м/с): ");
-            double orbitalSpeed = input.nextDouble();
+            System.out.print("Средняя аномалия (градусов): ");
+            double meanAnomaly = input.nextDouble();
 
-            System.out.print("Период обращения (секунд): ");
-            double periodOfRevolution = input.nextDouble();
-
-            System.out.print("Период вращения (секунд): ");
-            double rotationPeriod = input.nextDouble();
-
-            // Классификация тела по массе
-            String classification;
-            if (mass >= BHMin) {
-                classification = "Черная дыра";
-            } else if (mass >= starMin) {
-                classification = "Звезда";
-            } else if (mass >= planetMin) {
-                classification = "Планета";
-            } else {
-                classification = "Не классифицировано";
-            }
+            CelestialBody central = bodies.get(0);
+            double mu = CelestialBody.G * (central.getMass() + mass);
+            double[] state = ScenarioGenerator.keplerianState(mu, majorSemiAxis, eccentricity,
+                    Math.toRadians(orbitalInclination), Math.toRadians(ascendingNode),
+                    Math.toRadians(argumentOfPeriapsis), Math.toRadians(meanAnomaly));
+            // Период обращения по третьему закону Кеплера
+            double periodOfRevolution = 2 * Math.PI * Math.sqrt(Math.pow(majorSemiAxis, 3) / mu);
 
             // Создание и добавление объекта в список
-            // Передача дополнительных параметров в конструктор
             CelestialBody body = new CelestialBody(
                     name,
                     mass,
                     radius,
-                    distance, // posX
-                    0,        // posY
-                    0,        // velX
-                    orbitalSpeed, // velY
+                    central.getPosX() + state[0],
+                    central.getPosY() + state[1],
+                    central.getPosZ() + state[2],
+                    central.getVelX() + state[3],
+                    central.getVelY() + state[4],
+                    central.getVelZ() + state[5],
                     classification,
                     majorSemiAxis,
                     eccentricity,
@@ -101,8 +111,8 @@ public class QBody {
             System.out.println("\n--- " + index + ": " + body.getName() + " ---");
             System.out.println("Классификация: " + body.getClassification() + " (" + body.getMass() + " кг)");
             System.out.println("Масса: " + body.getMass() + " кг");
-            System.out.println("Позиция: (" + body.getPosX() + ", " + body.getPosY() + ") метров");
-            System.out.println("Скорость: (" + body.getVelX() + ", " + body.getVelY() + ") м/с");
+            System.out.println("Позиция: (" + body.getPosX() + ", " + body.getPosY() + ", " + body.getPosZ() + ") метров");
+            System.out.println("Скорость: (" + body.getVelX() + ", " + body.getVelY() + ", " + body.getVelZ() + ") м/с");
             System.out.println("Радиус: " + body.getRadius() + " метров");
             System.out.println("Большая полуось: " + body.getMajorSemiAxis() + " метров");
             System.out.println("Эксцентриситет: " + body.getEccentricity());
@@ -121,6 +131,179 @@ public class QBody {
 
         // Запуск симуляции
         Simulation simulation = new Simulation(bodies, 1.0, accelerationFactor); // шаг 1 секунда
+        // Вывод в консоль идёт в отдельном потоке; если терминал не успевает, кадры пропускаются
+        simulation.addSink(new ConsoleSink(), 2, BackpressurePolicy.DROP_NEWEST);
         simulation.startSimulation();
     }
+
+    // Неинтерактивный запуск:
+    //   QBody --scenario <файл.csv | файл.bin | disk:N | cluster:N | belt:N> [--seed S]
+    //         [--dt секунд] [--factor ускорение] [--integrator RK4|LEAPFROG|YOSHIDA4|BLOCK] [--steps N] [--sample K]
+    //         [--restore контрольная_точка] [--checkpoint путь] [--checkpoint-every K] [--diagnostics K]
+    //         [--metrics секунд] [--collisions report|merge|bounce] [--tides K] [--reorder morton|hilbert[:K]]
+    //         [--softening метров [--precision double|mixed]]
+    //         [--workers хост:порт,хост:порт [--worker-solver direct|bh:θ]] [--serve порт]
+    // С --steps симуляция идёт в пакетном режиме и печатает итог, иначе — в реальном времени с выводом в консоль.
+    // С --softening силы считаются прямым суммированием со смягчением (SoftenedForceSolver),
+    // --precision mixed включает ядро смешанной точности (оценка ошибки — MixedPrecisionReport).
+    // С --workers силы считают процессы ForceWorker (см. DistributedForceSolver).
+    // С --serve состояние транслируется наблюдателям по HTTP (см. ObserverServer) вместо вывода в консоль.
+    // С --reorder тела переупорядочиваются в памяти по кривой каждые K шагов (по умолчанию 100).
+    // После --restore режим столкновений и упорядочивание берутся из контрольной точки,
+    // --collisions и --reorder заменяют их (--reorder сразу переставляет тела).
+    private static void runFromArguments(String[] args) throws IOException {
+        String scenario = null;
+        String restore = null;
+        String checkpoint = null;
+        String integrator = null;
+        String workers = null;
+        String workerSolver = "direct";
+        String reorder = null;
+        double softening = -1;
+        KernelPrecision precision = KernelPrecision.DOUBLE;
+        long seed = 42;
+        double timeStep = 1.0;
+        double accelerationFactor = 1.0;
+        long steps = 0;
+        long sampleInterval = 0;
+        long checkpointInterval = 10_000;
+        long diagnosticsInterval = 0;
+        long tidesInterval = 0;
+        long metricsInterval = -1;
+        int servePort = -1;
+        CollisionMode collisionMode = null; // по умолчанию REPORT или режим из контрольной точки
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Нет значения для " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--scenario" -> scenario = value;
+                case "--restore" -> restore = value;
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--dt" -> timeStep = Double.parseDouble(value);
+                case "--factor" -> accelerationFactor = Double.parseDouble(value);
+                case "--integrator" -> integrator = value;
+                case "--softening" -> softening = Double.parseDouble(value);
+                case "--precision" -> precision = KernelPrecision.valueOf(value.toUpperCase(Locale.ROOT));
+                case "--workers" -> workers = value;
+                case "--worker-solver" -> workerSolver = value;
+                case "--steps" -> steps = Long.parseLong(value);
+                case "--sample" -> sampleInterval = Long.parseLong(value);
+                case "--checkpoint" -> checkpoint = value;
+                case "--checkpoint-every" -> checkpointInterval = Long.parseLong(value);
+                case "--diagnostics" -> diagnosticsInterval = Long.parseLong(value);
+                case "--tides" -> tidesInterval = Long.parseLong(value);
+                case "--reorder" -> reorder = value;
+                case "--metrics" -> metricsInterval = Long.parseLong(value);
+                case "--serve" -> servePort = Integer.parseInt(value);
+                case "--collisions" -> collisionMode = CollisionMode.valueOf(value.toUpperCase(Locale.ROOT));
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + option);
+            }
+        }
+
+        long start = System.nanoTime();
+        Simulation simulation;
+        if (restore != null) {
+            simulation = Checkpoint.read(Path.of(restore)).restore();
+        } else if (scenario != null) {
+            BodyStore store = Files.exists(Path.of(scenario))
+                    ? ScenarioLoader.load(Path.of(scenario))
+                    : ScenarioGenerator.generate(scenario, seed);
+            simulation = new Simulation(store, timeStep, accelerationFactor);
+        } else {
+            throw new IllegalArgumentException("Нужно указать --scenario или --restore");
+        }
+        System.out.printf("Загружено объектов: %d за %.1f мс%n",
+                simulation.getBodies().size(), (System.nanoTime() - start) / 1e6);
+
+        if (integrator != null) {
+            simulation.setIntegrator(Integrator.forName(integrator));
+        }
+        if (softening >= 0) {
+            simulation.setForceSolver(new SoftenedForceSolver(simulation.getPool(), softening, precision));
+        } else if (precision != KernelPrecision.DOUBLE) {
+            throw new IllegalArgumentException("--precision задаётся вместе с --softening");
+        }
+        DistributedForceSolver distributed = null;
+        if (workers != null) {
+            distributed = new DistributedForceSolver(DistributedForceSolver.parseAddresses(workers), workerSolver);
+            simulation.setForceSolver(distributed);
+            System.out.printf("Рабочих: %d, решатель рабочих: %s%n", distributed.getWorkerCount(), workerSolver);
+        }
+        if (checkpoint != null) {
+            simulation.enableCheckpoints(Path.of(checkpoint), checkpointInterval);
+        }
+        if (diagnosticsInterval > 0) {
+            simulation.enableDiagnostics(diagnosticsInterval);
+        }
+        if (tidesInterval > 0) {
+            simulation.enableTidalAnalysis(tidesInterval);
+        }
+        if (reorder != null) {
+            int colon = reorder.indexOf(':');
+            BodyOrdering ordering = BodyOrdering.valueOf(
+                    (colon < 0 ? reorder : reorder.substring(0, colon)).toUpperCase(Locale.ROOT));
+            simulation.enableReordering(ordering, colon < 0 ? 100 : Long.parseLong(reorder.substring(colon + 1)));
+        }
+        if (collisionMode != null) {
+            simulation.setCollisionMode(collisionMode);
+        }
+        if (metricsInterval >= 0) {
+            simulation.enableMetrics(metricsInterval);
+        }
+
+        ObserverServer server = null;
+        if (servePort >= 0) {
+            server = new ObserverServer(simulation, servePort);
+            server.start();
+            System.out.printf("Наблюдение: http://localhost:%d/stream, /events, /state%n", server.getPort());
+        }
+
+        if (steps > 0) {
+            RunResult result = simulation.run(steps, sampleInterval, (sim, step) ->
+                    System.out.printf("Шаг %d, время симуляции %.3e с%n", step, sim.getSimulationTime()));
+            System.out.println(result);
+            if (simulation.getCollisionMode() != CollisionMode.REPORT) {
+                System.out.printf("Слияний: %d, отскоков: %d, осталось тел: %d%n",
+                        simulation.getMergeCount(), simulation.getBounceCount(), simulation.getBodies().size());
+            }
+            if (simulation.getOrdering() != null) {
+                System.out.printf("Переупорядочений тел: %d%n", simulation.getReorderCount());
+            }
+            if (simulation.getMetrics() != null) {
+                System.out.println(simulation.getMetrics().logLine());
+            }
+            TidalAnalysis tides = simulation.getTidalAnalysis();
+            if (tides != null) {
+                System.out.print(tides.report(simulation.getStore(), 10));
+            }
+            DiagnosticsMonitor diagnostics = simulation.getDiagnostics();
+            if (diagnostics != null) {
+                System.out.println(diagnostics.getLatest());
+                System.out.printf("Дрейф: энергия %.3e (макс. %.3e), импульс %.3e, момент импульса %.3e, центр масс %.3e м%n",
+                        diagnostics.getEnergyDrift(), diagnostics.getMaxEnergyDrift(), diagnostics.getMomentumDrift(),
+                        diagnostics.getAngularMomentumDrift(), diagnostics.getCenterOfMassDrift());
+            }
+            if (distributed != null) {
+                System.out.printf("Расчётов сил на рабочих: %d, передано %.1f МиБ, получено %.1f МиБ%n",
+                        distributed.getEvaluations(), distributed.getBytesSent() / 1048576.0,
+                        distributed.getBytesReceived() / 1048576.0);
+                distributed.close();
+            }
+            if (server != null) {
+                System.out.printf("Кадров наблюдения: %d, отправлено %.1f МиБ%n",
+                        server.getFramesEncoded(), server.getBytesSent() / 1048576.0);
+                server.close();
+            }
+            simulation.stopSimulation();
+        } else {
+            if (server == null) {
+                simulation.addSink(new ConsoleSink(), 2, BackpressurePolicy.DROP_NEWEST);
+            }
+            simulation.startSimulation();
+        }
+    }
 }
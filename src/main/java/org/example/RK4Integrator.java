@@ -0,0 +1,124 @@
+package org.example;
+
+// Классический метод Рунге-Кутты 4-го порядка: четыре расчёта сил на шаг.
+// Работает напрямую с массивами BodyStore и заранее выделенными буферами,
+// поэтому в установившемся режиме шаг не выделяет память.
+// В store.accX/accY/accZ остаются ускорения в начале шага.
+public class RK4Integrator implements Integrator {
+    public static final String NAME = "RK4";
+
+    // Переиспользуемые буферы: состояние промежуточной стадии и суммы коэффициентов
+    private double[] stagePosX, stagePosY, stagePosZ, stageVelX, stageVelY, stageVelZ;
+    private double[] stageAccX, stageAccY, stageAccZ;
+    private double[] sumPosX, sumPosY, sumPosZ, sumVelX, sumVelY, sumVelZ;
+
+    @Override
+    public String name() { return NAME; }
+
+    @Override
+    public void step(BodyStore store, ForceSolver solver, double dt) {
+        int n = store.size();
+        ensureBuffers(n);
+        double[] posX = store.posX;
+        double[] posY = store.posY;
+        double[] posZ = store.posZ;
+        double[] velX = store.velX;
+        double[] velY = store.velY;
+        double[] velZ = store.velZ;
+        double halfDt = 0.5 * dt;
+
+        // Шаг 1: k1 — ускорения в исходном состоянии (сохраняются в хранилище для вывода)
+        solver.computeAccelerations(store, posX, posY, posZ, store.accX, store.accY, store.accZ);
+        double[] accX = store.accX;
+        double[] accY = store.accY;
+        double[] accZ = store.accZ;
+        for (int i = 0; i < n; i++) {
+            sumPosX[i] = velX[i];
+            sumPosY[i] = velY[i];
+            sumPosZ[i] = velZ[i];
+            sumVelX[i] = accX[i];
+            sumVelY[i] = accY[i];
+            sumVelZ[i] = accZ[i];
+            stagePosX[i] = posX[i] + halfDt * velX[i];
+            stagePosY[i] = posY[i] + halfDt * velY[i];
+            stagePosZ[i] = posZ[i] + halfDt * velZ[i];
+            stageVelX[i] = velX[i] + halfDt * accX[i];
+            stageVelY[i] = velY[i] + halfDt * accY[i];
+            stageVelZ[i] = velZ[i] + halfDt * accZ[i];
+        }
+
+        // Шаг 2: k2 — промежуточное состояние в середине шага
+        solver.computeAccelerations(store, stagePosX, stagePosY, stagePosZ, stageAccX, stageAccY, stageAccZ);
+        for (int i = 0; i < n; i++) {
+            double kVelX = stageVelX[i];
+            double kVelY = stageVelY[i];
+            double kVelZ = stageVelZ[i];
+            sumPosX[i] += 2 * kVelX;
+            sumPosY[i] += 2 * kVelY;
+            sumPosZ[i] += 2 * kVelZ;
+            sumVelX[i] += 2 * stageAccX[i];
+            sumVelY[i] += 2 * stageAccY[i];
+            sumVelZ[i] += 2 * stageAccZ[i];
+            stagePosX[i] = posX[i] + halfDt * kVelX;
+            stagePosY[i] = posY[i] + halfDt * kVelY;
+            stagePosZ[i] = posZ[i] + halfDt * kVelZ;
+            stageVelX[i] = velX[i] + halfDt * stageAccX[i];
+            stageVelY[i] = velY[i] + halfDt * stageAccY[i];
+            stageVelZ[i] = velZ[i] + halfDt * stageAccZ[i];
+        }
+
+        // Шаг 3: k3 — второе приближение в середине шага
+        solver.computeAccelerations(store, stagePosX, stagePosY, stagePosZ, stageAccX, stageAccY, stageAccZ);
+        for (int i = 0; i < n; i++) {
+            double kVelX = stageVelX[i];
+            double kVelY = stageVelY[i];
+            double kVelZ = stageVelZ[i];
+            sumPosX[i] += 2 * kVelX;
+            sumPosY[i] += 2 * kVelY;
+            sumPosZ[i] += 2 * kVelZ;
+            sumVelX[i] += 2 * stageAccX[i];
+            sumVelY[i] += 2 * stageAccY[i];
+            sumVelZ[i] += 2 * stageAccZ[i];
+            stagePosX[i] = posX[i] + dt * kVelX;
+            stagePosY[i] = posY[i] + dt * kVelY;
+            stagePosZ[i] = posZ[i] + dt * kVelZ;
+            stageVelX[i] = velX[i] + dt * stageAccX[i];
+            stageVelY[i] = velY[i] + dt * stageAccY[i];
+            stageVelZ[i] = velZ[i] + dt * stageAccZ[i];
+        }
+
+        // Шаг 4: k4 — состояние в конце шага
+        solver.computeAccelerations(store, stagePosX, stagePosY, stagePosZ, stageAccX, stageAccY, stageAccZ);
+
+        // Обновление позиций и скоростей с использованием взвешенных коэффициентов
+        double sixthDt = dt / 6.0;
+        for (int i = 0; i < n; i++) {
+            posX[i] += (sumPosX[i] + stageVelX[i]) * sixthDt;
+            posY[i] += (sumPosY[i] + stageVelY[i]) * sixthDt;
+            posZ[i] += (sumPosZ[i] + stageVelZ[i]) * sixthDt;
+            velX[i] += (sumVelX[i] + stageAccX[i]) * sixthDt;
+            velY[i] += (sumVelY[i] + stageAccY[i]) * sixthDt;
+            velZ[i] += (sumVelZ[i] + stageAccZ[i]) * sixthDt;
+        }
+    }
+
+    // Выделение рабочих буферов RK4 (только при росте числа тел)
+    private void ensureBuffers(int n) {
+        if (stagePosX != null && stagePosX.length >= n) return;
+        stagePosX = new double[n];
+        stagePosY = new double[n];
+        stagePosZ = new double[n];
+        stageVelX = new double[n];
+        stageVelY = new double[n];
+        stageVelZ = new double[n];
+        stageAccX = new double[n];
+        stageAccY = new double[n];
+        stageAccZ = new double[n];
+        sumPosX = new double[n];
+        sumPosY = new double[n];
+        sumPosZ = new double[n];
+        sumVelX = new double[n];
+        sumVelY = new double[n];
+        sumVelZ = new double[n];
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import java.util.Locale;
+
+// Ведение симуляции в реальном времени с постоянной частотой кадров.
+// Каждый кадр к долгу времени симуляции добавляется прошедшее реальное время × ускорение,
+// и выполняется столько шагов timeStep, сколько помещается в долг и в бюджет кадра.
+// Поэтому большие ускорения дают несколько шагов за кадр вместо периода планировщика 0 мс.
+// Отставание (долг в секундах реального времени) ограничено maxLagSeconds: сверх него
+// время симуляции отбрасывается и учитывается в getDroppedSimulationTime.
+// При устойчивом отставании нагрузка снижается ступенями: сначала реже публикуются снимки,
+// затем прямое суммирование заменяется методом Барнса–Хата; после долгой работы без
+// отставания ступени снимаются в обратном порядке.
+public class RealTimeDriver {
+    // Ступени деградации
+    public static final int NORMAL = 0;
+    public static final int REDUCED_OUTPUT = 1;
+    public static final int COARSE_SOLVER = 2;
+
+    // Во сколько раз реже публикуются снимки на ступени REDUCED_OUTPUT
+    private static final int OUTPUT_DIVISOR = 4;
+    // Замена прямого суммирования имеет смысл только для достаточно больших систем
+    private static final int COARSE_SOLVER_MIN_BODIES = 1000;
+    private static final double COARSE_THETA = 0.7;
+
+    private final Simulation simulation;
+    private long framePeriodNanos = 20_000_000;  // 50 кадров в секунду
+    private double frameBudget = 0.8;            // доля кадра, отводимая на шаги
+    private double maxLagSeconds = 1.0;          // допустимое отставание от реального времени
+    private int degradeFrames = 25;              // кадров подряд с отставанием до понижения
+    private int recoverFrames = 250;             // кадров подряд без отставания до восстановления
+
+    private double debt;          // невыполненное время симуляции (с)
+    private long lastFrameNanos;
+    private long firstFrameNanos;
+    private long frames;
+    private long laggingFrames;   // кадров, закончившихся с отставанием
+    private int behindStreak;
+    private int aheadStreak;
+    private volatile int level = NORMAL;
+    private volatile double lagSeconds;
+    private volatile double maxObservedLag;
+    private volatile double droppedSimulationTime;
+    private volatile int lastSubsteps;
+
+    // Настройки, сохранённые при уходе с соответствующей ступени, для восстановления после деградации
+    private long normalPublishInterval;
+    private ForceSolver normalSolver;
+    private ForceSolver coarseSolver; // подставленный драйвером решатель, пока ступень COARSE_SOLVER
+
+    RealTimeDriver(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    public long getFramePeriodMillis() { return framePeriodNanos / 1_000_000; }
+
+    public void setFramePeriodMillis(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Период кадра должен быть не меньше 1 мс: " + millis);
+        }
+        framePeriodNanos = millis * 1_000_000;
+    }
+
+    public void setFrameBudget(double fraction) {
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("Бюджет кадра должен быть в (0, 1]: " + fraction);
+        }
+        frameBudget = fraction;
+    }
+
+    public void setMaxLagSeconds(double seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("Допустимое отставание не может быть отрицательным: " + seconds);
+        }
+        maxLagSeconds = seconds;
+    }
+
+    public void setDegradation(int degradeFrames, int recoverFrames) {
+        this.degradeFrames = degradeFrames;
+        this.recoverFrames = recoverFrames;
+    }
+
+    public long getFrames() { return frames; }
+    public long getLaggingFrames() { return laggingFrames; }
+    public int getLevel() { return level; }
+    public int getLastSubsteps() { return lastSubsteps; }
+    // Текущее отставание от реального времени (с)
+    public double getLagSeconds() { return lagSeconds; }
+    public double getMaxLagSeconds() { return maxObservedLag; }
+    // Время симуляции, отброшенное из-за превышения допустимого отставания (с)
+    public double getDroppedSimulationTime() { return droppedSimulationTime; }
+
+    long framePeriodNanos() { return framePeriodNanos; }
+
+    // Один кадр; вызывается планировщиком с периодом framePeriodNanos
+    void frame() {
+        long start = System.nanoTime();
+        if (frames == 0) {
+            firstFrameNanos = start;
+            lastFrameNanos = start;
+        }
+        // Команды до расчёта долга: новый фактор ускорения действует уже в этом кадре,
+        // и команды выполняются, даже если при нулевом ускорении шагов нет
+        simulation.applyCommands();
+        double factor = simulation.getAccelerationFactor();
+        double timeStep = simulation.getTimeStep();
+        debt += (start - lastFrameNanos) * 1e-9 * factor;
+        lastFrameNanos = start;
+
+        long deadline = start + (long) (framePeriodNanos * frameBudget);
+        int substeps = 0;
+        while (debt >= timeStep && simulation.isRunning()) {
+            simulation.advance();
+            debt -= timeStep;
+            substeps++;
+            if (System.nanoTime() >= deadline) break;
+        }
+
+        double lag = factor > 0 ? debt / factor : 0;
+        if (lag > maxLagSeconds) {
+            droppedSimulationTime += debt - maxLagSeconds * factor;
+            debt = maxLagSeconds * factor;
+            lag = maxLagSeconds;
+        }
+        lagSeconds = lag;
+        maxObservedLag = Math.max(maxObservedLag, lag);
+        lastSubsteps = substeps;
+
+        boolean behind = debt >= timeStep;
+        if (behind) {
+            laggingFrames++;
+        }
+        adjustLevel(behind);
+
+        SimulationMetrics metrics = simulation.getMetrics();
+        if (metrics != null) {
+            long expected = firstFrameNanos + frames * framePeriodNanos;
+            metrics.recordTick(start - expected, System.nanoTime() - start, framePeriodNanos);
+        }
+        frames++;
+    }
+
+    private void adjustLevel(boolean behind) {
+        if (behind) {
+            aheadStreak = 0;
+            if (++behindStreak >= degradeFrames && level < COARSE_SOLVER) {
+                behindStreak = 0;
+                setLevel(level + 1);
+            }
+        } else {
+            behindStreak = 0;
+            if (++aheadStreak >= recoverFrames && level > NORMAL) {
+                aheadStreak = 0;
+                setLevel(level - 1);
+            }
+        }
+    }
+
+    private void setLevel(int next) {
+        if (next == COARSE_SOLVER && !canCoarsen()) {
+            return;
+        }
+        // Настройки запоминаются в момент ухода со ступени, а не при запуске:
+        // команды наблюдателя могли сменить их, пока драйвер работал в штатном режиме
+        if (level == NORMAL) {
+            normalPublishInterval = simulation.getPublishInterval();
+        }
+        if (next >= REDUCED_OUTPUT) {
+            simulation.setPublishInterval(normalPublishInterval * OUTPUT_DIVISOR);
+        } else {
+            simulation.setPublishInterval(normalPublishInterval);
+        }
+        if (next == COARSE_SOLVER) {
+            normalSolver = simulation.getForceSolver();
+            coarseSolver = new BarnesHutSolver(COARSE_THETA);
+            simulation.setForceSolver(coarseSolver);
+        } else if (level == COARSE_SOLVER) {
+            // Решатель, выбранный командой уже на грубой ступени, не подменяем
+            if (simulation.getForceSolver() == coarseSolver) {
+                simulation.setForceSolver(normalSolver);
+            }
+            coarseSolver = null;
+            normalSolver = null;
+        }
+        System.out.printf(Locale.US, "[реальное время] ступень %d → %d, отставание %.2f с, шагов за кадр %d%n",
+                level, next, lagSeconds, lastSubsteps);
+        level = next;
+    }
+
+    // Барнс–Хат подставляется только вместо прямого суммирования на больших системах
+    private boolean canCoarsen() {
+        return simulation.getForceSolver() instanceof DirectForceSolver
+                && simulation.getBodies().size() >= COARSE_SOLVER_MIN_BODIES;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+// Итог пакетного прогона Simulation.run / runUntil
+public class RunResult {
+    private final long steps;            // выполнено шагов
+    private final double startTime;      // время симуляции в начале прогона (с)
+    private final double endTime;        // время симуляции в конце прогона (с)
+    private final long elapsedNanos;     // затраченное реальное время (нс)
+    private final long collisionSteps;   // шагов, на которых были столкновения
+    private final long samples;          // сделано выборок
+
+    public RunResult(long steps, double startTime, double endTime, long elapsedNanos,
+                     long collisionSteps, long samples) {
+        this.steps = steps;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.elapsedNanos = elapsedNanos;
+        this.collisionSteps = collisionSteps;
+        this.samples = samples;
+    }
+
+    public long getSteps() { return steps; }
+    public double getStartTime() { return startTime; }
+    public double getEndTime() { return endTime; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public long getCollisionSteps() { return collisionSteps; }
+    public long getSamples() { return samples; }
+
+    // Пропускная способность: шагов в секунду реального времени
+    public double getStepsPerSecond() {
+        return elapsedNanos == 0 ? 0 : steps * 1e9 / elapsedNanos;
+    }
+
+    // Средняя стоимость шага в наносекундах
+    public double getNanosPerStep() {
+        return steps == 0 ? 0 : (double) elapsedNanos / steps;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Шагов: %d, время симуляции: %.3e → %.3e с, затрачено: %.3f с (%.1f шагов/с), " +
+                        "шагов со столкновениями: %d, выборок: %d",
+                steps, startTime, endTime, elapsedNanos / 1e9, getStepsPerSecond(), collisionSteps, samples);
+    }
+}
@@ -0,0 +1,8 @@
+package org.example;
+
+// Получатель выборок состояния в пакетном режиме.
+// Вызывается в потоке интегратора между шагами, поэтому должен работать быстро.
+@FunctionalInterface
+public interface SampleListener {
+    void onSample(Simulation simulation, long step);
+}
@@ -0,0 +1,206 @@
+package org.example;
+
+import java.util.Random;
+
+// Процедурные сценарии с воспроизводимым зерном генератора.
+// Тела создаются сразу в BodyStore и классифицируются по массе (CelestialBody.classify).
+public final class ScenarioGenerator {
+    private static final double AU = 1.496e11;         // м
+    private static final double SOLAR_MASS = 1.989e30; // кг
+    private static final double SOLAR_RADIUS = 6.96e8; // м
+    private static final double PARSEC = 3.086e16;     // м
+
+    private ScenarioGenerator() {
+    }
+
+    // Сценарий по описанию вида "disk:10000", "cluster:5000", "belt:20000"
+    public static BodyStore generate(String spec, long seed) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Ожидается описание вида тип:число, получено: " + spec);
+        }
+        String kind = spec.substring(0, colon);
+        int n = Integer.parseInt(spec.substring(colon + 1));
+        return switch (kind) {
+            case "disk" -> disk(n, seed);
+            case "cluster" -> cluster(n, seed);
+            case "belt" -> belt(n, seed);
+            default -> throw new IllegalArgumentException("Неизвестный тип сценария: " + kind);
+        };
+    }
+
+    // Звезда и равномерный по площади тонкий диск тел на круговых орбитах (0.2–5 а.е.),
+    // наклонения распределены нормально с σ = 1°
+    public static BodyStore disk(int n, long seed) {
+        Random random = new Random(seed);
+        BodyStore store = new BodyStore(n);
+        addBody(store, "Звезда", SOLAR_MASS, SOLAR_RADIUS, 0, 0, 0, 0, 0, 0);
+        for (int i = 1; i < n; i++) {
+            double r = 5 * AU * Math.sqrt(0.04 + 0.96 * random.nextDouble());
+            double mass = 1e20 * (1 + 999 * random.nextDouble());
+            double inclination = Math.toRadians(1) * random.nextGaussian();
+            addKeplerian(store, "Тело " + i, mass, 1e5, SOLAR_MASS, r, 0, inclination,
+                    2 * Math.PI * random.nextDouble(), 0, 2 * Math.PI * random.nextDouble());
+        }
+        return store;
+    }
+
+    // Звёздное скопление: сфера Пламмера (10⁴ M☉, a = 1 пк) с изотропными скоростями
+    public static BodyStore cluster(int n, long seed) {
+        Random random = new Random(seed);
+        double totalMass = 1e4 * SOLAR_MASS;
+        double velocityScale = Math.sqrt(CelestialBody.G * totalMass / PARSEC);
+        BodyStore store = new BodyStore(n);
+        for (int i = 0; i < n; i++) {
+            // Радиус по обратной функции распределения массы (в единицах a)
+            double r = 1.0 / Math.sqrt(Math.pow(random.nextDouble() * 0.999 + 1e-9, -2.0 / 3.0) - 1);
+            double[] position = isotropic(random, r * PARSEC);
+
+            // Отбор скорости по распределению g(q) = q²(1 - q²)^3.5 (метод Аарсета)
+            double q;
+            do {
+                q = random.nextDouble();
+            } while (0.1 * random.nextDouble() > q * q * Math.pow(1 - q * q, 3.5));
+            double speed = q * Math.sqrt(2) * Math.pow(1 + r * r, -0.25) * velocityScale;
+            double[] velocity = isotropic(random, speed);
+
+            addBody(store, "Звезда " + (i + 1), totalMass / n, SOLAR_RADIUS,
+                    position[0], position[1], position[2], velocity[0], velocity[1], velocity[2]);
+        }
+        return store;
+    }
+
+    // Звезда и случайный пояс астероидов между 2.2 и 3.2 а.е.
+    public static BodyStore belt(int n, long seed) {
+        BodyStore store = new BodyStore(n);
+        addBody(store, "Звезда", SOLAR_MASS, SOLAR_RADIUS, 0, 0, 0, 0, 0, 0);
+        addBelt(store, n - 1, 2.2 * AU, 3.2 * AU, SOLAR_MASS, seed);
+        return store;
+    }
+
+    // Вариант системы для ансамбля: копия base, где масса каждого тела умножена на
+    // (1 + massJitter·ξ), а модуль скорости — на (1 + velocityJitter·ξ), ξ ~ N(0, 1).
+    // Изменение скорости на круговой орбите задаёт эксцентриситет порядка velocityJitter.
+    public static BodyStore perturbed(BodyStore base, double massJitter, double velocityJitter, long seed) {
+        Random random = new Random(seed);
+        int n = base.size();
+        BodyStore store = new BodyStore(n);
+        for (int i = 0; i < n; i++) {
+            CelestialBody source = base.body(i);
+            double mass = base.mass[i] * Math.max(1e-3, 1 + massJitter * random.nextGaussian());
+            double speedScale = 1 + velocityJitter * random.nextGaussian();
+            new CelestialBody(store, source.getName(), mass, base.radius[i],
+                    base.posX[i], base.posY[i], base.posZ[i],
+                    base.velX[i] * speedScale, base.velY[i] * speedScale, base.velZ[i] * speedScale,
+                    CelestialBody.classify(mass),
+                    source.getMajorSemiAxis(), source.getEccentricity(), source.getOrbitalInclination(),
+                    source.getPeriodOfRevolution(), source.getRotationPeriod());
+        }
+        return store;
+    }
+
+    // Добавление count астероидов на почти круговых орбитах вокруг центральной массы centralMass:
+    // эксцентриситеты до 0.1, наклонения распределены нормально с σ = 5°
+    public static void addBelt(BodyStore store, int count, double innerRadius, double outerRadius,
+                               double centralMass, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            double a = innerRadius + (outerRadius - innerRadius) * random.nextDouble();
+            double mass = 1e15 * (1 + 999 * random.nextDouble());
+            double eccentricity = 0.1 * random.nextDouble();
+            double inclination = Math.toRadians(5) * random.nextGaussian();
+            addKeplerian(store, "Астероид " + (i + 1), mass, 1e4, centralMass, a, eccentricity, inclination,
+                    2 * Math.PI * random.nextDouble(), 2 * Math.PI * random.nextDouble(),
+                    2 * Math.PI * random.nextDouble());
+        }
+    }
+
+    // Тело на круговой орбите радиуса r в плоскости xy вокруг центральной массы в начале координат
+    public static void addCircular(BodyStore store, String name, double mass, double radius,
+                                   double centralMass, double r, double phase) {
+        addKeplerian(store, name, mass, radius, centralMass, r, 0, 0, 0, 0, 2 * Math.PI * phase);
+    }
+
+    // Тело на орбите с заданными кеплеровыми элементами вокруг покоящейся центральной массы
+    // в начале координат. Углы — в радианах: наклонение к плоскости xy, долгота восходящего узла,
+    // аргумент перицентра и средняя аномалия. Элементы сохраняются в теле (наклонение — в градусах).
+    public static CelestialBody addKeplerian(BodyStore store, String name, double mass, double radius,
+                                             double centralMass, double semiMajorAxis, double eccentricity,
+                                             double inclination, double ascendingNode, double argumentOfPeriapsis,
+                                             double meanAnomaly) {
+        double mu = CelestialBody.G * (centralMass + mass);
+        double[] state = keplerianState(mu, semiMajorAxis, eccentricity, inclination,
+                ascendingNode, argumentOfPeriapsis, meanAnomaly);
+        double period = 2 * Math.PI * Math.sqrt(semiMajorAxis * semiMajorAxis * semiMajorAxis / mu);
+        return new CelestialBody(store, name, mass, radius, state[0], state[1], state[2],
+                state[3], state[4], state[5], CelestialBody.classify(mass),
+                semiMajorAxis, eccentricity, Math.toDegrees(inclination), period, 0);
+    }
+
+    // Положение и скорость {x, y, z, vx, vy, vz} относительно центрального тела для эллиптической
+    // орбиты (0 ≤ e < 1) с гравитационным параметром mu = G(M + m)
+    public static double[] keplerianState(double mu, double semiMajorAxis, double eccentricity,
+                                          double inclination, double ascendingNode,
+                                          double argumentOfPeriapsis, double meanAnomaly) {
+        if (semiMajorAxis <= 0) {
+            throw new IllegalArgumentException("Большая полуось должна быть положительной: " + semiMajorAxis);
+        }
+        if (eccentricity < 0 || eccentricity >= 1) {
+            throw new IllegalArgumentException("Эксцентриситет должен быть в диапазоне [0, 1): " + eccentricity);
+        }
+        double e = eccentricity;
+        double anomaly = eccentricAnomaly(meanAnomaly, e);
+        double cosE = Math.cos(anomaly);
+        double sinE = Math.sin(anomaly);
+        double b = Math.sqrt(1 - e * e);
+
+        // Перифокальная система: ось x — на перицентр, ось y — по направлению движения
+        double px = semiMajorAxis * (cosE - e);
+        double py = semiMajorAxis * b * sinE;
+        double r = semiMajorAxis * (1 - e * cosE);
+        double scale = Math.sqrt(mu * semiMajorAxis) / r;
+        double vx = -scale * sinE;
+        double vy = scale * b * cosE;
+
+        // Поворот R_z(Ω) · R_x(i) · R_z(ω) в систему симуляции
+        double cosO = Math.cos(ascendingNode), sinO = Math.sin(ascendingNode);
+        double cosI = Math.cos(inclination), sinI = Math.sin(inclination);
+        double cosW = Math.cos(argumentOfPeriapsis), sinW = Math.sin(argumentOfPeriapsis);
+        double xx = cosO * cosW - sinO * sinW * cosI;
+        double xy = -cosO * sinW - sinO * cosW * cosI;
+        double yx = sinO * cosW + cosO * sinW * cosI;
+        double yy = -sinO * sinW + cosO * cosW * cosI;
+        double zx = sinW * sinI;
+        double zy = cosW * sinI;
+        return new double[]{
+                xx * px + xy * py, yx * px + yy * py, zx * px + zy * py,
+                xx * vx + xy * vy, yx * vx + yy * vy, zx * vx + zy * vy
+        };
+    }
+
+    // Решение уравнения Кеплера E − e·sin E = M методом Ньютона
+    static double eccentricAnomaly(double meanAnomaly, double e) {
+        double m = Math.IEEEremainder(meanAnomaly, 2 * Math.PI);
+        double anomaly = e < 0.8 ? m : Math.PI * Math.signum(m == 0 ? 1 : m);
+        for (int k = 0; k < 50; k++) {
+            double delta = (anomaly - e * Math.sin(anomaly) - m) / (1 - e * Math.cos(anomaly));
+            anomaly -= delta;
+            if (Math.abs(delta) < 1e-15) break;
+        }
+        return anomaly;
+    }
+
+    // Случайный вектор длины length с равномерно распределённым по сфере направлением
+    private static double[] isotropic(Random random, double length) {
+        double cosTheta = 2 * random.nextDouble() - 1;
+        double sinTheta = Math.sqrt(1 - cosTheta * cosTheta);
+        double phi = 2 * Math.PI * random.nextDouble();
+        return new double[]{length * sinTheta * Math.cos(phi), length * sinTheta * Math.sin(phi), length * cosTheta};
+    }
+
+    private static void addBody(BodyStore store, String name, double mass, double radius,
+                                double posX, double posY, double posZ, double velX, double velY, double velZ) {
+        new CelestialBody(store, name, mass, radius, posX, posY, posZ, velX, velY, velZ,
+                CelestialBody.classify(mass), 0, 0, 0, 0, 0);
+    }
+}
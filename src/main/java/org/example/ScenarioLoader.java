@@ -0,0 +1,168 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Загрузка сценариев из файлов без интерактивного ввода.
+// Тела записываются прямо в BodyStore, минуя промежуточные списки.
+//
+// CSV: первая строка — заголовок, строки с '#' — комментарии. Столбцы по порядку:
+//   name,mass,radius,posX,posY,posZ,velX,velY,velZ[,majorSemiAxis,eccentricity,orbitalInclination,
+//   periodOfRevolution,rotationPeriod[,classification]]
+// Если в заголовке нет столбца posZ, файл читается в плоской раскладке прежних версий
+// (name,mass,radius,posX,posY,velX,velY,...) с z = 0.
+// Пустые числовые поля считаются нулями. Если классификация не указана, она определяется
+// по массе (CelestialBody.classify).
+//
+// Двоичный формат (DataOutputStream): "ASTRSCN1", int версия, int число тел, затем для каждого тела
+// имя (UTF) и 13 значений double в том же порядке, что и в CSV; классификация вычисляется по массе.
+// Версия 1 содержала 11 значений в плоской раскладке и по-прежнему читается.
+public final class ScenarioLoader {
+    private static final byte[] MAGIC = {'A', 'S', 'T', 'R', 'S', 'C', 'N', '1'};
+    private static final int VERSION = 2;
+    private static final int VERSION_PLANAR = 1;
+    private static final int NUMERIC_COLUMNS = 13;
+
+    // Номера значений для числовых столбцов файла: полная раскладка и плоская (без posZ и velZ)
+    private static final int[] SPATIAL_LAYOUT = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+    private static final int[] PLANAR_LAYOUT = {0, 1, 2, 3, 5, 6, 8, 9, 10, 11, 12};
+
+    private ScenarioLoader() {
+    }
+
+    // Выбор формата по расширению: .csv — текст, иначе двоичный
+    public static BodyStore load(Path path) throws IOException {
+        String fileName = path.getFileName().toString().toLowerCase();
+        return fileName.endsWith(".csv") ? loadCsv(path) : loadBinary(path);
+    }
+
+    public static BodyStore loadCsv(Path path) throws IOException {
+        BodyStore store = new BodyStore(1024);
+        double[] values = new double[NUMERIC_COLUMNS];
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // заголовок
+            int[] layout = line != null && hasColumn(line, "posZ") ? SPATIAL_LAYOUT : PLANAR_LAYOUT;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) continue;
+                try {
+                    addCsvBody(store, line, values, layout);
+                } catch (RuntimeException e) {
+                    throw new IOException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return store;
+    }
+
+    private static boolean hasColumn(String header, String column) {
+        for (String name : header.split(",")) {
+            if (name.trim().equalsIgnoreCase(column)) return true;
+        }
+        return false;
+    }
+
+    // Разбор одной строки без split и регулярных выражений; layout[k] — номер значения
+    // для k-го числового столбца файла
+    private static void addCsvBody(BodyStore store, String line, double[] values, int[] layout) {
+        int required = layout.length - 4; // имя, масса, радиус, позиция и скорость
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("ожидается не менее " + required + " столбцов");
+        }
+        String name = line.substring(0, comma).trim();
+        Arrays.fill(values, 0);
+        int column = 0;
+        int start = comma + 1;
+        String classification = null;
+        while (start <= line.length()) {
+            int end = line.indexOf(',', start);
+            if (end < 0) end = line.length();
+            if (column < layout.length) {
+                String field = line.substring(start, end).trim();
+                values[layout[column++]] = field.isEmpty() ? 0 : Double.parseDouble(field);
+            } else {
+                classification = line.substring(start, end).trim();
+                break;
+            }
+            start = end + 1;
+        }
+        if (column < required - 1) {
+            throw new IllegalArgumentException("ожидается не менее " + required + " столбцов, найдено " + (column + 1));
+        }
+        if (classification == null || classification.isEmpty()) {
+            classification = CelestialBody.classify(values[0]);
+        }
+        addBody(store, name, classification, values);
+    }
+
+    public static BodyStore loadBinary(Path path) throws IOException {
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, 1 << 16))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Файл не является сценарием: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION && version != VERSION_PLANAR) {
+                throw new IOException("Неподдерживаемая версия сценария: " + version);
+            }
+            int[] layout = version == VERSION ? SPATIAL_LAYOUT : PLANAR_LAYOUT;
+            int n = in.readInt();
+            BodyStore store = new BodyStore(n);
+            double[] values = new double[NUMERIC_COLUMNS];
+            for (int i = 0; i < n; i++) {
+                String name = in.readUTF();
+                for (int k = 0; k < layout.length; k++) {
+                    values[layout[k]] = in.readDouble();
+                }
+                addBody(store, name, CelestialBody.classify(values[0]), values);
+            }
+            return store;
+        }
+    }
+
+    // Сохранение тел хранилища в двоичный сценарий
+    public static void writeBinary(BodyStore store, Path path) throws IOException {
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(store.size());
+            for (int i = 0; i < store.size(); i++) {
+                CelestialBody body = store.body(i);
+                out.writeUTF(body.getName());
+                out.writeDouble(body.getMass());
+                out.writeDouble(body.getRadius());
+                out.writeDouble(body.getPosX());
+                out.writeDouble(body.getPosY());
+                out.writeDouble(body.getPosZ());
+                out.writeDouble(body.getVelX());
+                out.writeDouble(body.getVelY());
+                out.writeDouble(body.getVelZ());
+                out.writeDouble(body.getMajorSemiAxis());
+                out.writeDouble(body.getEccentricity());
+                out.writeDouble(body.getOrbitalInclination());
+                out.writeDouble(body.getPeriodOfRevolution());
+                out.writeDouble(body.getRotationPeriod());
+            }
+        }
+    }
+
+    private static void addBody(BodyStore store, String name, String classification, double[] v) {
+        new CelestialBody(store, name, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], classification,
+                v[8], v[9], v[10], v[11], v[12]);
+    }
+}
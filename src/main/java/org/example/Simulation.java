@@ -1,309 +1,524 @@
 package org.example;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
 public class Simulation {
     private List<CelestialBody> bodies;
+    private final BodyStore store;
     private double timeStep; // секунд
-    private boolean running;
-    private ExecutorService executor;
+    private volatile boolean running;
+    private double simulationTime; // текущее время симуляции (с)
+    private long stepCount; // выполнено шагов с начала симуляции
+    private ForkJoinPool executor;
+    private final boolean ownsExecutor; // false — общий пул (например, EnsembleRunner), не останавливаем
     private double accelerationFactor; // фактор ускорения симуляции
+    private ForceSolver forceSolver; // метод расчёта гравитационных сил
+    private ForceSolver stepSolver;  // то же, с замером времени при включённых метриках
+
+    private Integrator integrator = new RK4Integrator(); // метод интегрирования
+    private final CollisionDetector collisionDetector = new CollisionDetector();
+    private final CollisionPairs collisions = new CollisionPairs();
+    private final CollisionResolver collisionResolver = new CollisionResolver();
+    private CollisionMode collisionMode = CollisionMode.REPORT;
+    private double restitution = 1.0; // коэффициент восстановления для отскока
+    private int lastCollisionCount;   // пар, найденных на последнем шаге (до разрешения)
+
+    // Асинхронная раздача снимков состояния приёмникам (консоль, файл и т.п.)
+    private final SnapshotPublisher publisher = new SnapshotPublisher();
+    private long publishInterval = 1; // публиковать каждый publishInterval-й шаг
+    private Checkpointer checkpointer; // периодические контрольные точки (null — отключены)
+    private DiagnosticsMonitor diagnostics; // контроль законов сохранения (null — отключён)
+    private TidalAnalysis tidalAnalysis; // приливы и релятивистский сдвиг перицентра (null — отключён)
+    private BodyOrdering ordering;       // кривая упорядочивания тел (null — порядок не меняется)
+    private long reorderInterval;
+    private long lastReorderStep;
+    private long reorderCount;
+    private long[] orderKeys = new long[0];
+    private volatile SimulationMetrics metrics; // метрики цикла (null — отключены, замеров нет)
+    private RealTimeDriver realTimeDriver; // ведение в реальном времени (создаётся по запросу)
+    // Изменения из других потоков (например, ObserverServer): выполняются в потоке интегратора между шагами
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
 
     public Simulation(List<CelestialBody> bodies, double timeStep, double accelerationFactor) {
+        // Переносим состояние всех тел в общее хранилище структуры массивов
+        this(new ArrayList<>(bodies), attachAll(bodies), timeStep, accelerationFactor, null);
+    }
+
+    // Симуляция над уже заполненным хранилищем (например, из ScenarioLoader)
+    public Simulation(BodyStore store, double timeStep, double accelerationFactor) {
+        this(viewsOf(store), store, timeStep, accelerationFactor, null);
+    }
+
+    // Симуляция, использующая общий пул потоков pool: он не создаётся и не останавливается
+    // этой симуляцией, поэтому много симуляций могут работать без переподписки ядер
+    public Simulation(BodyStore store, double timeStep, double accelerationFactor, ForkJoinPool pool) {
+        this(viewsOf(store), store, timeStep, accelerationFactor, pool);
+    }
+
+    private Simulation(List<CelestialBody> bodies, BodyStore store, double timeStep, double accelerationFactor,
+                       ForkJoinPool pool) {
         this.bodies = bodies;
+        this.store = store;
         this.timeStep = timeStep;
         this.accelerationFactor = accelerationFactor;
         this.running = false;
-        // Создаём пул потоков с числом потоков равным количеству доступных процессоров
-        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        // Без общего пула создаём fork-join пул с числом потоков равным количеству доступных процессоров
+        this.ownsExecutor = pool == null;
+        this.executor = pool != null ? pool : new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        // По умолчанию — точное прямое суммирование
+        this.forceSolver = new DirectForceSolver(executor);
+        this.stepSolver = forceSolver;
+    }
+
+    private static BodyStore attachAll(List<CelestialBody> bodies) {
+        BodyStore store = new BodyStore(bodies.size());
+        for (CelestialBody body : bodies) {
+            body.attach(store);
+        }
+        return store;
+    }
+
+    private static List<CelestialBody> viewsOf(BodyStore store) {
+        List<CelestialBody> bodies = new ArrayList<>(store.size());
+        for (int i = 0; i < store.size(); i++) {
+            bodies.add(store.body(i));
+        }
+        return bodies;
+    }
+
+    public ForceSolver getForceSolver() { return forceSolver; }
+
+    // Выбор метода расчёта сил (например, BarnesHutSolver для больших систем)
+    public void setForceSolver(ForceSolver forceSolver) {
+        this.forceSolver = forceSolver;
+        this.stepSolver = metrics != null ? new TimedForceSolver(forceSolver, metrics.forceHistogram()) : forceSolver;
+        integrator.reset();
+    }
+
+    public Integrator getIntegrator() { return integrator; }
+
+    // Выбор метода интегрирования (RK4Integrator, LeapfrogIntegrator, YoshidaIntegrator)
+    public void setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
     }
 
     // Метод для запуска симуляции в отдельном потоке
     public void startSimulation() {
         running = true;
-        // Используем ScheduledExecutorService для периодического выполнения шагов симуляции
+        // Используем ScheduledExecutorService для кадров постоянной частоты; число шагов
+        // в кадре определяет RealTimeDriver по ускорению и прошедшему реальному времени
         ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-        // Рассчитываем период выполнения задач с учётом ускорения
-        long period = (long) (timeStep / accelerationFactor * 1000); // миллисекунды
-
+        RealTimeDriver driver = getRealTimeDriver();
         scheduler.scheduleAtFixedRate(() -> {
             if (running) {
-                stepRK4();
-                printStates();
+                driver.frame();
             }
-        }, 0, period, TimeUnit.MILLISECONDS);
+        }, 0, driver.framePeriodNanos(), TimeUnit.NANOSECONDS);
 
         // Добавляем обработчик завершения симуляции
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             running = false;
             scheduler.shutdown();
-            executor.shutdown();
+            publisher.close();
+            if (checkpointer != null) {
+                checkpointer.close();
+            }
+            if (metrics != null) {
+                metrics.close();
+            }
+            if (ownsExecutor) {
+                executor.shutdown();
+            }
             try {
                 if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
                     scheduler.shutdownNow();
                 }
-                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                if (ownsExecutor && !executor.awaitTermination(5, TimeUnit.SECONDS)) {
                     executor.shutdownNow();
                 }
             } catch (InterruptedException e) {
                 scheduler.shutdownNow();
-                executor.shutdownNow();
+                if (ownsExecutor) {
+                    executor.shutdownNow();
+                }
             }
             System.out.println("\nСимуляция завершена.");
         }));
     }
 
-    // Один шаг симуляции с использованием метода Рунге-Кутты 4-го порядка
-    private void stepRK4() {
-        int n = bodies.size();
-        // Создание копий текущих состояний
-        double[] k1_vx = new double[n];
-        double[] k1_vy = new double[n];
-        double[] k1_ax = new double[n];
-        double[] k1_ay = new double[n];
-        double[] k2_vx = new double[n];
-        double[] k2_vy = new double[n];
-        double[] k2_ax = new double[n];
-        double[] k2_ay = new double[n];
-        double[] k3_vx = new double[n];
-        double[] k3_vy = new double[n];
-        double[] k3_ax = new double[n];
-        double[] k3_ay = new double[n];
-        double[] k4_vx = new double[n];
-        double[] k4_vy = new double[n];
-        double[] k4_ax = new double[n];
-        double[] k4_ay = new double[n];
-
-        // Шаг 1: k1
-        computeAccelerations();
-        for (int i = 0; i < n; i++) {
-            k1_vx[i] = bodies.get(i).getAccX() * timeStep;
-            k1_vy[i] = bodies.get(i).getAccY() * timeStep;
-            k1_ax[i] = bodies.get(i).getAccX();
-            k1_ay[i] = bodies.get(i).getAccY();
+    // Пакетный режим: выполнить steps шагов в вызывающем потоке без планировщика и вывода.
+    public RunResult run(long steps) {
+        return run(steps, 0, null);
+    }
+
+    // То же, с вызовом listener каждые sampleInterval шагов (0 — без выборок)
+    public RunResult run(long steps, long sampleInterval, SampleListener listener) {
+        return runLoop(steps, Double.POSITIVE_INFINITY, sampleInterval, listener);
+    }
+
+    // Пакетный режим: интегрировать, пока время симуляции не достигнет endTime.
+    // Шаг не подрезается, поэтому итоговое время может превысить endTime не более чем на timeStep.
+    public RunResult runUntil(double endTime) {
+        return runUntil(endTime, 0, null);
+    }
+
+    public RunResult runUntil(double endTime, long sampleInterval, SampleListener listener) {
+        return runLoop(Long.MAX_VALUE, endTime, sampleInterval, listener);
+    }
+
+    private RunResult runLoop(long maxSteps, double endTime, long sampleInterval, SampleListener listener) {
+        running = true;
+        double startTime = simulationTime;
+        long done = 0;
+        long collisionSteps = 0;
+        long samples = 0;
+        long start = System.nanoTime();
+        // stopSimulation из другого потока прерывает прогон между шагами
+        while (running && done < maxSteps && simulationTime < endTime) {
+            advance();
+            done++;
+            if (lastCollisionCount > 0) {
+                collisionSteps++;
+            }
+            if (listener != null && sampleInterval > 0 && done % sampleInterval == 0) {
+                listener.onSample(this, stepCount);
+                samples++;
+            }
         }
+        long elapsed = System.nanoTime() - start;
+        running = false;
+        return new RunResult(done, startTime, simulationTime, elapsed, collisionSteps, samples);
+    }
 
-        // Шаг 2: k2
-        // Временное обновление позиций и скоростей
-        List<CelestialBody> tempBodies = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            CelestialBody original = bodies.get(i);
-            CelestialBody temp = new CelestialBody(
-                    original.getName(),
-                    original.getMass(),
-                    original.getRadius(),
-                    original.getPosX() + 0.5 * k1_vx[i],
-                    original.getPosY() + 0.5 * k1_vy[i],
-                    original.getVelX() + 0.5 * k1_ax[i] * timeStep,
-                    original.getVelY() + 0.5 * k1_ay[i] * timeStep,
-                    original.getClassification(),
-                    original.getMajorSemiAxis(),
-                    original.getEccentricity(),
-                    original.getOrbitalInclination(),
-                    original.getPeriodOfRevolution(),
-                    original.getRotationPeriod()
-            );
-            tempBodies.add(temp);
+    // Подключение приёмника снимков; состояние копируется в его кольцо,
+    // а вывод выполняется в отдельном потоке и не задерживает интегратор
+    public void addSink(SnapshotSink sink, int ringCapacity, BackpressurePolicy policy) {
+        publisher.addSink(sink, ringCapacity, policy);
+    }
+
+    public SnapshotPublisher getPublisher() { return publisher; }
+
+    public long getPublishInterval() { return publishInterval; }
+
+    public void setPublishInterval(long publishInterval) {
+        if (publishInterval < 1) {
+            throw new IllegalArgumentException("Интервал публикации должен быть положительным: " + publishInterval);
         }
-        computeAccelerationsRK4(tempBodies);
-        for (int i = 0; i < n; i++) {
-            k2_vx[i] = tempBodies.get(i).getAccX() * timeStep;
-            k2_vy[i] = tempBodies.get(i).getAccY() * timeStep;
-            k2_ax[i] = tempBodies.get(i).getAccX();
-            k2_ay[i] = tempBodies.get(i).getAccY();
+        this.publishInterval = publishInterval;
+    }
+
+    // Команда из другого потока: выполняется в потоке интегратора перед ближайшим шагом
+    // (или в начале ближайшего кадра реального времени, даже если шагов в нём нет).
+    // Результат или исключение команды передаются в возвращаемый CompletableFuture.
+    // Команда, чей future уже отменён (например, отправитель перестал ждать), не выполняется.
+    public <T> CompletableFuture<T> submit(Function<Simulation, T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        commands.add(() -> {
+            if (result.isDone()) return;
+            try {
+                result.complete(command.apply(this));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    // Выполнение накопившихся команд; вызывается только потоком интегратора
+    void applyCommands() {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
         }
+    }
 
-        // Шаг 3: k3
-        tempBodies = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            CelestialBody original = bodies.get(i);
-            CelestialBody temp = new CelestialBody(
-                    original.getName(),
-                    original.getMass(),
-                    original.getRadius(),
-                    original.getPosX() + 0.5 * k2_vx[i],
-                    original.getPosY() + 0.5 * k2_vy[i],
-                    original.getVelX() + 0.5 * k2_ax[i] * timeStep,
-                    original.getVelY() + 0.5 * k2_ay[i] * timeStep,
-                    original.getClassification(),
-                    original.getMajorSemiAxis(),
-                    original.getEccentricity(),
-                    original.getOrbitalInclination(),
-                    original.getPeriodOfRevolution(),
-                    original.getRotationPeriod()
-            );
-            tempBodies.add(temp);
+    // Включение контрольных точек: каждые interval шагов состояние атомарно записывается в path
+    public void enableCheckpoints(Path path, long interval) {
+        if (checkpointer != null) {
+            checkpointer.close();
         }
-        computeAccelerationsRK4(tempBodies);
-        for (int i = 0; i < n; i++) {
-            k3_vx[i] = tempBodies.get(i).getAccX() * timeStep;
-            k3_vy[i] = tempBodies.get(i).getAccY() * timeStep;
-            k3_ax[i] = tempBodies.get(i).getAccX();
-            k3_ay[i] = tempBodies.get(i).getAccY();
+        checkpointer = new Checkpointer(path, interval);
+    }
+
+    // Включение диагностики: базовое состояние измеряется сразу,
+    // затем энергия, импульс и момент импульса пересчитываются каждые interval шагов
+    public DiagnosticsMonitor enableDiagnostics(long interval) {
+        diagnostics = new DiagnosticsMonitor(executor, interval);
+        diagnostics.measure(store, forceSolver, stepCount, simulationTime);
+        return diagnostics;
+    }
+
+    public DiagnosticsMonitor getDiagnostics() { return diagnostics; }
+
+    // Включение анализа приливов: пары «спутник — хозяин» и их приливные и релятивистские
+    // величины пересчитываются каждые interval шагов
+    public TidalAnalysis enableTidalAnalysis(long interval) {
+        tidalAnalysis = new TidalAnalysis(executor, interval);
+        tidalAnalysis.analyze(store, stepCount, simulationTime);
+        return tidalAnalysis;
+    }
+
+    public TidalAnalysis getTidalAnalysis() { return tidalAnalysis; }
+
+    // Упорядочивание тел в хранилище вдоль кривой каждые interval шагов: соседние в пространстве
+    // тела становятся соседними в памяти, и обход дерева, поиск столкновений и ближние
+    // взаимодействия читают массивы почти последовательно. Индексы тел при этом меняются —
+    // для ссылок на тело между шагами служат CelestialBody и постоянный номер (BodyStore.id)
+    public void enableReordering(BodyOrdering ordering, long interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Интервал упорядочивания должен быть положительным: " + interval);
         }
+        this.ordering = ordering;
+        this.reorderInterval = interval;
+        reorder();
+    }
+
+    public void disableReordering() {
+        this.ordering = null;
+    }
+
+    // Сколько раз тела переупорядочивались
+    public long getReorderCount() { return reorderCount; }
+    public BodyOrdering getOrdering() { return ordering; }
+    public long getReorderInterval() { return reorderInterval; }
+    long getLastReorderStep() { return lastReorderStep; }
+
+    // Упорядочивание из контрольной точки: тела уже в сохранённом порядке, поэтому без перестановки;
+    // следующая перестановка произойдёт на том же шаге, что и в непрерывном прогоне
+    void restoreReordering(BodyOrdering ordering, long interval, long lastReorderStep) {
+        this.ordering = ordering;
+        this.reorderInterval = interval;
+        this.lastReorderStep = lastReorderStep;
+    }
 
-        // Шаг 4: k4
-        tempBodies = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            CelestialBody original = bodies.get(i);
-            CelestialBody temp = new CelestialBody(
-                    original.getName(),
-                    original.getMass(),
-                    original.getRadius(),
-                    original.getPosX() + k3_vx[i],
-                    original.getPosY() + k3_vy[i],
-                    original.getVelX() + k3_ax[i] * timeStep,
-                    original.getVelY() + k3_ay[i] * timeStep,
-                    original.getClassification(),
-                    original.getMajorSemiAxis(),
-                    original.getEccentricity(),
-                    original.getOrbitalInclination(),
-                    original.getPeriodOfRevolution(),
-                    original.getRotationPeriod()
-            );
-            tempBodies.add(temp);
+    // Перестановка тел по ключам кривой; всё, что хранит состояние по индексам, перенумеровывается
+    private void reorder() {
+        int n = store.size();
+        if (orderKeys.length < n) {
+            orderKeys = new long[store.capacity()];
         }
-        computeAccelerationsRK4(tempBodies);
-        for (int i = 0; i < n; i++) {
-            k4_vx[i] = tempBodies.get(i).getAccX() * timeStep;
-            k4_vy[i] = tempBodies.get(i).getAccY() * timeStep;
-            k4_ax[i] = tempBodies.get(i).getAccX();
-            k4_ay[i] = tempBodies.get(i).getAccY();
+        SpaceFillingCurve.keys(ordering, store.posX, store.posY, store.posZ, n, orderKeys);
+        int[] newIndex = store.permute(SpaceFillingCurve.sortedOrder(orderKeys, n));
+        for (int k = 0; k < n; k++) {
+            bodies.set(k, store.body(k));
         }
+        collisionDetector.compact(newIndex, n);
+        integrator.renumber(newIndex, n);
+        if (tidalAnalysis != null) {
+            tidalAnalysis.invalidate(); // кэш инвариантов хранится по индексам
+        }
+        lastReorderStep = stepCount;
+        reorderCount++;
+    }
 
-        // Обновление позиций и скоростей с использованием взвешенных коэффициентов
-        for (int i = 0; i < n; i++) {
-            CelestialBody body = bodies.get(i);
-            double newVelX = body.getVelX() + (k1_ax[i] + 2 * k2_ax[i] + 2 * k3_ax[i] + k4_ax[i]) / 6.0 * timeStep;
-            double newVelY = body.getVelY() + (k1_ay[i] + 2 * k2_ay[i] + 2 * k3_ay[i] + k4_ay[i]) / 6.0 * timeStep;
-            double newPosX = body.getPosX() + (k1_vx[i] + 2 * k2_vx[i] + 2 * k3_vx[i] + k4_vx[i]) / 6.0;
-            double newPosY = body.getPosY() + (k1_vy[i] + 2 * k2_vy[i] + 2 * k3_vy[i] + k4_vy[i]) / 6.0;
-
-            body.setVelX(newVelX);
-            body.setVelY(newVelY);
-            body.setPosX(newPosX);
-            body.setPosY(newPosY);
+    // Включение метрик цикла: гистограммы времени шага и стадий, MBean в JMX
+    // и строка журнала каждые logIntervalSeconds секунд (0 — без журнала)
+    public SimulationMetrics enableMetrics(long logIntervalSeconds) {
+        if (metrics != null) {
+            metrics.close();
+        }
+        SimulationMetrics m = new SimulationMetrics(this);
+        m.registerMBean();
+        if (logIntervalSeconds > 0) {
+            m.startLog(logIntervalSeconds);
         }
+        stepSolver = new TimedForceSolver(forceSolver, m.forceHistogram());
+        metrics = m;
+        return m;
+    }
 
-        // После обновления позиций, проверяем столкновения
-        detectCollisions();
+    public SimulationMetrics getMetrics() { return metrics; }
+
+    // Настройки и показатели режима реального времени (период кадра, допустимое отставание)
+    public RealTimeDriver getRealTimeDriver() {
+        if (realTimeDriver == null) {
+            realTimeDriver = new RealTimeDriver(this);
+        }
+        return realTimeDriver;
     }
 
-    // Метод для расчёта ускорений для текущего состояния тел
-    private void computeAccelerations() {
-        // Сброс ускорений
-        for (CelestialBody body : bodies) {
-            body.resetAcceleration();
+    // Действия между шагами: диагностика, анализ приливов, публикация снимков и контрольные точки
+    private void afterStep() {
+        if (diagnostics != null) {
+            diagnostics.onStep(store, forceSolver, stepCount, simulationTime);
+        }
+        if (tidalAnalysis != null) {
+            tidalAnalysis.onStep(store, stepCount, simulationTime);
+        }
+        if (publisher.hasSinks() && stepCount % publishInterval == 0) {
+            publisher.publish(store, stepCount, simulationTime, collisions);
         }
+        if (checkpointer != null) {
+            checkpointer.onStep(this);
+        }
+    }
 
-        // Расчёт всех гравитационных взаимодействий с использованием многопоточности
-        List<Future<?>> futures = new ArrayList<>();
-
-        for (int i = 0; i < bodies.size(); i++) {
-            CelestialBody bodyA = bodies.get(i);
-            int finalI = i;
-            Future<?> future = executor.submit(() -> {
-                for (int j = 0; j < bodies.size(); j++) {
-                    if (finalI == j) continue;
-                    CelestialBody bodyB = bodies.get(j);
-                    double[] force = bodyA.gravitationalForce(bodyB);
-                    bodyA.updateAcceleration(force[0], force[1]);
-                }
-            });
-            futures.add(future);
+    // Восстановление счётчиков времени из контрольной точки
+    void restoreClock(double simulationTime, long stepCount) {
+        this.simulationTime = simulationTime;
+        this.stepCount = stepCount;
+    }
+
+    public boolean isRunning() { return running; }
+    public double getSimulationTime() { return simulationTime; }
+    public long getStepCount() { return stepCount; }
+    public double getTimeStep() { return timeStep; }
+    public double getAccelerationFactor() { return accelerationFactor; }
+
+    // Ускорение времени в реальном времени; из других потоков — через submit
+    public void setAccelerationFactor(double accelerationFactor) {
+        if (!(accelerationFactor >= 0) || Double.isInfinite(accelerationFactor)) {
+            throw new IllegalArgumentException("Фактор ускорения должен быть неотрицательным: " + accelerationFactor);
         }
+        this.accelerationFactor = accelerationFactor;
+    }
+    public List<CelestialBody> getBodies() { return bodies; }
+    BodyStore getStore() { return store; }
+    ForkJoinPool getPool() { return executor; }
 
-        // Ожидание завершения всех задач
-        for (Future<?> future : futures) {
-            try {
-                future.get(); // ожидание завершения
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
-            }
+    // Шаг вместе с действиями после него; при включённых метриках — с замером каждой стадии
+    void advance() {
+        applyCommands();
+        SimulationMetrics m = metrics;
+        if (m == null) {
+            step(false);
+            afterStep();
+            return;
         }
+        LatencyHistogram forces = m.forceHistogram();
+        long forceBefore = forces.getTotal();
+        long start = System.nanoTime();
+        long integrated = step(true); // перестановка тел, если она была, входит во время интегрирования
+        long detected = System.nanoTime();
+        afterStep();
+        long done = System.nanoTime();
+        m.recordStep(integrated - start, forces.getTotal() - forceBefore, detected - integrated, done - detected,
+                lastCollisionCount);
     }
 
-    // Метод для расчёта ускорений для временных тел (используется в Рунге-Кутты)
-    private void computeAccelerationsRK4(List<CelestialBody> tempBodies) {
-        int n = tempBodies.size();
-        // Сброс ускорений
-        for (CelestialBody body : tempBodies) {
-            body.resetAcceleration();
+    // Один шаг симуляции выбранным интегратором. При timed возвращает момент окончания
+    // интегрирования (System.nanoTime) для метрик, иначе 0
+    private long step(boolean timed) {
+        // Перед шагом, а не после: пары столкновений прошлого шага уже опубликованы
+        if (ordering != null && stepCount - lastReorderStep >= reorderInterval) {
+            reorder();
         }
+        integrator.step(store, stepSolver, timeStep);
+        long integrated = timed ? System.nanoTime() : 0;
+        simulationTime += timeStep;
+        stepCount++;
 
-        List<Future<?>> futures = new ArrayList<>();
-
-        for (int i = 0; i < n; i++) {
-            CelestialBody bodyA = tempBodies.get(i);
-            int finalI = i;
-            Future<?> future = executor.submit(() -> {
-                for (int j = 0; j < n; j++) {
-                    if (finalI == j) continue;
-                    CelestialBody bodyB = tempBodies.get(j);
-                    double[] force = bodyA.gravitationalForce(bodyB);
-                    bodyA.updateAcceleration(force[0], force[1]);
-                }
-            });
-            futures.add(future);
+        // После обновления позиций, проверяем и разрешаем столкновения
+        detectCollisions();
+        resolveCollisions();
+        return integrated;
+    }
+
+    // Метод для обнаружения столкновений: результат остаётся в буфере collisions
+    void detectCollisions() {
+        collisionDetector.detect(store, collisions);
+    }
+
+    // Слияние или отскок по выбранному режиму. После слияния хранилище уплотнено,
+    // индексы в буфере пар устарели, поэтому буфер очищается.
+    private void resolveCollisions() {
+        lastCollisionCount = collisions.size();
+        if (collisions.isEmpty() || collisionMode == CollisionMode.REPORT) return;
+        if (collisionMode == CollisionMode.BOUNCE) {
+            collisionResolver.bounce(store, collisions, restitution);
+            integrator.reset();
+            return;
         }
+        if (collisionResolver.merge(store, bodies, collisions) > 0) {
+            collisionDetector.compact(collisionResolver.newIndex(), store.size());
+            collisions.clear();
+            bodiesChanged(); // массы и радиусы выживших тел изменились
+        }
+    }
 
-        // Ожидание завершения всех задач
-        for (Future<?> future : futures) {
-            try {
-                future.get(); // ожидание завершения
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
-            }
+    // Добавление тела между шагами (из других потоков — через submit). Ускорения пересчитываются
+    // на следующем шаге, порядок поиска столкновений строится заново по новому числу тел
+    public CelestialBody addBody(String name, double mass, double radius, double posX, double posY, double posZ,
+                                 double velX, double velY, double velZ) {
+        if (!(mass > 0) || !(radius >= 0)) {
+            throw new IllegalArgumentException("Масса должна быть положительной, радиус — неотрицательным: "
+                    + mass + ", " + radius);
         }
+        CelestialBody body = new CelestialBody(store, name, mass, radius, posX, posY, posZ, velX, velY, velZ,
+                CelestialBody.classify(mass), 0, 0, 0, 0, 0);
+        bodies.add(body);
+        bodiesChanged();
+        return body;
     }
 
-    // Метод для обнаружения столкновений
-    private void detectCollisions() {
-        List<String> collisionReports = new ArrayList<>();
-        int n = bodies.size();
-        for (int i = 0; i < n; i++) {
-            CelestialBody bodyA = bodies.get(i);
-            for (int j = i + 1; j < n; j++) {
-                CelestialBody bodyB = bodies.get(j);
-                double distance = bodyA.distanceTo(bodyB);
-                if (distance <= (bodyA.getRadius() + bodyB.getRadius())) {
-                    String report = String.format("Столкновение: %s (%.2e кг) и %s (%.2e кг) на позиции (%.2e, %.2e) м",
-                            bodyA.getName(), bodyA.getMass(),
-                            bodyB.getName(), bodyB.getMass(),
-                            (bodyA.getPosX() + bodyB.getPosX()) / 2,
-                            (bodyA.getPosY() + bodyB.getPosY()) / 2);
-                    collisionReports.add(report);
-                }
-            }
+    // Удаление тела по постоянному номеру (BodyStore.id); false — такого тела уже нет.
+    // На место удалённого переносится последнее тело, как при слиянии
+    public boolean removeBody(int id) {
+        int index = store.indexOf(id);
+        if (index < 0) return false;
+        int last = store.size() - 1;
+        int moved = store.remove(index);
+        CelestialBody tail = bodies.remove(last);
+        if (moved >= 0) {
+            bodies.set(index, tail);
         }
+        collisions.clear(); // индексы пар прошлого шага устарели
+        bodiesChanged();
+        return true;
+    }
 
-        // Если есть столкновения, выводим их
-        if (!collisionReports.isEmpty()) {
-            System.out.println("\n=== Столкновения ===");
-            for (String report : collisionReports) {
-                System.out.println(report);
-            }
+    // Набор тел изменился: законы сохранения сравниваются уже с новым базовым состоянием,
+    // иначе добавленное, удалённое или слившееся тело выглядело бы как дрейф энергии и момента
+    private void bodiesChanged() {
+        integrator.reset();
+        if (tidalAnalysis != null) {
+            tidalAnalysis.invalidate();
+        }
+        if (diagnostics != null) {
+            diagnostics.resetBaseline();
         }
     }
 
-    // Метод для вывода состояния всех тел с использованием ANSI escape codes
-    private void printStates() {
-        // Очистка экрана и возврат курсора в начало
-        System.out.print("\u001b[H\u001b[2J");
-        System.out.flush();
+    // Пары тел, столкнувшихся на последнем шаге (буфер переиспользуется; пуст после слияния)
+    public CollisionPairs getCollisions() { return collisions; }
 
-        System.out.println("=== Текущее состояние объектов ===");
-        int index = 1;
-        for (CelestialBody body : bodies) {
-            body.printState(index++);
+    public CollisionMode getCollisionMode() { return collisionMode; }
+    public double getRestitution() { return restitution; }
+
+    // Обработка столкновений: REPORT (по умолчанию), MERGE или BOUNCE.
+    // При слиянии число тел уменьшается, поэтому запись траектории (TrajectoryWriter) с ним несовместима.
+    public void setCollisionMode(CollisionMode collisionMode) {
+        this.collisionMode = collisionMode;
+    }
+
+    // Коэффициент восстановления для BOUNCE: 1 — упругий удар, 0 — тела гасят сближение
+    public void setRestitution(double restitution) {
+        if (restitution < 0 || restitution > 1) {
+            throw new IllegalArgumentException("Коэффициент восстановления должен быть в [0, 1]: " + restitution);
         }
+        this.restitution = restitution;
     }
 
+    // Число слияний и отскоков с начала симуляции
+    public long getMergeCount() { return collisionResolver.getMerged(); }
+    public long getBounceCount() { return collisionResolver.getBounced(); }
+
     // Метод для остановки симуляции (можно вызвать при необходимости)
     public void stopSimulation() {
         running = false;
-        executor.shutdown();
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        publisher.close();
+        if (checkpointer != null) {
+            checkpointer.close();
+        }
+        if (metrics != null) {
+            metrics.close();
+        }
     }
 }
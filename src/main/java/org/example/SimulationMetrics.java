@@ -0,0 +1,177 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Метрики цикла симуляции: гистограммы времени шага и его стадий, счётчики и показатели пула.
+// Записывает только поток симуляции; JMX и строка журнала читают значения из своих потоков.
+// Пока метрики не включены (Simulation.enableMetrics), цикл не делает ни одного замера.
+public class SimulationMetrics implements SimulationMetricsMXBean {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final Simulation simulation;
+    private final LatencyHistogram step = new LatencyHistogram();
+    private final LatencyHistogram force = new LatencyHistogram();
+    private final LatencyHistogram integration = new LatencyHistogram();
+    private final LatencyHistogram collision = new LatencyHistogram();
+    private final LatencyHistogram output = new LatencyHistogram();
+    private final LatencyHistogram tickLateness = new LatencyHistogram();
+    private volatile long collisionPairs;
+    private volatile long tickOverruns;
+    private volatile boolean resetRequested;
+
+    private ObjectName objectName;
+    private ScheduledExecutorService logger;
+    private long lastLoggedSteps;
+    private long lastLoggedNanos;
+
+    SimulationMetrics(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    // Гистограмма вызовов расчёта сил (заполняется TimedForceSolver)
+    LatencyHistogram forceHistogram() { return force; }
+
+    // Замеры одного шага: полное время, интегратор (вместе с силами), столкновения и вывод
+    void recordStep(long integratorNanos, long forceNanos, long collisionNanos, long outputNanos, int pairs) {
+        if (resetRequested) {
+            clear();
+        }
+        step.record(integratorNanos + collisionNanos + outputNanos);
+        integration.record(integratorNanos - forceNanos);
+        collision.record(collisionNanos);
+        output.record(outputNanos);
+        collisionPairs += pairs;
+    }
+
+    // Такт планировщика: опоздание начала шага относительно расписания и длительность шага
+    void recordTick(long latenessNanos, long stepNanos, long periodNanos) {
+        tickLateness.record(latenessNanos);
+        if (periodNanos > 0 && stepNanos > periodNanos) {
+            tickOverruns++;
+        }
+    }
+
+    // Регистрация в платформенном MBeanServer как org.example:type=Simulation,name=simulation-N
+    void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("org.example:type=Simulation,name=simulation-" + INSTANCES.incrementAndGet());
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            System.err.println("Не удалось зарегистрировать метрики в JMX: " + e.getMessage());
+            objectName = null;
+        }
+    }
+
+    // Строка журнала каждые intervalSeconds секунд в отдельном потоке
+    void startLog(long intervalSeconds) {
+        lastLoggedSteps = simulation.getStepCount();
+        lastLoggedNanos = System.nanoTime();
+        logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> System.out.println(logLine()), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Одна строка с пропускной способностью за интервал и квантилями с начала замеров
+    String logLine() {
+        long steps = simulation.getStepCount();
+        long now = System.nanoTime();
+        double rate = now == lastLoggedNanos ? 0 : (steps - lastLoggedSteps) * 1e9 / (now - lastLoggedNanos);
+        lastLoggedSteps = steps;
+        lastLoggedNanos = now;
+        return String.format(Locale.US,
+                "[метрики] шаг %d, %.1f шагов/с; шаг p50/p99/max %d/%d/%d мкс; силы %.0f мкс × %.1f; "
+                        + "интегратор %.0f мкс; столкновения %.0f мкс; вывод %.0f мкс; перегрузок тактов %d; "
+                        + "очередь пула %d; потеряно снимков %d",
+                steps, rate, getStepP50Micros(), getStepP99Micros(), getStepMaxMicros(),
+                getForceMeanMicros(), step.getCount() == 0 ? 0.0 : (double) force.getCount() / step.getCount(),
+                getIntegrationMeanMicros(), getCollisionMeanMicros(), getOutputMeanMicros(),
+                tickOverruns, getQueuedTasks(), getDroppedSnapshots());
+    }
+
+    // Остановка журнала и снятие регистрации в JMX
+    void close() {
+        if (logger != null) {
+            logger.shutdownNow();
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                // уже снят
+            }
+            objectName = null;
+        }
+    }
+
+    private void clear() {
+        step.reset();
+        force.reset();
+        integration.reset();
+        collision.reset();
+        output.reset();
+        tickLateness.reset();
+        collisionPairs = 0;
+        tickOverruns = 0;
+        resetRequested = false;
+    }
+
+    public LatencyHistogram getStepHistogram() { return step; }
+    public LatencyHistogram getForceHistogram() { return force; }
+    public LatencyHistogram getCollisionHistogram() { return collision; }
+    public LatencyHistogram getOutputHistogram() { return output; }
+
+    @Override public long getSteps() { return simulation.getStepCount(); }
+    @Override public double getSimulationTime() { return simulation.getSimulationTime(); }
+
+    @Override public double getStepMeanMicros() { return step.getMean() / 1e3; }
+    @Override public long getStepP50Micros() { return step.getPercentile(0.5) / 1000; }
+    @Override public long getStepP99Micros() { return step.getPercentile(0.99) / 1000; }
+    @Override public long getStepP999Micros() { return step.getPercentile(0.999) / 1000; }
+    @Override public long getStepMaxMicros() { return step.getMax() / 1000; }
+
+    @Override public long getForceCalls() { return force.getCount(); }
+    @Override public double getForceMeanMicros() { return force.getMean() / 1e3; }
+    @Override public long getForceP99Micros() { return force.getPercentile(0.99) / 1000; }
+
+    @Override public double getIntegrationMeanMicros() { return integration.getMean() / 1e3; }
+
+    @Override public double getCollisionMeanMicros() { return collision.getMean() / 1e3; }
+    @Override public long getCollisionP99Micros() { return collision.getPercentile(0.99) / 1000; }
+    @Override public long getCollisionPairs() { return collisionPairs; }
+
+    @Override public double getOutputMeanMicros() { return output.getMean() / 1e3; }
+    @Override public long getOutputP99Micros() { return output.getPercentile(0.99) / 1000; }
+
+    @Override public long getTickOverruns() { return tickOverruns; }
+    @Override public long getTickLatenessP99Micros() { return tickLateness.getPercentile(0.99) / 1000; }
+    @Override public long getTickLatenessMaxMicros() { return tickLateness.getMax() / 1000; }
+
+    @Override
+    public long getQueuedTasks() {
+        ForkJoinPool pool = simulation.getPool();
+        return pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+    }
+
+    @Override public int getActiveThreads() { return simulation.getPool().getActiveThreadCount(); }
+    @Override public long getDroppedSnapshots() { return simulation.getPublisher().getDropped(); }
+    @Override public int getMaxSnapshotBacklog() { return simulation.getPublisher().getMaxBacklog(); }
+
+    // Сброс выполняется потоком симуляции перед записью следующего шага
+    @Override
+    public void reset() {
+        resetRequested = true;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+// Метрики цикла симуляции для JMX (jconsole, VisualVM). Времена — в микросекундах.
+public interface SimulationMetricsMXBean {
+    long getSteps();
+    double getSimulationTime();
+
+    // Полный шаг: интегрирование, столкновения и действия после шага
+    double getStepMeanMicros();
+    long getStepP50Micros();
+    long getStepP99Micros();
+    long getStepP999Micros();
+    long getStepMaxMicros();
+
+    // Один расчёт сил (одна стадия RK4 или одно полное ускорение KDK-схем)
+    long getForceCalls();
+    double getForceMeanMicros();
+    long getForceP99Micros();
+
+    // Интегратор без расчёта сил
+    double getIntegrationMeanMicros();
+
+    double getCollisionMeanMicros();
+    long getCollisionP99Micros();
+    long getCollisionPairs();
+
+    // Публикация снимков, диагностика и контрольные точки
+    double getOutputMeanMicros();
+    long getOutputP99Micros();
+
+    // Такты планировщика: сколько шагов не уложились в период и опоздание начала шага
+    long getTickOverruns();
+    long getTickLatenessP99Micros();
+    long getTickLatenessMaxMicros();
+
+    // Состояние пула и очередей вывода
+    long getQueuedTasks();
+    int getActiveThreads();
+    long getDroppedSnapshots();
+    int getMaxSnapshotBacklog();
+
+    void reset();
+}
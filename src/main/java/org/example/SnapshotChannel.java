@@ -0,0 +1,130 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Кольцо заранее выделенных снимков между потоком интегратора (единственный писатель)
+// и потоком одного приёмника (единственный читатель).
+// При политике LATEST вместо кольца — тройной буфер: писатель заполняет свой снимок и обменивает
+// его на ожидающий, читатель забирает ожидающий, если он свежий. Очереди нет, приёмник всегда
+// получает последнее состояние, и последний снимок перед паузой не теряется.
+class SnapshotChannel {
+    private static final int FRESH = 1 << 30; // признак необработанного снимка в pending
+
+    private final SnapshotSink sink;
+    private final BackpressurePolicy policy;
+    private final StateSnapshot[] ring;
+    private final Thread consumer;
+
+    private volatile long head; // следующий номер для записи (пишет только интегратор)
+    private volatile long tail; // следующий номер для чтения (пишет только приёмник)
+    private volatile boolean closed;
+    private volatile long dropped;
+
+    // Тройной буфер для LATEST: индексы в ring
+    private int back;                   // заполняет интегратор
+    private final AtomicInteger pending = new AtomicInteger(1); // ожидающий (| FRESH, если не прочитан)
+    private int front = 2;              // читает приёмник
+
+    SnapshotChannel(SnapshotSink sink, int capacity, BackpressurePolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер кольца снимков должен быть положительным: " + capacity);
+        }
+        this.sink = sink;
+        this.policy = policy;
+        this.ring = new StateSnapshot[policy == BackpressurePolicy.LATEST ? 3 : capacity];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new StateSnapshot();
+        }
+        this.consumer = new Thread(this::drain, "snapshot-sink-" + sink.getClass().getSimpleName());
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    // Публикация состояния; возвращает false, если снимок отброшен
+    boolean publish(BodyStore store, long step, double time, CollisionPairs collisions) {
+        if (policy == BackpressurePolicy.LATEST) {
+            ring[back].capture(store, step, time, collisions);
+            int previous = pending.getAndSet(back | FRESH);
+            if ((previous & FRESH) != 0) {
+                dropped++; // заменён, не дойдя до приёмника
+            }
+            back = previous & ~FRESH;
+            LockSupport.unpark(consumer);
+            return true;
+        }
+        long seq = head;
+        while (seq - tail >= ring.length) {
+            if (policy == BackpressurePolicy.DROP_NEWEST || closed) {
+                dropped++;
+                return false;
+            }
+            LockSupport.parkNanos(50_000);
+        }
+        ring[(int) (seq % ring.length)].capture(store, step, time, collisions);
+        head = seq + 1;
+        LockSupport.unpark(consumer);
+        return true;
+    }
+
+    long getDropped() { return dropped; }
+
+    // Число снимков, ожидающих обработки
+    int getBacklog() {
+        if (policy == BackpressurePolicy.LATEST) {
+            return (pending.get() & FRESH) != 0 ? 1 : 0;
+        }
+        return (int) (head - tail);
+    }
+
+    private void drain() {
+        if (policy == BackpressurePolicy.LATEST) {
+            drainLatest();
+            return;
+        }
+        while (true) {
+            long seq = tail;
+            if (seq == head) {
+                if (closed) break;
+                LockSupport.parkNanos(1_000_000);
+                continue;
+            }
+            try {
+                sink.accept(ring[(int) (seq % ring.length)]);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            tail = seq + 1;
+        }
+        sink.close();
+    }
+
+    private void drainLatest() {
+        while (true) {
+            if ((pending.get() & FRESH) == 0) {
+                if (closed) break;
+                LockSupport.parkNanos(1_000_000);
+                continue;
+            }
+            // Снять признак может только читатель, поэтому обмен вернёт свежий снимок
+            front = pending.getAndSet(front) & ~FRESH;
+            try {
+                sink.accept(ring[front]);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        sink.close();
+    }
+
+    // Остановка: оставшиеся снимки дописываются, затем приёмник закрывается
+    void close(long timeoutMillis) {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Раздача снимков состояния по каналам приёмников.
+// Интегратор только копирует массивы в свободный слот каждого канала;
+// форматирование и ввод-вывод выполняются в потоках приёмников.
+public class SnapshotPublisher {
+    private final CopyOnWriteArrayList<SnapshotChannel> channels = new CopyOnWriteArrayList<>();
+
+    // Подключение приёмника с собственным кольцом из capacity снимков
+    public void addSink(SnapshotSink sink, int capacity, BackpressurePolicy policy) {
+        channels.add(new SnapshotChannel(sink, capacity, policy));
+    }
+
+    public boolean hasSinks() {
+        return !channels.isEmpty();
+    }
+
+    void publish(BodyStore store, long step, double time, CollisionPairs collisions) {
+        // Обход по индексу, чтобы не создавать итератор на каждом шаге
+        for (int i = 0; i < channels.size(); i++) {
+            channels.get(i).publish(store, step, time, collisions);
+        }
+    }
+
+    // Суммарное число отброшенных снимков по всем каналам
+    public long getDropped() {
+        long dropped = 0;
+        for (SnapshotChannel channel : channels) {
+            dropped += channel.getDropped();
+        }
+        return dropped;
+    }
+
+    // Наибольшая очередь необработанных снимков среди каналов
+    public int getMaxBacklog() {
+        int backlog = 0;
+        for (SnapshotChannel channel : channels) {
+            backlog = Math.max(backlog, channel.getBacklog());
+        }
+        return backlog;
+    }
+
+    // Дописать оставшиеся снимки и закрыть все приёмники
+    public void close() {
+        for (SnapshotChannel channel : channels) {
+            channel.close(5000);
+        }
+        channels.clear();
+    }
+}
@@ -0,0 +1,11 @@
+package org.example;
+
+// Потребитель снимков состояния. Вызывается в собственном потоке канала,
+// поэтому медленный приёмник не задерживает интегратор.
+public interface SnapshotSink {
+    void accept(StateSnapshot snapshot);
+
+    // Вызывается один раз после того, как канал выдал все оставшиеся снимки
+    default void close() {
+    }
+}
@@ -0,0 +1,441 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Прямое суммирование со смягчением Пламмера: a = G Σ mⱼ d / (r² + ε²)^{3/2}.
+// Смягчение ограничивает ускорение при тесных сближениях и убирает ветвление по r = 0.
+// Если при запуске подключён модуль jdk.incubator.vector, внутренний цикл выполняет
+// VectorKernel (SIMD по телам j), иначе — скалярное ядро с той же формулой.
+//
+// Смешанная точность (KernelPrecision.MIXED) — для обзорных прогонов, где важна пропускная способность.
+// Для каждого блока строк выбирается локальное начало координат (центр блока), позиции тел j
+// переводятся относительно него во float порциями по TILE тел, и пара считается во float:
+// векторная операция охватывает вдвое больше тел, чем в double. Координаты делятся на размер
+// системы L, массы — на наибольшую массу, чтобы обратный куб расстояния не выходил за диапазон float.
+// Частичные суммы порции складываются в double. Ошибка смещения ≈ 2⁻²⁴ · (расстояние до начала блока),
+// поэтому точнее всего ядро на упорядоченных в пространстве телах (Simulation.enableReordering);
+// оценка ошибки относительно double — MixedPrecisionReport. Потенциальная энергия всегда в double.
+public class SoftenedForceSolver implements ForceSolver {
+    private static final int PARALLEL_THRESHOLD = 512;
+    private static final int BLOCK_SIZE = 256;
+    // Тел j в одной порции смешанной точности: позиции и массы во float — 8 КиБ, остаются в L1
+    private static final int TILE = 512;
+    // Наибольшее L/ε для float: обратный куб расстояния не превышает (L/ε)³ < 3.4e38
+    private static final double MAX_MIXED_SCALE_RATIO = 1e12;
+    // Рабочие массивы смешанной точности — свои у каждого потока, блок не запускает подзадач,
+    // поэтому набор потока занят одним блоком за раз
+    private static final ThreadLocal<MixedScratch> SCRATCH = ThreadLocal.withInitial(MixedScratch::new);
+
+    // Векторное ядро доступно, если модуль есть в загрузочном слое;
+    // -Dastronomy.vector=false принудительно включает скалярное ядро
+    private static final boolean VECTOR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                    && !"false".equals(System.getProperty("astronomy.vector"));
+
+    private final ForkJoinPool pool;
+    private final double softening; // длина смягчения ε (м)
+    private final double eps2;
+    private final boolean vector;
+    private final KernelPrecision precision;
+
+    private final AtomicLong doubleFallbacks = new AtomicLong();
+
+    // pool может быть null — тогда расчёт всегда идёт в вызывающем потоке
+    public SoftenedForceSolver(ForkJoinPool pool, double softening) {
+        this(pool, softening, VECTOR_AVAILABLE, KernelPrecision.DOUBLE);
+    }
+
+    // useVector = false — скалярное ядро даже при доступном модуле (для сравнения)
+    public SoftenedForceSolver(ForkJoinPool pool, double softening, boolean useVector) {
+        this(pool, softening, useVector, KernelPrecision.DOUBLE);
+    }
+
+    public SoftenedForceSolver(ForkJoinPool pool, double softening, KernelPrecision precision) {
+        this(pool, softening, VECTOR_AVAILABLE, precision);
+    }
+
+    // Смешанная точность требует ε > 0: без смягчения обратный куб расстояния при сближении
+    // переполняет float, а с ним пара тела с самим собой даёт нулевой вклад без отдельной проверки
+    public SoftenedForceSolver(ForkJoinPool pool, double softening, boolean useVector, KernelPrecision precision) {
+        if (softening < 0) {
+            throw new IllegalArgumentException("Длина смягчения не может быть отрицательной: " + softening);
+        }
+        if (precision == KernelPrecision.MIXED && !(softening > 0)) {
+            throw new IllegalArgumentException("Для смешанной точности нужна положительная длина смягчения: " + softening);
+        }
+        if (useVector && !VECTOR_AVAILABLE) {
+            throw new IllegalStateException("Модуль jdk.incubator.vector не подключён (--add-modules jdk.incubator.vector)");
+        }
+        this.pool = pool;
+        this.softening = softening;
+        this.eps2 = softening * softening;
+        this.vector = useVector;
+        this.precision = precision;
+    }
+
+    public static boolean isVectorAvailable() { return VECTOR_AVAILABLE; }
+
+    public double getSoftening() { return softening; }
+    public boolean isVectorized() { return vector; }
+    public KernelPrecision getPrecision() { return precision; }
+
+    // Расчёты смешанной точности, выполненные в double из-за слишком большого L/ε
+    public long getDoubleFallbacks() { return doubleFallbacks.get(); }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ) {
+        int n = store.size();
+        // Масштабы передаются блокам параметрами: решатель можно вызывать из нескольких потоков сразу
+        double lengthScale = mixedLengthScale(posX, posY, posZ, n);
+        double massScale = lengthScale > 0 ? massScale(store.mass, n) : 1;
+        if (pool != null && n >= PARALLEL_THRESHOLD) {
+            pool.invoke(new BlockTask(store.mass, posX, posY, posZ, accX, accY, accZ, null, 0, n, n,
+                    lengthScale, massScale));
+        } else {
+            rows(store.mass, posX, posY, posZ, accX, accY, accZ, 0, n, n, lengthScale, massScale);
+        }
+    }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ,
+                                     int[] active, int activeCount) {
+        int n = store.size();
+        double lengthScale = mixedLengthScale(posX, posY, posZ, n);
+        double massScale = lengthScale > 0 ? massScale(store.mass, n) : 1;
+        if (pool != null && (long) activeCount * n >= (long) PARALLEL_THRESHOLD * PARALLEL_THRESHOLD) {
+            pool.invoke(new BlockTask(store.mass, posX, posY, posZ, accX, accY, accZ, active, 0, activeCount, n,
+                    lengthScale, massScale));
+        } else {
+            activeRows(store.mass, posX, posY, posZ, accX, accY, accZ, active, 0, activeCount, n,
+                    lengthScale, massScale);
+        }
+    }
+
+    // Потенциальная энергия со смягчением: −Σ G mᵢ mⱼ / √(r² + ε²) по парам i < j
+    @Override
+    public double potentialEnergy(BodyStore store) {
+        int n = store.size();
+        if (pool != null && n >= PARALLEL_THRESHOLD) {
+            return pool.invoke(new PotentialTask(store.mass, store.posX, store.posY, store.posZ, 0, n, n, eps2));
+        }
+        return potentialBlock(store.mass, store.posX, store.posY, store.posZ, 0, n, n, eps2);
+    }
+
+    // Потенциальная энергия пар (i, j), i в [from, to), j > i
+    static double potentialBlock(double[] mass, double[] posX, double[] posY, double[] posZ,
+                                 int from, int to, int n, double eps2) {
+        double energy = 0;
+        for (int i = from; i < to; i++) {
+            double xi = posX[i];
+            double yi = posY[i];
+            double zi = posZ[i];
+            double sum = 0;
+            for (int j = i + 1; j < n; j++) {
+                double dx = posX[j] - xi;
+                double dy = posY[j] - yi;
+                double dz = posZ[j] - zi;
+                double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                if (r2 == 0) continue;
+                sum += mass[j] / Math.sqrt(r2);
+            }
+            energy -= CelestialBody.G * mass[i] * sum;
+        }
+        return energy;
+    }
+
+    // Масштаб длины смешанной точности L — наибольший размах координат;
+    // 0 — расчёт в double (точность DOUBLE или слишком большое L/ε)
+    private double mixedLengthScale(double[] posX, double[] posY, double[] posZ, int n) {
+        if (precision != KernelPrecision.MIXED || n == 0) return 0;
+        double extent = Math.max(range(posX, n), Math.max(range(posY, n), range(posZ, n)));
+        double lengthScale = Math.max(extent, softening);
+        if (lengthScale / softening > MAX_MIXED_SCALE_RATIO) {
+            doubleFallbacks.incrementAndGet();
+            return 0;
+        }
+        return lengthScale;
+    }
+
+    // Масштаб масс — наибольшая масса
+    private static double massScale(double[] mass, int n) {
+        double maxMass = 0;
+        for (int i = 0; i < n; i++) {
+            maxMass = Math.max(maxMass, Math.abs(mass[i]));
+        }
+        return maxMass > 0 ? maxMass : 1;
+    }
+
+    private static double range(double[] values, int n) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        return max - min;
+    }
+
+    private void rows(double[] mass, double[] posX, double[] posY, double[] posZ,
+                      double[] accX, double[] accY, double[] accZ,
+                      int from, int to, int n, double lengthScale, double massScale) {
+        if (lengthScale > 0) {
+            mixedRows(mass, posX, posY, posZ, accX, accY, accZ, null, from, to, n, lengthScale, massScale);
+        } else if (vector) {
+            VectorKernel.block(mass, posX, posY, posZ, accX, accY, accZ, from, to, n, eps2);
+        } else {
+            scalarBlock(mass, posX, posY, posZ, accX, accY, accZ, from, to, n, eps2);
+        }
+    }
+
+    private void activeRows(double[] mass, double[] posX, double[] posY, double[] posZ,
+                            double[] accX, double[] accY, double[] accZ,
+                            int[] active, int from, int to, int n, double lengthScale, double massScale) {
+        if (lengthScale > 0) {
+            mixedRows(mass, posX, posY, posZ, accX, accY, accZ, active, from, to, n, lengthScale, massScale);
+            return;
+        }
+        for (int k = from; k < to; k++) {
+            int i = active[k];
+            rows(mass, posX, posY, posZ, accX, accY, accZ, i, i + 1, n, 0, 1);
+        }
+    }
+
+    // Скалярное ядро: та же формула, что и в VectorKernel
+    static void scalarBlock(double[] mass, double[] posX, double[] posY, double[] posZ,
+                            double[] accX, double[] accY, double[] accZ,
+                            int from, int to, int n, double eps2) {
+        for (int i = from; i < to; i++) {
+            double xi = posX[i];
+            double yi = posY[i];
+            double zi = posZ[i];
+            double ax = 0;
+            double ay = 0;
+            double az = 0;
+            for (int j = 0; j < n; j++) {
+                double dx = posX[j] - xi;
+                double dy = posY[j] - yi;
+                double dz = posZ[j] - zi;
+                double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                if (r2 == 0) continue; // само тело без смягчения
+                double invDist = 1.0 / Math.sqrt(r2);
+                double scale = mass[j] * invDist * invDist * invDist;
+                ax += scale * dx;
+                ay += scale * dy;
+                az += scale * dz;
+            }
+            accX[i] = CelestialBody.G * ax;
+            accY[i] = CelestialBody.G * ay;
+            accZ[i] = CelestialBody.G * az;
+        }
+    }
+
+    // Смешанная точность для строк [from, to) (или active[from..to), если active задан) от всех n тел.
+    // Строки делятся на блоки по границам, кратным BLOCK_SIZE, — те же, что и листья BlockTask,
+    // поэтому результат не зависит от числа потоков.
+    private void mixedRows(double[] mass, double[] posX, double[] posY, double[] posZ,
+                           double[] accX, double[] accY, double[] accZ,
+                           int[] active, int from, int to, int n, double lengthScale, double massScale) {
+        for (int start = from; start < to; ) {
+            int end = Math.min((start / BLOCK_SIZE + 1) * BLOCK_SIZE, to);
+            mixedBlock(mass, posX, posY, posZ, accX, accY, accZ, active, start, end, n, lengthScale, massScale);
+            start = end;
+        }
+    }
+
+    // Один блок строк: начало координат — центр ограничивающего параллелепипеда строк;
+    // тела j переводятся во float порциями по TILE, частичные суммы порций копятся в double
+    private void mixedBlock(double[] mass, double[] posX, double[] posY, double[] posZ,
+                            double[] accX, double[] accY, double[] accZ,
+                            int[] active, int from, int to, int n, double lengthScale, double massScale) {
+        int rowCount = to - from;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int k = from; k < to; k++) {
+            int i = active == null ? k : active[k];
+            minX = Math.min(minX, posX[i]);
+            minY = Math.min(minY, posY[i]);
+            minZ = Math.min(minZ, posZ[i]);
+            maxX = Math.max(maxX, posX[i]);
+            maxY = Math.max(maxY, posY[i]);
+            maxZ = Math.max(maxZ, posZ[i]);
+        }
+        double originX = 0.5 * (minX + maxX);
+        double originY = 0.5 * (minY + maxY);
+        double originZ = 0.5 * (minZ + maxZ);
+        double invLength = 1.0 / lengthScale;
+        double invMass = 1.0 / massScale;
+        float scaledEps2 = (float) (eps2 * invLength * invLength);
+
+        MixedScratch scratch = SCRATCH.get();
+        float[] rowX = scratch.rowX;
+        float[] rowY = scratch.rowY;
+        float[] rowZ = scratch.rowZ;
+        for (int r = 0; r < rowCount; r++) {
+            int i = active == null ? from + r : active[from + r];
+            rowX[r] = (float) ((posX[i] - originX) * invLength);
+            rowY[r] = (float) ((posY[i] - originY) * invLength);
+            rowZ[r] = (float) ((posZ[i] - originZ) * invLength);
+        }
+        double[] sumX = scratch.sumX;
+        double[] sumY = scratch.sumY;
+        double[] sumZ = scratch.sumZ;
+        Arrays.fill(sumX, 0, rowCount, 0);
+        Arrays.fill(sumY, 0, rowCount, 0);
+        Arrays.fill(sumZ, 0, rowCount, 0);
+        float[] tileX = scratch.tileX;
+        float[] tileY = scratch.tileY;
+        float[] tileZ = scratch.tileZ;
+        float[] tileM = scratch.tileM;
+        for (int start = 0; start < n; start += TILE) {
+            int count = Math.min(TILE, n - start);
+            for (int k = 0; k < count; k++) {
+                int j = start + k;
+                tileX[k] = (float) ((posX[j] - originX) * invLength);
+                tileY[k] = (float) ((posY[j] - originY) * invLength);
+                tileZ[k] = (float) ((posZ[j] - originZ) * invLength);
+                tileM[k] = (float) (mass[j] * invMass);
+            }
+            if (vector) {
+                VectorKernel.mixedTile(tileX, tileY, tileZ, tileM, count, rowX, rowY, rowZ, rowCount, scaledEps2,
+                        sumX, sumY, sumZ);
+            } else {
+                scalarMixedTile(tileX, tileY, tileZ, tileM, count, rowX, rowY, rowZ, rowCount, scaledEps2,
+                        sumX, sumY, sumZ);
+            }
+        }
+
+        double factor = CelestialBody.G * massScale * invLength * invLength;
+        for (int r = 0; r < rowCount; r++) {
+            int i = active == null ? from + r : active[from + r];
+            accX[i] = factor * sumX[r];
+            accY[i] = factor * sumY[r];
+            accZ[i] = factor * sumZ[r];
+        }
+    }
+
+    // Скалярное ядро смешанной точности: та же формула, что и в VectorKernel.mixedTile.
+    // Координаты и массы безразмерны, ε² > 0, поэтому пара тела с самим собой даёт ноль
+    static void scalarMixedTile(float[] tileX, float[] tileY, float[] tileZ, float[] tileM, int count,
+                                float[] rowX, float[] rowY, float[] rowZ, int rowCount, float eps2,
+                                double[] sumX, double[] sumY, double[] sumZ) {
+        for (int r = 0; r < rowCount; r++) {
+            float xi = rowX[r];
+            float yi = rowY[r];
+            float zi = rowZ[r];
+            float ax = 0;
+            float ay = 0;
+            float az = 0;
+            for (int j = 0; j < count; j++) {
+                float dx = tileX[j] - xi;
+                float dy = tileY[j] - yi;
+                float dz = tileZ[j] - zi;
+                float r2 = dx * dx + dy * dy + dz * dz + eps2;
+                float invDist = 1f / (float) Math.sqrt(r2);
+                float scale = tileM[j] * invDist * invDist * invDist;
+                ax += scale * dx;
+                ay += scale * dy;
+                az += scale * dz;
+            }
+            sumX[r] += ax;
+            sumY[r] += ay;
+            sumZ[r] += az;
+        }
+    }
+
+    // Строки блока (не больше BLOCK_SIZE — блоки режет mixedRows), их суммы в double и порция тел j
+    private static final class MixedScratch {
+        final float[] rowX = new float[BLOCK_SIZE];
+        final float[] rowY = new float[BLOCK_SIZE];
+        final float[] rowZ = new float[BLOCK_SIZE];
+        final double[] sumX = new double[BLOCK_SIZE];
+        final double[] sumY = new double[BLOCK_SIZE];
+        final double[] sumZ = new double[BLOCK_SIZE];
+        final float[] tileX = new float[TILE];
+        final float[] tileY = new float[TILE];
+        final float[] tileZ = new float[TILE];
+        final float[] tileM = new float[TILE];
+    }
+
+    // Потенциальная энергия: строки треугольника пар делятся пополам до блоков BLOCK_SIZE,
+    // суммы складываются в фиксированном порядке
+    private static final class PotentialTask extends RecursiveTask<Double> {
+        private final double[] mass, posX, posY, posZ;
+        private final int from, to, n;
+        private final double eps2;
+
+        PotentialTask(double[] mass, double[] posX, double[] posY, double[] posZ, int from, int to, int n,
+                      double eps2) {
+            this.mass = mass;
+            this.posX = posX;
+            this.posY = posY;
+            this.posZ = posZ;
+            this.from = from;
+            this.to = to;
+            this.n = n;
+            this.eps2 = eps2;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= BLOCK_SIZE) {
+                return potentialBlock(mass, posX, posY, posZ, from, to, n, eps2);
+            }
+            int mid = (from + to) >>> 1;
+            PotentialTask left = new PotentialTask(mass, posX, posY, posZ, from, mid, n, eps2);
+            PotentialTask right = new PotentialTask(mass, posX, posY, posZ, mid, to, n, eps2);
+            left.fork();
+            double rightEnergy = right.compute();
+            return left.join() + rightEnergy;
+        }
+    }
+
+    // Рекурсивное деление диапазона тел (или списка активных тел) до блоков BLOCK_SIZE
+    private final class BlockTask extends RecursiveAction {
+        private final double[] mass, posX, posY, posZ, accX, accY, accZ;
+        private final int[] active;
+        private final int from, to, n;
+        private final double lengthScale, massScale;
+
+        BlockTask(double[] mass, double[] posX, double[] posY, double[] posZ,
+                  double[] accX, double[] accY, double[] accZ,
+                  int[] active, int from, int to, int n, double lengthScale, double massScale) {
+            this.mass = mass;
+            this.posX = posX;
+            this.posY = posY;
+            this.posZ = posZ;
+            this.accX = accX;
+            this.accY = accY;
+            this.accZ = accZ;
+            this.active = active;
+            this.from = from;
+            this.to = to;
+            this.n = n;
+            this.lengthScale = lengthScale;
+            this.massScale = massScale;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BLOCK_SIZE) {
+                if (active == null) {
+                    rows(mass, posX, posY, posZ, accX, accY, accZ, from, to, n, lengthScale, massScale);
+                } else {
+                    activeRows(mass, posX, posY, posZ, accX, accY, accZ, active, from, to, n, lengthScale, massScale);
+                }
+                return;
+            }
+            // Граница, кратная BLOCK_SIZE: листья совпадают с блоками смешанной точности
+            int mid = from + Math.max(BLOCK_SIZE, (to - from) / 2 / BLOCK_SIZE * BLOCK_SIZE);
+            invokeAll(new BlockTask(mass, posX, posY, posZ, accX, accY, accZ, active, from, mid, n,
+                            lengthScale, massScale),
+                    new BlockTask(mass, posX, posY, posZ, accX, accY, accZ, active, mid, to, n,
+                            lengthScale, massScale));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Ключи кривых Мортона (Z-порядок) и Гильберта для трёхмерных позиций и упорядочивание тел по ним.
+// Координаты квантуются в 2²¹ ячеек по каждой оси внутри общего ограничивающего куба,
+// поэтому тела, близкие по ключу, близки и в пространстве: непрерывный отрезок порядка —
+// компактная область (домен). У кривой Гильберта соседние ключи — всегда соседние ячейки,
+// у Мортона между октантами бывают скачки.
+final class SpaceFillingCurve {
+    static final int BITS = 21; // бит на ось: 3 · 21 = 63 бита ключа
+
+    private SpaceFillingCurve() {
+    }
+
+    // Ключи тел [0, n) в keys
+    static void mortonKeys(double[] posX, double[] posY, double[] posZ, int n, long[] keys) {
+        keys(BodyOrdering.MORTON, posX, posY, posZ, n, keys);
+    }
+
+    // Ключи тел [0, n) вдоль выбранной кривой
+    static void keys(BodyOrdering ordering, double[] posX, double[] posY, double[] posZ, int n, long[] keys) {
+        if (n == 0) return;
+        double minX = posX[0], maxX = posX[0], minY = posY[0], maxY = posY[0], minZ = posZ[0], maxZ = posZ[0];
+        for (int i = 1; i < n; i++) {
+            minX = Math.min(minX, posX[i]);
+            maxX = Math.max(maxX, posX[i]);
+            minY = Math.min(minY, posY[i]);
+            maxY = Math.max(maxY, posY[i]);
+            minZ = Math.min(minZ, posZ[i]);
+            maxZ = Math.max(maxZ, posZ[i]);
+        }
+        double size = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        double scale = size > 0 ? ((1 << BITS) - 1) / size : 0; // все тела в одной точке — один ключ
+        boolean hilbert = ordering == BodyOrdering.HILBERT;
+        for (int i = 0; i < n; i++) {
+            long x = (long) ((posX[i] - minX) * scale);
+            long y = (long) ((posY[i] - minY) * scale);
+            long z = (long) ((posZ[i] - minZ) * scale);
+            keys[i] = hilbert ? hilbert(x, y, z) : interleave(x, y, z);
+        }
+    }
+
+    // Номер ячейки (x, y, z) вдоль кривой Гильберта: координаты переводятся в «транспонированный»
+    // номер (алгоритм Скиллинга, 2004), биты которого затем чередуются, старшие — от x
+    static long hilbert(long x, long y, long z) {
+        for (long q = 1L << (BITS - 1); q > 1; q >>= 1) {
+            long p = q - 1;
+            // Для каждой оси: инверсия младших битов x или обмен ими с x
+            if ((x & q) != 0) {
+                x ^= p;
+            }
+            if ((y & q) != 0) {
+                x ^= p;
+            } else {
+                long t = (x ^ y) & p;
+                x ^= t;
+                y ^= t;
+            }
+            if ((z & q) != 0) {
+                x ^= p;
+            } else {
+                long t = (x ^ z) & p;
+                x ^= t;
+                z ^= t;
+            }
+        }
+        // Код Грея
+        y ^= x;
+        z ^= y;
+        long t = 0;
+        for (long q = 1L << (BITS - 1); q > 1; q >>= 1) {
+            if ((z & q) != 0) {
+                t ^= q - 1;
+            }
+        }
+        x ^= t;
+        y ^= t;
+        z ^= t;
+        return interleave(z, y, x);
+    }
+
+    // Чередование битов трёх координат: бит k оси x попадает в бит 3k ключа, y — в 3k+1, z — в 3k+2
+    static long interleave(long x, long y, long z) {
+        return spread(x) | spread(y) << 1 | spread(z) << 2;
+    }
+
+    // Раздвигает младшие 21 бит так, что между соседними битами остаётся по два нуля
+    private static long spread(long v) {
+        v &= 0x1fffffL;
+        v = (v | v << 32) & 0x1f00000000ffffL;
+        v = (v | v << 16) & 0x1f0000ff0000ffL;
+        v = (v | v << 8) & 0x100f00f00f00f00fL;
+        v = (v | v << 4) & 0x10c30c30c30c30c3L;
+        v = (v | v << 2) & 0x1249249249249249L;
+        return v;
+    }
+
+    // Индексы тел [0, n) по возрастанию ключа; при равных ключах сохраняется исходный порядок.
+    // Поразрядная сортировка по байтам, O(n); байты, одинаковые у всех ключей, пропускаются.
+    static int[] sortedOrder(long[] keys, int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        if (n == 0) return order;
+        long[] sortedKeys = Arrays.copyOf(keys, n);
+        int[] orderBuffer = new int[n];
+        long[] keyBuffer = new long[n];
+        int[] count = new int[257];
+        for (int shift = 0; shift < 3 * BITS; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int k = 0; k < n; k++) {
+                count[(int) (sortedKeys[k] >>> shift & 0xff) + 1]++;
+            }
+            if (count[(int) (sortedKeys[0] >>> shift & 0xff) + 1] == n) continue;
+            for (int b = 0; b < 256; b++) {
+                count[b + 1] += count[b];
+            }
+            for (int k = 0; k < n; k++) {
+                int slot = count[(int) (sortedKeys[k] >>> shift & 0xff)]++;
+                keyBuffer[slot] = sortedKeys[k];
+                orderBuffer[slot] = order[k];
+            }
+            long[] keysSwap = sortedKeys;
+            sortedKeys = keyBuffer;
+            keyBuffer = keysSwap;
+            int[] orderSwap = order;
+            order = orderBuffer;
+            orderBuffer = orderSwap;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Копия состояния всех тел на конкретном шаге.
+// Экземпляры заранее выделены в кольце канала и переиспользуются, поэтому
+// приёмник не должен хранить ссылку на снимок после возврата из accept.
+public class StateSnapshot {
+    private long step;
+    private double time;
+    private int size;
+    private String[] names = new String[0];
+    private int[] ids = new int[0];
+    private double[] mass = new double[0];
+    private double[] radius = new double[0];
+    private double[] posX = new double[0];
+    private double[] posY = new double[0];
+    private double[] posZ = new double[0];
+    private double[] velX = new double[0];
+    private double[] velY = new double[0];
+    private double[] velZ = new double[0];
+    private double[] accX = new double[0];
+    private double[] accY = new double[0];
+    private double[] accZ = new double[0];
+    private int collisionCount;
+    private int[] collisionFirst = new int[0];
+    private int[] collisionSecond = new int[0];
+
+    // Копирование состояния хранилища (выделяет память только при росте числа тел)
+    void capture(BodyStore store, long step, double time, CollisionPairs collisions) {
+        int n = store.size();
+        if (names.length < n) {
+            int capacity = store.capacity();
+            names = new String[capacity];
+            ids = new int[capacity];
+            mass = new double[capacity];
+            radius = new double[capacity];
+            posX = new double[capacity];
+            posY = new double[capacity];
+            posZ = new double[capacity];
+            velX = new double[capacity];
+            velY = new double[capacity];
+            velZ = new double[capacity];
+            accX = new double[capacity];
+            accY = new double[capacity];
+            accZ = new double[capacity];
+        }
+        this.step = step;
+        this.time = time;
+        this.size = n;
+        for (int i = 0; i < n; i++) {
+            names[i] = store.body(i).getName();
+            ids[i] = store.id(i);
+        }
+        System.arraycopy(store.mass, 0, mass, 0, n);
+        System.arraycopy(store.radius, 0, radius, 0, n);
+        System.arraycopy(store.posX, 0, posX, 0, n);
+        System.arraycopy(store.posY, 0, posY, 0, n);
+        System.arraycopy(store.posZ, 0, posZ, 0, n);
+        System.arraycopy(store.velX, 0, velX, 0, n);
+        System.arraycopy(store.velY, 0, velY, 0, n);
+        System.arraycopy(store.velZ, 0, velZ, 0, n);
+        System.arraycopy(store.accX, 0, accX, 0, n);
+        System.arraycopy(store.accY, 0, accY, 0, n);
+        System.arraycopy(store.accZ, 0, accZ, 0, n);
+
+        int pairs = collisions.size();
+        if (collisionFirst.length < pairs) {
+            collisionFirst = Arrays.copyOf(collisionFirst, Math.max(pairs, 2 * collisionFirst.length));
+            collisionSecond = Arrays.copyOf(collisionSecond, collisionFirst.length);
+        }
+        for (int k = 0; k < pairs; k++) {
+            collisionFirst[k] = collisions.first(k);
+            collisionSecond[k] = collisions.second(k);
+        }
+        this.collisionCount = pairs;
+    }
+
+    public long getStep() { return step; }
+    public double getTime() { return time; }
+    public int size() { return size; }
+    public String getName(int i) { return names[i]; }
+    // Постоянный номер тела: порядок тел в снимках может меняться (Simulation.enableReordering)
+    public int getId(int i) { return ids[i]; }
+    public double getMass(int i) { return mass[i]; }
+    public double getRadius(int i) { return radius[i]; }
+    public double getPosX(int i) { return posX[i]; }
+    public double getPosY(int i) { return posY[i]; }
+    public double getPosZ(int i) { return posZ[i]; }
+    public double getVelX(int i) { return velX[i]; }
+    public double getVelY(int i) { return velY[i]; }
+    public double getVelZ(int i) { return velZ[i]; }
+    public double getAccX(int i) { return accX[i]; }
+    public double getAccY(int i) { return accY[i]; }
+    public double getAccZ(int i) { return accZ[i]; }
+
+    // Столкновения на этом шаге (индексы тел в снимке)
+    public int getCollisionCount() { return collisionCount; }
+    public int getCollisionFirst(int k) { return collisionFirst[k]; }
+    public int getCollisionSecond(int k) { return collisionSecond[k]; }
+
+    // Кинетическая энергия тела i (Дж)
+    public double kineticEnergy(int i) {
+        return 0.5 * mass[i] * (velX[i] * velX[i] + velY[i] * velY[i] + velZ[i] * velZ[i]);
+    }
+
+    // Момент импульса тела i относительно центра симуляции: z-проекция со знаком (кг·м²/с)
+    public double angularMomentum(int i) {
+        return mass[i] * (posX[i] * velY[i] - posY[i] * velX[i]);
+    }
+
+    // Модуль вектора момента импульса тела i (кг·м²/с)
+    public double angularMomentumMagnitude(int i) {
+        double lx = posY[i] * velZ[i] - posZ[i] * velY[i];
+        double ly = posZ[i] * velX[i] - posX[i] * velZ[i];
+        double lz = posX[i] * velY[i] - posY[i] * velX[i];
+        return mass[i] * Math.sqrt(lx * lx + ly * ly + lz * lz);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import java.util.Locale;
+
+// Интегралы движения всей системы на одном шаге: энергия, импульс, момент импульса и центр масс
+public class SystemDiagnostics {
+    private final long step;
+    private final double time;
+    private final double kineticEnergy;   // Дж
+    private final double potentialEnergy; // Дж
+    private final double momentumX;       // кг·м/с
+    private final double momentumY;
+    private final double momentumZ;
+    private final double angularMomentumX; // кг·м²/с, относительно начала координат
+    private final double angularMomentumY;
+    private final double angularMomentumZ;
+    private final double centerOfMassX;   // м
+    private final double centerOfMassY;
+    private final double centerOfMassZ;
+    private final double totalMass;       // кг
+
+    public SystemDiagnostics(long step, double time, double kineticEnergy, double potentialEnergy,
+                             double momentumX, double momentumY, double momentumZ,
+                             double angularMomentumX, double angularMomentumY, double angularMomentumZ,
+                             double centerOfMassX, double centerOfMassY, double centerOfMassZ, double totalMass) {
+        this.step = step;
+        this.time = time;
+        this.kineticEnergy = kineticEnergy;
+        this.potentialEnergy = potentialEnergy;
+        this.momentumX = momentumX;
+        this.momentumY = momentumY;
+        this.momentumZ = momentumZ;
+        this.angularMomentumX = angularMomentumX;
+        this.angularMomentumY = angularMomentumY;
+        this.angularMomentumZ = angularMomentumZ;
+        this.centerOfMassX = centerOfMassX;
+        this.centerOfMassY = centerOfMassY;
+        this.centerOfMassZ = centerOfMassZ;
+        this.totalMass = totalMass;
+    }
+
+    public long getStep() { return step; }
+    public double getTime() { return time; }
+    public double getKineticEnergy() { return kineticEnergy; }
+    public double getPotentialEnergy() { return potentialEnergy; }
+    public double getTotalEnergy() { return kineticEnergy + potentialEnergy; }
+    public double getMomentumX() { return momentumX; }
+    public double getMomentumY() { return momentumY; }
+    public double getMomentumZ() { return momentumZ; }
+    public double getAngularMomentumX() { return angularMomentumX; }
+    public double getAngularMomentumY() { return angularMomentumY; }
+    public double getAngularMomentumZ() { return angularMomentumZ; }
+    public double getCenterOfMassX() { return centerOfMassX; }
+    public double getCenterOfMassY() { return centerOfMassY; }
+    public double getCenterOfMassZ() { return centerOfMassZ; }
+    public double getTotalMass() { return totalMass; }
+
+    // Модуль вектора момента импульса
+    public double getAngularMomentum() {
+        return Math.sqrt(angularMomentumX * angularMomentumX + angularMomentumY * angularMomentumY
+                + angularMomentumZ * angularMomentumZ);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "Шаг %d: E=%.6e Дж (K=%.3e, U=%.3e), P=(%.3e, %.3e, %.3e) кг·м/с, "
+                        + "L=(%.6e, %.6e, %.6e) кг·м²/с, ЦМ=(%.3e, %.3e, %.3e) м",
+                step, getTotalEnergy(), kineticEnergy, potentialEnergy, momentumX, momentumY, momentumZ,
+                angularMomentumX, angularMomentumY, angularMomentumZ, centerOfMassX, centerOfMassY, centerOfMassZ);
+    }
+}
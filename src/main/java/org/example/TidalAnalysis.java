@@ -0,0 +1,315 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Пакетный расчёт приливных и релятивистских величин для пар «спутник — хозяин».
+// Хозяин тела — самое «локальное» более массивное тело, в сфере Хилла которого оно находится:
+// тела обходятся по убыванию массы, сфера Хилла тела без хозяина (звезда) бесконечна,
+// для остальных r_H = d · ∛(m / 3M) по текущему расстоянию до своего хозяина.
+// Так Луна достаётся Земле, а не Солнцу, хотя Солнце притягивает её сильнее.
+//
+// Инварианты тел (порядок по массе, 2GR, 21/2 · G R⁵ / (μQ)) считаются один раз и
+// пересчитываются только при изменении набора тел (слияние) или по invalidate().
+// Расстояние пары, найденное при поиске хозяина, используется для всех величин пары;
+// степени r⁻³ и r⁻⁶ получаются умножениями вместо Math.pow. Результат — в примитивных массивах.
+public class TidalAnalysis {
+    public static final double SPEED_OF_LIGHT = 299_792_458.0; // м/с
+
+    // Начиная с этого числа тел поиск хозяев распределяется по пулу
+    private static final int PARALLEL_THRESHOLD = 4096;
+    private static final int BLOCK_SIZE = 512;
+
+    private final ForkJoinPool pool;
+    private final long interval;
+    private double rigidity = 3e10;   // модуль сдвига μ (Па), по умолчанию — каменное тело
+    private double qualityFactor = 100; // приливная добротность Q
+
+    // Инварианты тел; действительны, пока cachedSize == store.size()
+    private int cachedSize = -1;
+    private int[] order = new int[0];          // индексы тел по убыванию массы
+    private double[] sortedMass = new double[0]; // рабочие массивы сортировки order
+    private long[] sortKeys = new long[0];
+    private double[] tidalCoefficient = new double[0];   // 2 G R
+    private double[] heatingCoefficient = new double[0]; // 21/2 · G R⁵ / (μQ)
+
+    // Результат поиска хозяев, по позиции в order
+    private int[] hostOf = new int[0];        // индекс тела-хозяина или -1
+    private double[] hillSq = new double[0];  // квадрат радиуса сферы Хилла
+    private double[] hostDistSq = new double[0];
+
+    // Пары последнего расчёта
+    private int pairCount;
+    private long step = -1;
+    private double time;
+    private int[] satellite = new int[0];               // постоянные номера тел (BodyStore.id)
+    private int[] host = new int[0];
+    private double[] distance = new double[0];          // м
+    private double[] tidalForce = new double[0];        // м/с², разность ускорений на радиусе тела (2GMR/r³)
+    private double[] eccentricity = new double[0];      // оскулирующий эксцентриситет орбиты пары
+    private double[] tidalHeating = new double[0];      // Вт
+    private double[] perihelionAdvance = new double[0]; // рад за оборот, NaN для незамкнутой орбиты
+
+    // pool может быть null — тогда всё считается в вызывающем потоке
+    public TidalAnalysis(ForkJoinPool pool, long interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Интервал анализа должен быть положительным: " + interval);
+        }
+        this.pool = pool;
+        this.interval = interval;
+    }
+
+    public long getInterval() { return interval; }
+
+    // Свойства вещества спутников для приливного нагрева
+    public void setMaterial(double rigidity, double qualityFactor) {
+        if (rigidity <= 0 || qualityFactor <= 0) {
+            throw new IllegalArgumentException("Модуль сдвига и добротность должны быть положительными");
+        }
+        this.rigidity = rigidity;
+        this.qualityFactor = qualityFactor;
+        invalidate();
+    }
+
+    // Сброс инвариантов: следующий расчёт пересчитает их по текущим массам и радиусам
+    public void invalidate() {
+        cachedSize = -1;
+    }
+
+    // Вызывается после каждого шага; считает только на шагах, кратных interval
+    public void onStep(BodyStore store, long step, double time) {
+        if (step % interval == 0) {
+            analyze(store, step, time);
+        }
+    }
+
+    public void analyze(BodyStore store, long step, double time) {
+        int n = store.size();
+        if (n != cachedSize) {
+            cacheInvariants(store);
+        }
+        findHosts(store, n);
+        pairs(store, n);
+        this.step = step;
+        this.time = time;
+    }
+
+    public long getStep() { return step; }
+    public double getTime() { return time; }
+    public int getPairCount() { return pairCount; }
+    // Спутник и хозяин пары k — постоянные номера тел, индекс даёт BodyStore.indexOf
+    public int getSatellite(int k) { return satellite[k]; }
+    public int getHost(int k) { return host[k]; }
+    public double getDistance(int k) { return distance[k]; }
+    public double getTidalForce(int k) { return tidalForce[k]; }
+    public double getEccentricity(int k) { return eccentricity[k]; }
+    public double getTidalHeating(int k) { return tidalHeating[k]; }
+    public double getPerihelionAdvance(int k) { return perihelionAdvance[k]; }
+
+    // Суммарная мощность приливного нагрева по всем парам (Вт)
+    public double getTotalTidalHeating() {
+        double total = 0;
+        for (int k = 0; k < pairCount; k++) {
+            total += tidalHeating[k];
+        }
+        return total;
+    }
+
+    private void cacheInvariants(BodyStore store) {
+        int n = store.size();
+        if (order.length < n) {
+            int capacity = store.capacity();
+            order = new int[capacity];
+            sortedMass = new double[capacity];
+            sortKeys = new long[capacity];
+            tidalCoefficient = new double[capacity];
+            heatingCoefficient = new double[capacity];
+            hostOf = new int[capacity];
+            hillSq = new double[capacity];
+            hostDistSq = new double[capacity];
+            satellite = new int[capacity];
+            host = new int[capacity];
+            distance = new double[capacity];
+            tidalForce = new double[capacity];
+            eccentricity = new double[capacity];
+            tidalHeating = new double[capacity];
+            perihelionAdvance = new double[capacity];
+        }
+        double[] mass = store.mass;
+        double heating = 10.5 * CelestialBody.G / (rigidity * qualityFactor);
+        for (int i = 0; i < n; i++) {
+            double r = store.radius[i];
+            double r2 = r * r;
+            tidalCoefficient[i] = 2 * CelestialBody.G * r;
+            heatingCoefficient[i] = heating * r2 * r2 * r;
+        }
+        // Сортировка по убыванию массы, при равных массах — по индексу: ранг массы (равные массы
+        // получают один ранг) и индекс упаковываются в long, как ключи в SpaceFillingCurve.sortedOrder
+        System.arraycopy(mass, 0, sortedMass, 0, n);
+        Arrays.sort(sortedMass, 0, n);
+        for (int i = 0; i < n; i++) {
+            long rank = n - 1 - Arrays.binarySearch(sortedMass, 0, n, mass[i]);
+            sortKeys[i] = rank << 32 | i;
+        }
+        Arrays.sort(sortKeys, 0, n);
+        for (int k = 0; k < n; k++) {
+            order[k] = (int) sortKeys[k];
+        }
+        cachedSize = n;
+    }
+
+    // Поиск хозяев блоками по BLOCK_SIZE тел: кандидаты из уже обработанных блоков
+    // проверяются параллельно, затем внутри блока тела досматриваются по порядку
+    private void findHosts(BodyStore store, int n) {
+        for (int from = 0; from < n; from += BLOCK_SIZE) {
+            int to = Math.min(n, from + BLOCK_SIZE);
+            for (int k = from; k < to; k++) {
+                hostOf[k] = -1;
+                hillSq[k] = Double.POSITIVE_INFINITY;
+            }
+            if (pool != null && n >= PARALLEL_THRESHOLD && from > 0) {
+                pool.invoke(new ScanTask(store, from, to, from));
+            } else {
+                for (int k = from; k < to; k++) {
+                    scan(store, k, 0, from);
+                }
+            }
+            for (int k = from; k < to; k++) {
+                scan(store, k, from, k);
+                int h = hostOf[k];
+                if (h >= 0) {
+                    int i = order[k];
+                    double ratio = Math.cbrt(store.mass[i] / (3 * store.mass[h]));
+                    hillSq[k] = hostDistSq[k] * ratio * ratio;
+                }
+            }
+        }
+    }
+
+    // Кандидаты в хозяева тела order[k] среди позиций [from, to): выбирается тело
+    // с наименьшей сферой Хилла, внутри которой находится order[k].
+    // Временное значение hillSq[k] хранит сферу Хилла текущего кандидата.
+    private void scan(BodyStore store, int k, int from, int to) {
+        int i = order[k];
+        double xi = store.posX[i];
+        double yi = store.posY[i];
+        double zi = store.posZ[i];
+        double bestHill = hillSq[k];
+        int best = hostOf[k];
+        double bestDistSq = hostDistSq[k];
+        for (int l = from; l < to; l++) {
+            double hill = hillSq[l];
+            if (hill >= bestHill && best >= 0) continue;
+            int j = order[l];
+            double dx = store.posX[j] - xi;
+            double dy = store.posY[j] - yi;
+            double dz = store.posZ[j] - zi;
+            double distSq = dx * dx + dy * dy + dz * dz;
+            if (distSq < hill && (best < 0 || hill < bestHill)) {
+                best = j;
+                bestHill = hill;
+                bestDistSq = distSq;
+            }
+        }
+        hostOf[k] = best;
+        hillSq[k] = bestHill;
+        hostDistSq[k] = bestDistSq;
+    }
+
+    // Величины всех пар за один проход O(n) по найденным хозяевам
+    private void pairs(BodyStore store, int n) {
+        double[] mass = store.mass;
+        int count = 0;
+        for (int k = 0; k < n; k++) {
+            int h = hostOf[k];
+            if (h < 0) continue;
+            int s = order[k];
+            double distSq = hostDistSq[k];
+            if (distSq == 0) continue; // Избегаем деления на ноль
+            double invDist = 1.0 / Math.sqrt(distSq);
+            double invDist3 = invDist / distSq;
+            double hostMass = mass[h];
+
+            // Оскулирующая орбита спутника относительно хозяина: p = h²/μ, e² = 1 + (v² − 2μ/r) h²/μ²
+            double mu = CelestialBody.G * (hostMass + mass[s]);
+            double rx = store.posX[s] - store.posX[h];
+            double ry = store.posY[s] - store.posY[h];
+            double rz = store.posZ[s] - store.posZ[h];
+            double vx = store.velX[s] - store.velX[h];
+            double vy = store.velY[s] - store.velY[h];
+            double vz = store.velZ[s] - store.velZ[h];
+            double lx = ry * vz - rz * vy;
+            double ly = rz * vx - rx * vz;
+            double lz = rx * vy - ry * vx;
+            double angularSq = lx * lx + ly * ly + lz * lz;
+            double energy = vx * vx + vy * vy + vz * vz - 2 * mu * invDist;
+            double eSq = Math.max(0, 1 + energy * angularSq / (mu * mu));
+            double semiLatusRectum = angularSq / mu;
+
+            satellite[count] = store.id(s);
+            host[count] = store.id(h);
+            distance[count] = distSq * invDist;
+            tidalForce[count] = tidalCoefficient[s] * hostMass * invDist3;
+            eccentricity[count] = Math.sqrt(eSq);
+            tidalHeating[count] = heatingCoefficient[s] * hostMass * hostMass * eSq * invDist3 * invDist3;
+            perihelionAdvance[count] = eSq < 1
+                    ? 6 * Math.PI * CelestialBody.G * hostMass / (semiLatusRectum * SPEED_OF_LIGHT * SPEED_OF_LIGHT)
+                    : Double.NaN;
+            count++;
+        }
+        pairCount = count;
+    }
+
+    // Сводка: число пар, суммарный нагрев и пары с наибольшей приливной силой
+    public String report(BodyStore store, int top) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.US, "Шаг %d: пар «спутник — хозяин» %d, приливной нагрев %.3e Вт%n",
+                step, pairCount, getTotalTidalHeating()));
+        Integer[] byForce = new Integer[pairCount];
+        for (int k = 0; k < pairCount; k++) {
+            byForce[k] = k;
+        }
+        Arrays.sort(byForce, (a, b) -> Double.compare(tidalForce[b], tidalForce[a]));
+        for (int k = 0; k < Math.min(top, pairCount); k++) {
+            int p = byForce[k];
+            out.append(String.format(Locale.US,
+                    "  %s → %s: r=%.3e м, приливное ускорение %.3e м/с², e=%.4f, нагрев %.3e Вт, сдвиг перицентра %.3e рад/оборот%n",
+                    nameOf(store, satellite[p]), nameOf(store, host[p]), distance[p],
+                    tidalForce[p], eccentricity[p], tidalHeating[p], perihelionAdvance[p]));
+        }
+        return out.toString();
+    }
+
+    // Имя тела по постоянному номеру: индексы могли измениться после расчёта
+    private static String nameOf(BodyStore store, int id) {
+        int index = store.indexOf(id);
+        return index >= 0 ? store.body(index).getName() : "#" + id;
+    }
+
+    // Параллельная проверка кандидатов из завершённых блоков [0, limit) для позиций [from, to)
+    private final class ScanTask extends RecursiveAction {
+        private final BodyStore store;
+        private final int from, to, limit;
+
+        ScanTask(BodyStore store, int from, int to, int limit) {
+            this.store = store;
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 32) {
+                for (int k = from; k < to; k++) {
+                    scan(store, k, 0, limit);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScanTask(store, from, mid, limit), new ScanTask(store, mid, to, limit));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example;
+
+// Обёртка над методом расчёта сил, измеряющая каждый вызов.
+// Подставляется в интегратор только при включённых метриках.
+class TimedForceSolver implements ForceSolver {
+    private final ForceSolver delegate;
+    private final LatencyHistogram histogram;
+
+    TimedForceSolver(ForceSolver delegate, LatencyHistogram histogram) {
+        this.delegate = delegate;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ) {
+        long start = System.nanoTime();
+        delegate.computeAccelerations(store, posX, posY, posZ, accX, accY, accZ);
+        histogram.record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void computeAccelerations(BodyStore store, double[] posX, double[] posY, double[] posZ,
+                                     double[] accX, double[] accY, double[] accZ,
+                                     int[] active, int activeCount) {
+        long start = System.nanoTime();
+        delegate.computeAccelerations(store, posX, posY, posZ, accX, accY, accZ, active, activeCount);
+        histogram.record(System.nanoTime() - start);
+    }
+
+    @Override
+    public double potentialEnergy(BodyStore store) {
+        return delegate.potentialEnergy(store);
+    }
+}
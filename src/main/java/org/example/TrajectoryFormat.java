@@ -0,0 +1,51 @@
+package org.example;
+
+// Двоичный формат траектории (порядок байт — big-endian, как у ByteBuffer по умолчанию):
+//   заголовок:
+//     8 байт  магическая строка "ASTRTRJ1"
+//     int     версия формата
+//     int     число тел n
+//     int     интервал прореживания (записывается каждый k-й снимок)
+//     int     длина заголовка в байтах (начало первого кадра, кратно 8)
+//     long    число записанных кадров (обновляется после каждого кадра)
+//     затем для каждого тела: double масса, double радиус,
+//     строка имени и строка классификации (short длина + байты UTF-8)
+//   кадры фиксированной длины 16 + 48n байт:
+//     long шаг, double время, затем n раз: posX, posY, posZ, velX, velY, velZ
+// Запись идёт через отображённые сегменты, поэтому до close() файл длиннее записанного:
+// хвост сегмента заполнен нулями. Читатель берёт число кадров из заголовка, и файл оборванной
+// записи (процесс убит без close()) читается ровно до последнего завершённого кадра.
+// Версия 2 не хранила число кадров (оно определялось по размеру файла, и оборванная запись
+// читалась вместе с нулевым хвостом сегмента); версия 1 к тому же хранила только плоское
+// состояние (16 + 32n байт: posX, posY, velX, velY). Такие файлы по-прежнему читаются, версии 1 — с z = 0.
+final class TrajectoryFormat {
+    static final byte[] MAGIC = {'A', 'S', 'T', 'R', 'T', 'R', 'J', '1'};
+    static final int VERSION = 3;
+    static final int VERSION_UNCOUNTED = 2;
+    static final int VERSION_PLANAR = 1;
+    // Смещение счётчика кадров в заголовке версии 3
+    static final int FRAME_COUNT_OFFSET = 24;
+    static final int FRAME_HEADER_BYTES = 16;
+    static final int BYTES_PER_BODY = 48;
+    static final int BYTES_PER_BODY_PLANAR = 32;
+
+    // Размер отображаемого в память сегмента файла
+    static final long SEGMENT_BYTES = 64L << 20;
+
+    private TrajectoryFormat() {
+    }
+
+    static long frameStride(int bodyCount) {
+        return frameStride(bodyCount, VERSION);
+    }
+
+    static long frameStride(int bodyCount, int version) {
+        int perBody = version == VERSION_PLANAR ? BYTES_PER_BODY_PLANAR : BYTES_PER_BODY;
+        return FRAME_HEADER_BYTES + (long) perBody * bodyCount;
+    }
+
+    // Кадров в одном сегменте (не меньше одного)
+    static long framesPerSegment(long stride) {
+        return Math.max(1, SEGMENT_BYTES / stride);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example;
+
+// Переиспользуемый буфер одного кадра траектории
+public class TrajectoryFrame {
+    long step;
+    double time;
+    final double[] posX;
+    final double[] posY;
+    final double[] posZ;
+    final double[] velX;
+    final double[] velY;
+    final double[] velZ;
+
+    public TrajectoryFrame(int bodyCount) {
+        this.posX = new double[bodyCount];
+        this.posY = new double[bodyCount];
+        this.posZ = new double[bodyCount];
+        this.velX = new double[bodyCount];
+        this.velY = new double[bodyCount];
+        this.velZ = new double[bodyCount];
+    }
+
+    public long getStep() { return step; }
+    public double getTime() { return time; }
+    public int size() { return posX.length; }
+    public double getPosX(int i) { return posX[i]; }
+    public double getPosY(int i) { return posY[i]; }
+    public double getPosZ(int i) { return posZ[i]; }
+    public double getVelX(int i) { return velX[i]; }
+    public double getVelY(int i) { return velY[i]; }
+    public double getVelZ(int i) { return velZ[i]; }
+}
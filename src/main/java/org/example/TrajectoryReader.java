@@ -0,0 +1,152 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Чтение траектории, записанной TrajectoryWriter.
+// Кадры имеют фиксированную длину, поэтому переход к любому кадру — O(1);
+// файл читается через отображённые в память сегменты без разбора текста.
+public class TrajectoryReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final int version;
+    private final int bodyCount;
+    private final int subsample;
+    private final long dataOffset;
+    private final long stride;
+    private final long framesPerSegment;
+    private final long frameCount;
+
+    private final String[] names;
+    private final String[] classifications;
+    private final double[] mass;
+    private final double[] radius;
+
+    private MappedByteBuffer segment;
+    private long segmentFirstFrame = -1;
+
+    public TrajectoryReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer fixed = ByteBuffer.allocate(TrajectoryFormat.MAGIC.length + 16);
+        channel.read(fixed, 0);
+        fixed.flip();
+        byte[] magic = new byte[TrajectoryFormat.MAGIC.length];
+        fixed.get(magic);
+        if (!Arrays.equals(magic, TrajectoryFormat.MAGIC)) {
+            throw new IOException("Файл не является траекторией: " + path);
+        }
+        this.version = fixed.getInt();
+        if (version != TrajectoryFormat.VERSION && version != TrajectoryFormat.VERSION_UNCOUNTED
+                && version != TrajectoryFormat.VERSION_PLANAR) {
+            throw new IOException("Неподдерживаемая версия траектории: " + version);
+        }
+        this.bodyCount = fixed.getInt();
+        this.subsample = fixed.getInt();
+        this.dataOffset = fixed.getInt();
+
+        ByteBuffer header = ByteBuffer.allocate((int) dataOffset);
+        channel.read(header, 0);
+        header.position(fixed.limit());
+        long committed = -1;
+        if (version == TrajectoryFormat.VERSION) {
+            committed = header.getLong();
+        }
+        this.names = new String[bodyCount];
+        this.classifications = new String[bodyCount];
+        this.mass = new double[bodyCount];
+        this.radius = new double[bodyCount];
+        for (int i = 0; i < bodyCount; i++) {
+            mass[i] = header.getDouble();
+            radius[i] = header.getDouble();
+            names[i] = readString(header);
+            classifications[i] = readString(header);
+        }
+
+        this.stride = TrajectoryFormat.frameStride(bodyCount, version);
+        this.framesPerSegment = TrajectoryFormat.framesPerSegment(stride);
+        // Старые версии — по размеру файла; иначе — по счётчику (файл может быть короче, если обрезан)
+        long complete = (channel.size() - dataOffset) / stride;
+        this.frameCount = committed < 0 ? complete : Math.min(committed, complete);
+    }
+
+    public int getVersion() { return version; }
+    public int getBodyCount() { return bodyCount; }
+    public int getSubsample() { return subsample; }
+    public long getFrameCount() { return frameCount; }
+    public String getName(int i) { return names[i]; }
+    public String getClassification(int i) { return classifications[i]; }
+    public double getMass(int i) { return mass[i]; }
+    public double getRadius(int i) { return radius[i]; }
+
+    // Буфер кадра подходящего размера
+    public TrajectoryFrame newFrame() {
+        return new TrajectoryFrame(bodyCount);
+    }
+
+    // Чтение кадра с номером index в frame
+    public void readFrame(long index, TrajectoryFrame frame) throws IOException {
+        if (index < 0 || index >= frameCount) {
+            throw new IndexOutOfBoundsException("Кадр " + index + " вне диапазона 0.." + (frameCount - 1));
+        }
+        MappedByteBuffer buffer = segmentFor(index);
+        buffer.position((int) ((index - segmentFirstFrame) * stride));
+        frame.step = buffer.getLong();
+        frame.time = buffer.getDouble();
+        if (version == TrajectoryFormat.VERSION_PLANAR) {
+            for (int i = 0; i < bodyCount; i++) {
+                frame.posX[i] = buffer.getDouble();
+                frame.posY[i] = buffer.getDouble();
+                frame.posZ[i] = 0;
+                frame.velX[i] = buffer.getDouble();
+                frame.velY[i] = buffer.getDouble();
+                frame.velZ[i] = 0;
+            }
+            return;
+        }
+        for (int i = 0; i < bodyCount; i++) {
+            frame.posX[i] = buffer.getDouble();
+            frame.posY[i] = buffer.getDouble();
+            frame.posZ[i] = buffer.getDouble();
+            frame.velX[i] = buffer.getDouble();
+            frame.velY[i] = buffer.getDouble();
+            frame.velZ[i] = buffer.getDouble();
+        }
+    }
+
+    // Последовательный проход по кадрам [from, to) с одним переиспользуемым буфером
+    public void stream(long from, long to, Consumer<TrajectoryFrame> consumer) throws IOException {
+        TrajectoryFrame frame = newFrame();
+        for (long index = from; index < Math.min(to, frameCount); index++) {
+            readFrame(index, frame);
+            consumer.accept(frame);
+        }
+    }
+
+    private MappedByteBuffer segmentFor(long frame) throws IOException {
+        if (segment == null || frame < segmentFirstFrame || frame >= segmentFirstFrame + framesPerSegment) {
+            segmentFirstFrame = frame - frame % framesPerSegment;
+            long frames = Math.min(framesPerSegment, frameCount - segmentFirstFrame);
+            segment = channel.map(FileChannel.MapMode.READ_ONLY,
+                    dataOffset + segmentFirstFrame * stride, frames * stride);
+        }
+        return segment;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        channel.close();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,156 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+// Запись траектории в двоичный файл (см. TrajectoryFormat) через отображённые в память сегменты.
+// Подключается к симуляции как приёмник снимков, поэтому запись идёт не в потоке интегратора.
+// Тела записываются в порядке списка bodies, переданного при создании, независимо от их текущего
+// порядка в хранилище: ячейка тела в кадре находится по его постоянному номеру.
+public class TrajectoryWriter implements SnapshotSink {
+    private final FileChannel channel;
+    private final int bodyCount;
+    private final int subsample;
+    private final long dataOffset;
+    private final long stride;
+    private final long framesPerSegment;
+    private final int[] slotOfId; // позиция тела в кадре по постоянному номеру или -1
+
+    private final MappedByteBuffer frameCount; // счётчик кадров в заголовке
+    private MappedByteBuffer segment;
+    private long segmentFirstFrame;
+    private long framesWritten;
+    private long snapshotsSeen;
+
+    // subsample: записывать каждый subsample-й полученный снимок
+    public TrajectoryWriter(Path path, List<CelestialBody> bodies, int subsample) throws IOException {
+        if (subsample < 1) {
+            throw new IllegalArgumentException("Интервал прореживания должен быть положительным: " + subsample);
+        }
+        this.bodyCount = bodies.size();
+        this.subsample = subsample;
+        this.stride = TrajectoryFormat.frameStride(bodyCount);
+        this.framesPerSegment = TrajectoryFormat.framesPerSegment(stride);
+        int maxId = -1;
+        for (CelestialBody body : bodies) {
+            maxId = Math.max(maxId, body.getId());
+        }
+        this.slotOfId = new int[maxId + 1];
+        Arrays.fill(slotOfId, -1);
+        for (int slot = 0; slot < bodyCount; slot++) {
+            slotOfId[bodies.get(slot).getId()] = slot;
+        }
+
+        byte[] header = header(bodies, subsample);
+        this.dataOffset = header.length;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.write(ByteBuffer.wrap(header), 0);
+        this.frameCount = channel.map(FileChannel.MapMode.READ_WRITE, TrajectoryFormat.FRAME_COUNT_OFFSET, 8);
+    }
+
+    public long getFramesWritten() { return framesWritten; }
+
+    @Override
+    public void accept(StateSnapshot snapshot) {
+        if (snapshotsSeen++ % subsample != 0) return;
+        if (snapshot.size() != bodyCount) {
+            throw new IllegalStateException("Число тел изменилось: " + snapshot.size() + " вместо " + bodyCount);
+        }
+        try {
+            MappedByteBuffer buffer = segmentFor(framesWritten);
+            int frameStart = (int) ((framesWritten - segmentFirstFrame) * stride);
+            buffer.putLong(frameStart, snapshot.getStep());
+            buffer.putDouble(frameStart + 8, snapshot.getTime());
+            for (int i = 0; i < bodyCount; i++) {
+                int id = snapshot.getId(i);
+                int slot = id < slotOfId.length ? slotOfId[id] : -1;
+                if (slot < 0) {
+                    throw new IllegalStateException("Тело #" + id + " отсутствовало при создании записи");
+                }
+                int at = frameStart + TrajectoryFormat.FRAME_HEADER_BYTES + slot * TrajectoryFormat.BYTES_PER_BODY;
+                buffer.putDouble(at, snapshot.getPosX(i));
+                buffer.putDouble(at + 8, snapshot.getPosY(i));
+                buffer.putDouble(at + 16, snapshot.getPosZ(i));
+                buffer.putDouble(at + 24, snapshot.getVelX(i));
+                buffer.putDouble(at + 32, snapshot.getVelY(i));
+                buffer.putDouble(at + 40, snapshot.getVelZ(i));
+            }
+            framesWritten++;
+            // Счётчик — после данных кадра: убитый процесс оставляет только завершённые кадры
+            frameCount.putLong(0, framesWritten);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Отображение сегмента, содержащего кадр frame (новый сегмент — при переходе границы)
+    private MappedByteBuffer segmentFor(long frame) throws IOException {
+        if (segment == null || frame >= segmentFirstFrame + framesPerSegment) {
+            if (segment != null) {
+                segment.force();
+                frameCount.force(); // после данных: и при сбое системы счётчик не опережает кадры
+            }
+            segmentFirstFrame = frame - frame % framesPerSegment;
+            segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                    dataOffset + segmentFirstFrame * stride, framesPerSegment * stride);
+        }
+        return segment;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (segment != null) {
+                segment.force();
+                segment = null;
+            }
+            frameCount.force();
+            // Отрезаем незаполненный хвост последнего сегмента
+            channel.truncate(dataOffset + framesWritten * stride);
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static byte[] header(List<CelestialBody> bodies, int subsample) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(TrajectoryFormat.MAGIC);
+        out.writeInt(TrajectoryFormat.VERSION);
+        out.writeInt(bodies.size());
+        out.writeInt(subsample);
+        out.writeInt(0); // длина заголовка, заполняется ниже
+        out.writeLong(0); // число кадров, обновляется при записи
+        for (CelestialBody body : bodies) {
+            out.writeDouble(body.getMass());
+            out.writeDouble(body.getRadius());
+            writeString(out, body.getName());
+            writeString(out, body.getClassification());
+        }
+        // Выравнивание начала кадров на 8 байт
+        while (bytes.size() % 8 != 0) {
+            out.writeByte(0);
+        }
+        byte[] header = bytes.toByteArray();
+        ByteBuffer.wrap(header).putInt(TrajectoryFormat.MAGIC.length + 12, header.length);
+        return header;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(utf8.length);
+        out.write(utf8);
+    }
+}
@@ -0,0 +1,132 @@
+package org.example;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD-ядро прямого суммирования со смягчением Пламмера на jdk.incubator.vector.
+// Класс загружается только если модуль подключён (--add-modules jdk.incubator.vector),
+// иначе SoftenedForceSolver использует скалярное ядро.
+final class VectorKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private VectorKernel() {
+    }
+
+    // Число тел j, обрабатываемых одной векторной операцией
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    // То же для ядра смешанной точности
+    static int floatLanes() {
+        return FLOAT_SPECIES.length();
+    }
+
+    // Ускорения тел [from, to) от всех n тел: a = G Σ mⱼ d / (r² + ε²)^{3/2}.
+    // Один квадратный корень и одно деление на пару; пары с r² + ε² = 0 (тело само с собой
+    // без смягчения или совпадающие позиции) исключаются маской.
+    static void block(double[] mass, double[] posX, double[] posY, double[] posZ,
+                      double[] accX, double[] accY, double[] accZ,
+                      int from, int to, int n, double eps2) {
+        int upper = SPECIES.loopBound(n);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        for (int i = from; i < to; i++) {
+            double xi = posX[i];
+            double yi = posY[i];
+            double zi = posZ[i];
+            DoubleVector vxi = DoubleVector.broadcast(SPECIES, xi);
+            DoubleVector vyi = DoubleVector.broadcast(SPECIES, yi);
+            DoubleVector vzi = DoubleVector.broadcast(SPECIES, zi);
+            DoubleVector ax = DoubleVector.zero(SPECIES);
+            DoubleVector ay = DoubleVector.zero(SPECIES);
+            DoubleVector az = DoubleVector.zero(SPECIES);
+            int j = 0;
+            for (; j < upper; j += SPECIES.length()) {
+                DoubleVector dx = DoubleVector.fromArray(SPECIES, posX, j).sub(vxi);
+                DoubleVector dy = DoubleVector.fromArray(SPECIES, posY, j).sub(vyi);
+                DoubleVector dz = DoubleVector.fromArray(SPECIES, posZ, j).sub(vzi);
+                DoubleVector r2 = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).add(eps2);
+                VectorMask<Double> valid = r2.compare(VectorOperators.GT, 0.0);
+                DoubleVector invDist = one.div(r2.sqrt());
+                DoubleVector scale = DoubleVector.fromArray(SPECIES, mass, j).mul(invDist.mul(invDist).mul(invDist));
+                ax = ax.add(dx.mul(scale), valid);
+                ay = ay.add(dy.mul(scale), valid);
+                az = az.add(dz.mul(scale), valid);
+            }
+            double sumX = ax.reduceLanes(VectorOperators.ADD);
+            double sumY = ay.reduceLanes(VectorOperators.ADD);
+            double sumZ = az.reduceLanes(VectorOperators.ADD);
+            // Хвост, не кратный ширине вектора
+            for (; j < n; j++) {
+                double dx = posX[j] - xi;
+                double dy = posY[j] - yi;
+                double dz = posZ[j] - zi;
+                double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                if (r2 == 0) continue;
+                double invDist = 1.0 / Math.sqrt(r2);
+                double scale = mass[j] * invDist * invDist * invDist;
+                sumX += scale * dx;
+                sumY += scale * dy;
+                sumZ += scale * dz;
+            }
+            accX[i] = CelestialBody.G * sumX;
+            accY[i] = CelestialBody.G * sumY;
+            accZ[i] = CelestialBody.G * sumZ;
+        }
+    }
+
+    // Смешанная точность: вклад порции тел tile[0..count) в суммы строк row[0..rowCount).
+    // Безразмерные координаты и массы во float, ε² > 0 (маска не нужна: пара тела с самим собой даёт ноль).
+    // Суммы строки копятся во float только внутри порции, затем переносятся в double.
+    static void mixedTile(float[] tileX, float[] tileY, float[] tileZ, float[] tileM, int count,
+                          float[] rowX, float[] rowY, float[] rowZ, int rowCount, float eps2,
+                          double[] sumX, double[] sumY, double[] sumZ) {
+        int upper = FLOAT_SPECIES.loopBound(count);
+        FloatVector one = FloatVector.broadcast(FLOAT_SPECIES, 1f);
+        for (int r = 0; r < rowCount; r++) {
+            float xi = rowX[r];
+            float yi = rowY[r];
+            float zi = rowZ[r];
+            FloatVector vxi = FloatVector.broadcast(FLOAT_SPECIES, xi);
+            FloatVector vyi = FloatVector.broadcast(FLOAT_SPECIES, yi);
+            FloatVector vzi = FloatVector.broadcast(FLOAT_SPECIES, zi);
+            FloatVector ax = FloatVector.zero(FLOAT_SPECIES);
+            FloatVector ay = FloatVector.zero(FLOAT_SPECIES);
+            FloatVector az = FloatVector.zero(FLOAT_SPECIES);
+            int j = 0;
+            for (; j < upper; j += FLOAT_SPECIES.length()) {
+                FloatVector dx = FloatVector.fromArray(FLOAT_SPECIES, tileX, j).sub(vxi);
+                FloatVector dy = FloatVector.fromArray(FLOAT_SPECIES, tileY, j).sub(vyi);
+                FloatVector dz = FloatVector.fromArray(FLOAT_SPECIES, tileZ, j).sub(vzi);
+                FloatVector r2 = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).add(eps2);
+                FloatVector invDist = one.div(r2.sqrt());
+                FloatVector scale = FloatVector.fromArray(FLOAT_SPECIES, tileM, j).mul(invDist.mul(invDist).mul(invDist));
+                ax = ax.add(dx.mul(scale));
+                ay = ay.add(dy.mul(scale));
+                az = az.add(dz.mul(scale));
+            }
+            float partX = ax.reduceLanes(VectorOperators.ADD);
+            float partY = ay.reduceLanes(VectorOperators.ADD);
+            float partZ = az.reduceLanes(VectorOperators.ADD);
+            // Хвост, не кратный ширине вектора
+            for (; j < count; j++) {
+                float dx = tileX[j] - xi;
+                float dy = tileY[j] - yi;
+                float dz = tileZ[j] - zi;
+                float r2 = dx * dx + dy * dy + dz * dz + eps2;
+                float invDist = 1f / (float) Math.sqrt(r2);
+                float scale = tileM[j] * invDist * invDist * invDist;
+                partX += scale * dx;
+                partY += scale * dy;
+                partZ += scale * dz;
+            }
+            sumX[r] += partX;
+            sumY[r] += partY;
+            sumZ[r] += partZ;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+// Двоичный протокол координатора и рабочих по TCP (big-endian, как у DataOutputStream):
+//   рукопожатие: обе стороны пишут 8 байт "QBODYWRK" и int версию
+//   запрос: байт кода операции, затем тело
+//     BODIES     int n, строка UTF решателя ("direct", "bh:θ"), n × double масса
+//     DOMAIN     int k, k × int индекс тела — тела, ускорения которых считает рабочий
+//     FORCES     3n × double позиции: сначала все x, затем все y, затем все z
+//     POTENTIAL  3n × double позиции, как в FORCES
+//     CLOSE      без тела, завершает сеанс
+//   ответ: байт состояния OK или ERROR (за ERROR следует строка UTF с описанием), после OK:
+//     FORCES     long время расчёта в нс, 3k × double ускорения тел домена: все x, все y, все z
+//     POTENTIAL  long время расчёта в нс, double Σ mᵢ φᵢ по телам домена
+// Массы передаются только при изменении набора тел, домены — при перераспределении,
+// а на каждом расчёте сил идут лишь позиции туда и ускорения своего домена обратно.
+final class WorkerProtocol {
+    static final byte[] MAGIC = {'Q', 'B', 'O', 'D', 'Y', 'W', 'R', 'K'};
+    static final int VERSION = 1;
+    static final int DEFAULT_PORT = 7171;
+
+    static final int BODIES = 1;
+    static final int DOMAIN = 2;
+    static final int FORCES = 3;
+    static final int POTENTIAL = 4;
+    static final int CLOSE = 5;
+
+    static final int OK = 0;
+    static final int ERROR = 1;
+
+    private WorkerProtocol() {
+    }
+
+    static void writeHandshake(DataOutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.writeInt(VERSION);
+        out.flush();
+    }
+
+    static void readHandshake(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        int version = in.readInt();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+            throw new IOException("Несовместимый собеседник: версия протокола " + version + " вместо " + VERSION);
+        }
+    }
+
+    // Решатель рабочего по описанию: direct или bh:θ. Симметричного варианта нет: рабочий считает
+    // ускорения только своего домена, а по подмножеству тел DirectForceSolver всегда идёт без симметрии
+    static ForceSolver solver(String spec, ForkJoinPool pool) {
+        String kind = spec.toLowerCase(Locale.ROOT);
+        if (kind.equals("direct")) return new DirectForceSolver(pool);
+        if (kind.startsWith("bh:")) return new BarnesHutSolver(Double.parseDouble(kind.substring(3)));
+        throw new IllegalArgumentException("Неизвестный решатель рабочего: " + spec);
+    }
+
+    // Запись count значений из нескольких массивов подряд одним блоком байт;
+    // возвращает (возможно, увеличенный) буфер
+    static byte[] writeDoubles(DataOutputStream out, byte[] buffer, int count, double[]... arrays) throws IOException {
+        buffer = encodeDoubles(buffer, count, arrays);
+        out.write(buffer, 0, count * arrays.length * Double.BYTES);
+        return buffer;
+    }
+
+    // Кодирование без записи — когда одни и те же байты уходят нескольким рабочим
+    static byte[] encodeDoubles(byte[] buffer, int count, double[]... arrays) {
+        int bytes = count * arrays.length * Double.BYTES;
+        if (buffer.length < bytes) {
+            buffer = new byte[bytes];
+        }
+        DoubleBuffer doubles = ByteBuffer.wrap(buffer).asDoubleBuffer();
+        for (double[] array : arrays) {
+            doubles.put(array, 0, count);
+        }
+        return buffer;
+    }
+
+    // Чтение count значений в каждый из массивов подряд; возвращает (возможно, увеличенный) буфер
+    static byte[] readDoubles(DataInputStream in, byte[] buffer, int count, double[]... arrays) throws IOException {
+        int bytes = count * arrays.length * Double.BYTES;
+        if (buffer.length < bytes) {
+            buffer = new byte[bytes];
+        }
+        in.readFully(buffer, 0, bytes);
+        DoubleBuffer doubles = ByteBuffer.wrap(buffer, 0, bytes).asDoubleBuffer();
+        for (double[] array : arrays) {
+            doubles.get(array, 0, count);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example;
+
+// Симплектический метод Иошиды 4-го порядка: композиция трёх шагов «чехарды»
+// с весами w1, w0, w1, где w1 = 1 / (2 - 2^(1/3)), w0 = -2^(1/3) · w1.
+// Три расчёта сил на шаг (ускорения конца шага переиспользуются, как в LeapfrogIntegrator).
+public class YoshidaIntegrator implements Integrator {
+    public static final String NAME = "YOSHIDA4";
+
+    private static final double CBRT2 = Math.cbrt(2.0);
+    private static final double W1 = 1.0 / (2.0 - CBRT2);
+    private static final double W0 = -CBRT2 * W1;
+
+    private final LeapfrogIntegrator leapfrog = new LeapfrogIntegrator();
+
+    @Override
+    public String name() { return NAME; }
+
+    @Override
+    public void step(BodyStore store, ForceSolver solver, double dt) {
+        leapfrog.prime(store, solver);
+        LeapfrogIntegrator.kickDriftKick(store, solver, W1 * dt);
+        LeapfrogIntegrator.kickDriftKick(store, solver, W0 * dt);
+        LeapfrogIntegrator.kickDriftKick(store, solver, W1 * dt);
+    }
+
+    @Override
+    public void reset() {
+        leapfrog.reset();
+    }
+}
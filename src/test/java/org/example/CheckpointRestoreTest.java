@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Прогон, прерванный контрольной точкой и продолженный из неё, должен совпасть
+// с непрерывным до бита: положения, скорости, постоянные номера, режим столкновений
+// и расписание упорядочивания (поля версии 4) переживают запись и чтение.
+class CheckpointRestoreTest {
+    private static final long BEFORE = 130;
+    private static final long AFTER = 170;
+
+    @TempDir
+    Path dir;
+
+    private final List<Simulation> simulations = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        for (Simulation simulation : simulations) {
+            simulation.stopSimulation();
+        }
+    }
+
+    @Test
+    void mergingClusterContinuesIdentically() throws Exception {
+        Simulation reference = cluster(CollisionMode.MERGE);
+        Simulation restored = continueFromCheckpoint(reference);
+        assertTrue(reference.getMergeCount() > 0, "слияния должны быть — иначе режим не проверяется");
+        assertEquals(CollisionMode.MERGE, restored.getCollisionMode());
+    }
+
+    @Test
+    void bouncingClusterContinuesIdentically() throws Exception {
+        Simulation reference = cluster(CollisionMode.BOUNCE);
+        Simulation restored = continueFromCheckpoint(reference);
+        assertTrue(reference.getBounceCount() > 0, "отскоки должны быть — иначе режим не проверяется");
+        assertEquals(CollisionMode.BOUNCE, restored.getCollisionMode());
+        assertEquals(0.5, restored.getRestitution());
+    }
+
+    @Test
+    void reorderedDiskContinuesIdentically() throws Exception {
+        Simulation reference = new Simulation(ScenarioGenerator.generate("disk:200", 9), 3600, 1);
+        simulations.add(reference);
+        reference.enableReordering(BodyOrdering.HILBERT, 70);
+        reference.removeBody(17); // номера с пропуском
+        reference.addBody("Комета", 1e15, 1e4, 2e12, 0, 0, 0, 2e4, 0);
+
+        Simulation restored = continueFromCheckpoint(reference);
+        assertEquals(BodyOrdering.HILBERT, restored.getOrdering());
+        assertEquals(70, restored.getReorderInterval());
+        assertEquals(-1, restored.getStore().indexOf(17));
+        // Новое тело получает тот же номер, что и в непрерывном прогоне
+        assertEquals(reference.addBody("Новое", 1e15, 1e4, 3e12, 0, 0, 0, 2e4, 0).getId(),
+                restored.addBody("Новое", 1e15, 1e4, 3e12, 0, 0, 0, 2e4, 0).getId());
+    }
+
+    // Скопление с увеличенными радиусами, чтобы столкновения шли с первых шагов
+    private Simulation cluster(CollisionMode mode) {
+        BodyStore store = ScenarioGenerator.generate("cluster:300", 5);
+        for (int i = 0; i < store.size(); i++) {
+            store.radius[i] *= 3e7;
+        }
+        Simulation simulation = new Simulation(store, 3600 * 24, 1);
+        simulations.add(simulation);
+        simulation.setCollisionMode(mode);
+        simulation.setRestitution(0.5);
+        return simulation;
+    }
+
+    // reference проходит BEFORE шагов, сохраняется в файл и идёт дальше ещё AFTER шагов;
+    // восстановленная из файла симуляция проходит те же AFTER шагов и сравнивается с ним
+    private Simulation continueFromCheckpoint(Simulation reference) throws Exception {
+        reference.run(BEFORE);
+        Path path = dir.resolve("state.ckp");
+        Checkpoint.capture(reference).write(path);
+        long merges = reference.getMergeCount();
+        long bounces = reference.getBounceCount();
+        long reorders = reference.getReorderCount();
+
+        Simulation restored = Checkpoint.read(path).restore();
+        simulations.add(restored);
+        reference.run(AFTER);
+        restored.run(AFTER);
+
+        assertEquals(reference.getStepCount(), restored.getStepCount());
+        assertEquals(reference.getSimulationTime(), restored.getSimulationTime());
+        assertEquals(reference.getMergeCount() - merges, restored.getMergeCount());
+        assertEquals(reference.getBounceCount() - bounces, restored.getBounceCount());
+        assertEquals(reference.getReorderCount() - reorders, restored.getReorderCount());
+        assertEquals(reference.getLastReorderStep(), restored.getLastReorderStep());
+
+        BodyStore expected = reference.getStore();
+        BodyStore actual = restored.getStore();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.id(i), actual.id(i), "номер тела " + i);
+            assertEquals(expected.mass[i], actual.mass[i], "масса тела " + i);
+            assertEquals(expected.posX[i], actual.posX[i], "x тела " + i);
+            assertEquals(expected.posY[i], actual.posY[i], "y тела " + i);
+            assertEquals(expected.posZ[i], actual.posZ[i], "z тела " + i);
+            assertEquals(expected.velX[i], actual.velX[i], "vx тела " + i);
+            assertEquals(expected.velY[i], actual.velY[i], "vy тела " + i);
+            assertEquals(expected.velZ[i], actual.velZ[i], "vz тела " + i);
+        }
+        return restored;
+    }
+}
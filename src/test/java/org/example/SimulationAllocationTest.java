@@ -0,0 +1,57 @@
+package org.example;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Шаг в установившемся режиме не должен выделять память: счётчик выделенных потоком байт
+// (com.sun.management.ThreadMXBean) не меняется за STEPS шагов после прогрева.
+// Тел меньше порога распараллеливания, поэтому вся работа шага идёт в потоке теста.
+class SimulationAllocationTest {
+    private static final int WARMUP_STEPS = 20_000;
+    private static final int STEPS = 24 * 365;
+
+    private Simulation simulation;
+
+    @AfterEach
+    void stop() {
+        if (simulation != null) {
+            simulation.stopSimulation();
+        }
+    }
+
+    @Test
+    void twoBodyStepDoesNotAllocate() {
+        List<CelestialBody> bodies = new ArrayList<>();
+        bodies.add(new CelestialBody("Солнце", 1.989e30, 6.96e8, 0, 0, 0, 0, "Звезда", 0, 0, 0, 0, 0));
+        bodies.add(new CelestialBody("Земля", 5.972e24, 6.371e6, 1.496e11, 0, 0, 29780, "Планета", 0, 0, 0, 0, 0));
+        simulation = new Simulation(bodies, 3600, 1);
+        assertEquals(0, allocatedBytes(simulation));
+    }
+
+    @Test
+    void diskStepDoesNotAllocate() {
+        simulation = new Simulation(ScenarioGenerator.generate("disk:100", 42), 3600, 1);
+        assertEquals(0, allocatedBytes(simulation));
+    }
+
+    // Байт, выделенных потоком за STEPS шагов после прогрева
+    private static long allocatedBytes(Simulation simulation) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP_STEPS; i++) {
+            simulation.advance();
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < STEPS; i++) {
+            simulation.advance();
+        }
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+}
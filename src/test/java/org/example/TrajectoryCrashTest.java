@@ -0,0 +1,60 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запись траектории, оборванная гибелью процесса: отображённый сегмент уже растянул файл,
+// а close() не обрезал нулевой хвост. Читатель должен вернуть ровно записанные кадры.
+class TrajectoryCrashTest {
+    private static final int FRAMES = 37;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void killedWriterLeavesOnlyCompleteFrames() throws Exception {
+        Path path = dir.resolve("crash.trj");
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                CrashingWriter.class.getName(), path.toString(), Integer.toString(FRAMES))
+                .inheritIO()
+                .start();
+        assertEquals(0, process.waitFor());
+
+        try (TrajectoryReader reader = new TrajectoryReader(path)) {
+            long stride = TrajectoryFormat.frameStride(reader.getBodyCount());
+            assertTrue(Files.size(path) > stride * (FRAMES + 1), "файл не обрезан — проверка имеет смысл");
+            assertEquals(FRAMES, reader.getFrameCount());
+            TrajectoryFrame frame = reader.newFrame();
+            for (int k = 0; k < FRAMES; k++) {
+                reader.readFrame(k, frame);
+                assertEquals(k + 1, frame.step);
+            }
+        }
+    }
+
+    // Процесс-писатель: FRAMES шагов с записью каждого, затем остановка без close()
+    static final class CrashingWriter {
+        public static void main(String[] args) throws Exception {
+            Path path = Path.of(args[0]);
+            int frames = Integer.parseInt(args[1]);
+            Simulation simulation = new Simulation(ScenarioGenerator.generate("disk:50", 1), 3600, 1);
+            TrajectoryWriter writer = new TrajectoryWriter(path, simulation.getBodies(), 1);
+            StateSnapshot snapshot = new StateSnapshot();
+            for (int k = 0; k < frames; k++) {
+                simulation.advance();
+                snapshot.capture(simulation.getStore(), simulation.getStepCount(), simulation.getSimulationTime(),
+                        simulation.getCollisions());
+                writer.accept(snapshot);
+            }
+            Runtime.getRuntime().halt(0);
+        }
+    }
+}